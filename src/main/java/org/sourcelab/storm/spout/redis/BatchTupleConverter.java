@@ -0,0 +1,18 @@
+package org.sourcelab.storm.spout.redis;
+
+import java.util.List;
+
+/**
+ * Used to convert from a batch of Redis Messages into a single tuple, when the spout is configured to emit
+ * in batches using {@link RedisStreamSpoutConfig.Builder#withBatchEmit(int, long)}.
+ */
+public interface BatchTupleConverter extends TupleConverter {
+    /**
+     * Create a single Tuple from a batch of Messages pulled from Redis Stream.
+     * The tuple is anchored to every message in the batch, which are all acked or failed together.
+     * @param messages Messages pulled from Redis Stream, in the order they were read.
+     * @return Values/Tuple representation to be emitted by the spout.
+     *         A return value of NULL means every message will be acked and no tuple emitted by the spout.
+     */
+    TupleValue createBatchTuple(final List<Message> messages);
+}
@@ -0,0 +1,234 @@
+package org.sourcelab.storm.spout.redis;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable Map of String keys to String values, backed by a pair of parallel arrays, preserving the iteration order
+ * of the Map it was copied from.
+ *
+ * Used for message bodies, which hold a handful of fields each and are held on to from the time they are read until
+ * acked, by the funnel and any failure handler.  Compared to a HashMap or LinkedHashMap this avoids an entry object
+ * per field, and allows field names repeated across messages to be shared.  Lookups scan the keys, which for the small
+ * number of fields a message typically has is as fast as hashing.
+ *
+ * Values may also be held as raw UTF-8 bytes, each decoded into a String only the first time it is accessed, and
+ * available as-is using {@link CompactMap#getRawValue(Object)}.  Expected to be accessed from one thread at a time.
+ */
+public final class CompactMap extends AbstractMap<String, String> implements Serializable {
+    private final String[] keys;
+
+    /**
+     * Each value, either a String or its raw byte[] form.
+     */
+    private final Object[] values;
+
+    /**
+     * Values decoded from their raw form so far, created on first decode.
+     */
+    private transient String[] decoded;
+
+    /**
+     * Lazily created entry set view.
+     */
+    private transient Set<Map.Entry<String, String>> entrySet;
+
+    private CompactMap(final String[] keys, final Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Copy a Map.
+     * @param map Map to copy.
+     * @return Immutable copy, or the Map itself if already a CompactMap.
+     */
+    public static CompactMap copyOf(final Map<String, String> map) {
+        return copyOf(map, UnaryOperator.identity());
+    }
+
+    /**
+     * Copy a Map, replacing each key with an equal instance, such as one shared across messages.
+     * @param map Map to copy.
+     * @param keyMapper Returns the instance to hold for each key, which must be equal to the key.
+     * @return Immutable copy, or the Map itself if already a CompactMap holding the same key instances.
+     */
+    public static CompactMap copyOf(final Map<String, String> map, final UnaryOperator<String> keyMapper) {
+        Objects.requireNonNull(keyMapper);
+        if (Objects.requireNonNull(map) instanceof CompactMap) {
+            return ((CompactMap) map).withKeys(keyMapper);
+        }
+        final String[] keys = new String[map.size()];
+        final Object[] values = new Object[map.size()];
+        int index = 0;
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            keys[index] = keyMapper.apply(entry.getKey());
+            values[index] = entry.getValue();
+            index++;
+        }
+        return new CompactMap(keys, values);
+    }
+
+    /**
+     * Copy a Map of raw UTF-8 encoded values, each decoded only once accessed.  The byte arrays are held as-is,
+     * and must not be modified afterwards.
+     * @param map Map to copy.
+     * @param keyMapper Returns the instance to hold for each key, which must be equal to the key.
+     * @return Immutable copy.
+     */
+    public static CompactMap copyOfRaw(final Map<String, byte[]> map, final UnaryOperator<String> keyMapper) {
+        Objects.requireNonNull(keyMapper);
+        final String[] keys = new String[Objects.requireNonNull(map).size()];
+        final Object[] values = new Object[map.size()];
+        int index = 0;
+        for (final Map.Entry<String, byte[]> entry : map.entrySet()) {
+            keys[index] = keyMapper.apply(entry.getKey());
+            values[index] = entry.getValue();
+            index++;
+        }
+        return new CompactMap(keys, values);
+    }
+
+    /**
+     * Create a Map from alternating raw UTF-8 encoded keys and values, as returned by Redis.  Keys are decoded
+     * straight away, values only once accessed.  The byte arrays are held as-is, and must not be modified afterwards.
+     * @param keysAndValues Alternating keys and values.
+     * @return Immutable Map.
+     */
+    public static CompactMap ofRaw(final List<byte[]> keysAndValues) {
+        final String[] keys = new String[Objects.requireNonNull(keysAndValues).size() / 2];
+        final Object[] values = new Object[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = new String(keysAndValues.get(2 * index), StandardCharsets.UTF_8);
+            values[index] = keysAndValues.get((2 * index) + 1);
+        }
+        return new CompactMap(keys, values);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    /**
+     * Get a value in its UTF-8 encoded form, without decoding it if held as raw bytes.
+     * @param key Key of the value.
+     * @return Read only view of the value, or NULL if not found.
+     */
+    public ByteBuffer getRawValue(final Object key) {
+        final int index = indexOf(key);
+        if (index < 0 || values[index] == null) {
+            return null;
+        }
+        final Object value = values[index];
+        if (value instanceof byte[]) {
+            return ByteBuffer.wrap((byte[]) value).asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(((String) value).getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private String valueAt(final int index) {
+        final Object value = values[index];
+        if (!(value instanceof byte[])) {
+            return (String) value;
+        }
+        if (decoded == null) {
+            decoded = new String[values.length];
+        }
+        if (decoded[index] == null) {
+            decoded[index] = new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return decoded[index];
+    }
+
+    private CompactMap withKeys(final UnaryOperator<String> keyMapper) {
+        String[] mappedKeys = null;
+        for (int index = 0; index < keys.length; index++) {
+            final String key = keyMapper.apply(keys[index]);
+            if (key != keys[index] && mappedKeys == null) {
+                mappedKeys = keys.clone();
+            }
+            if (mappedKeys != null) {
+                mappedKeys[index] = key;
+            }
+        }
+        // Values are never modified, so may be shared.
+        return mappedKeys == null ? this : new CompactMap(mappedKeys, values);
+    }
+
+    private int indexOf(final Object key) {
+        // Shared keys usually match by reference, before falling back to equals().
+        for (int index = 0; index < keys.length; index++) {
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        for (int index = 0; index < keys.length; index++) {
+            if (keys[index].equals(key)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read only view of the entries, creating each entry as it is iterated over.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (index >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    final Map.Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], valueAt(index));
+                    index++;
+                    return entry;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.sourcelab.storm.spout.redis;
+
+/**
+ * Defines the delivery guarantee the spout provides for each message.
+ */
+public enum DeliverySemantics {
+    /**
+     * Tuples are emitted anchored to their message, which is only acknowledged in Redis once the tuple
+     * tree completes.  Failed or lost messages are replayed.  This is the default.
+     */
+    AT_LEAST_ONCE,
+
+    /**
+     * Messages are read using XREADGROUP NOACK, so they never enter the pending entries list, and tuples are emitted
+     * unanchored.  Nothing is tracked in flight or acknowledged, and messages lost along the way are never replayed.
+     */
+    AT_MOST_ONCE;
+}
@@ -1,5 +1,8 @@
 package org.sourcelab.storm.spout.redis;
 
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
@@ -7,22 +10,70 @@ import java.util.Objects;
 /**
  * Intermediate object representing the Redis Stream message, used to pass
  * between the Spout instance (prior to converting into a Tuple) and the background
- * consumer thread.
+ * consumer thread.  When configured, also used as the Storm message id tuples are anchored to.
  */
-public class Message {
+public class Message implements Serializable {
+    private final String streamKey;
     private final String id;
     private final Map<String, String> body;
 
+    /**
+     * Tuple converted ahead of time by the consumer thread, if configured.  Not kept when used as a Storm message id.
+     */
+    private final transient TupleValue tupleValue;
+
     /**
      * Constructor.
      * @param id Id/offset of the message.
      * @param body The stream message.
      */
     public Message(final String id, final Map<String, String> body) {
+        this(null, id, body);
+    }
+
+    /**
+     * Constructor.
+     * @param streamKey (optional) Key of the stream the message was read from.
+     * @param id Id/offset of the message.
+     * @param body The stream message.
+     */
+    public Message(final String streamKey, final String id, final Map<String, String> body) {
+        this.streamKey = streamKey;
         this.id = Objects.requireNonNull(id);
-        this.body = Collections.unmodifiableMap(Objects.requireNonNull(body));
+        // Already immutable, no need to wrap.
+        this.body = body instanceof CompactMap ? body : Collections.unmodifiableMap(Objects.requireNonNull(body));
+        this.tupleValue = null;
+    }
+
+    private Message(final Message message, final TupleValue tupleValue) {
+        this.streamKey = message.streamKey;
+        this.id = message.id;
+        this.body = message.body;
+        this.tupleValue = tupleValue;
+    }
+
+    /**
+     * Copy of this message, carrying the tuple it was converted into.
+     * @param tupleValue Tuple converted from this message.
+     * @return Message instance.
+     */
+    public Message withTupleValue(final TupleValue tupleValue) {
+        return new Message(this, Objects.requireNonNull(tupleValue));
     }
 
+    /**
+     * Key of the stream the message was read from, may be NULL if unknown.
+     * @return Stream key.
+     */
+    public String getStreamKey() {
+        return streamKey;
+    }
+
+    /**
+     * Id used to ack or fail the message.  When consuming from multiple streams this is qualified with
+     * the stream key, in the form of "streamKey/messageId".
+     * @return Id of the message.
+     */
     public String getId() {
         return id;
     }
@@ -31,6 +82,31 @@ public class Message {
         return body;
     }
 
+    /**
+     * Get a value from the body in its UTF-8 encoded form.  When reading binary bodies, this is the value as read
+     * from Redis, without ever decoding it into a String.
+     * @param field Name of the field.
+     * @return Read only view of the value, or NULL if the body has no such field.
+     */
+    public ByteBuffer getRawValue(final String field) {
+        if (body instanceof CompactMap) {
+            return ((CompactMap) body).getRawValue(field);
+        }
+        final String value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Tuple this message was converted into by the consumer thread, when configured to convert messages there.
+     * @return Converted tuple, or NULL if not converted ahead of time.
+     */
+    public TupleValue getTupleValue() {
+        return tupleValue;
+    }
+
     @Override
     public boolean equals(final Object other) {
         if (this == other) {
@@ -51,7 +127,8 @@ public class Message {
     @Override
     public String toString() {
         return "Message{"
-            + "id='" + id + '\''
+            + "streamKey='" + streamKey + '\''
+            + ", id='" + id + '\''
             + ", body=" + body
             + '}';
     }
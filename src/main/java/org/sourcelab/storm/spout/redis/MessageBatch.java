@@ -0,0 +1,43 @@
+package org.sourcelab.storm.spout.redis;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The messageId a batch of messages emitted as a single tuple is anchored to.  Acking or failing it acks or fails
+ * every message in the batch.
+ */
+public final class MessageBatch {
+    private final List<Message> messages;
+
+    /**
+     * Constructor.
+     * @param messages Messages in the batch.
+     */
+    public MessageBatch(final List<Message> messages) {
+        this.messages = Collections.unmodifiableList(Objects.requireNonNull(messages));
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Ids of the messages in the batch.
+     * @return Message ids.
+     */
+    public List<String> getMessageIds() {
+        return messages.stream()
+            .map(Message::getId)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "MessageBatch{"
+            + "messageIds=" + getMessageIds()
+            + '}';
+    }
+}
@@ -1,10 +1,12 @@
 package org.sourcelab.storm.spout.redis;
 
+import org.apache.storm.Config;
 import org.apache.storm.spout.SpoutOutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.IRichSpout;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.tuple.Fields;
+import org.apache.storm.utils.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.client.Client;
@@ -12,12 +14,15 @@ import org.sourcelab.storm.spout.redis.client.ClientFactory;
 import org.sourcelab.storm.spout.redis.client.Consumer;
 import org.sourcelab.storm.spout.redis.client.lettuce.LettuceClient;
 import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
-import org.sourcelab.storm.spout.redis.funnel.MemoryFunnel;
+import org.sourcelab.storm.spout.redis.funnel.FunnelFactory;
 import org.sourcelab.storm.spout.redis.funnel.SpoutFunnel;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Redis Stream based Spout for Apache Storm 2.2.x.
@@ -25,6 +30,11 @@ import java.util.Objects;
 public class RedisStreamSpout implements IRichSpout, AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(RedisStreamSpout.class);
 
+    /**
+     * Storm's default topology.message.timeout.secs.
+     */
+    private static final int DEFAULT_MESSAGE_TIMEOUT_SECS = 30;
+
     /**
      * Configuration Properties for the Spout.
      */
@@ -35,6 +45,45 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
      */
     private final TupleConverter messageConverter;
 
+    /**
+     * Converts from a batch of Messages into a tuple, NULL if not emitting in batches.
+     */
+    private final BatchTupleConverter batchConverter;
+
+    /**
+     * If true, tuples are emitted unanchored and never acked.
+     */
+    private final boolean atMostOnce;
+
+    /**
+     * Maximum number of messages to emit per call to nextTuple(), and for how long, 0 for no time limit.
+     */
+    private final int maxEmitPerCall;
+    private final long maxEmitNanos;
+
+    /**
+     * Maximum number of messages emitted together as a single tuple, 0 if not emitting in batches,
+     * and how long to wait for a batch to fill.
+     */
+    private final int batchEmitSize;
+    private final long batchEmitLingerMillis;
+
+    /**
+     * If true, tuples are anchored to their Message rather than to its id.
+     */
+    private final boolean messageReferenceIds;
+
+    /**
+     * If true, messages arrive already converted into tuples by the consumer thread.
+     */
+    private final boolean convertedByConsumer;
+
+    /**
+     * Configuration Properties for this task's consumer, consuming only its assigned partitions when partitioned.
+     * NULL if no partitions are assigned to this task.
+     */
+    private transient RedisStreamSpoutConfig consumerConfig;
+
     /**
      * Topology context.
      */
@@ -50,11 +99,35 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
      */
     private transient SpoutFunnel funnel;
 
+    /**
+     * Limit on the number of tuples pending, from topology.max.spout.pending, 0 if unlimited.
+     * Only anchored tuples count as pending.
+     */
+    private transient int maxSpoutPending = 0;
+
+    /**
+     * Number of tuples emitted which have not yet been acked or failed.
+     * Only accessed from the spout thread.
+     */
+    private transient int pendingTuples = 0;
+
+    /**
+     * Messages taken from the funnel waiting to be emitted as a batch, and when the first of them was taken.
+     * Only accessed from the spout thread.
+     */
+    private transient List<Message> currentBatch;
+    private transient long currentBatchStartMillis = 0L;
+
     /**
      * Background consumer thread.
      */
     private transient Thread consumerThread = null;
 
+    /**
+     * Consumer run by the background thread.
+     */
+    private transient volatile Consumer consumer = null;
+
     /**
      * Constructor.
      * @param config Configuration properties for the spout.
@@ -62,6 +135,14 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
     public RedisStreamSpout(final RedisStreamSpoutConfig config) {
         this.config = Objects.requireNonNull(config);
         this.messageConverter = config.getTupleConverter();
+        this.atMostOnce = config.isAtMostOnce();
+        this.maxEmitPerCall = config.getMaxEmitPerCall();
+        this.maxEmitNanos = TimeUnit.MICROSECONDS.toNanos(config.getMaxEmitMicros());
+        this.batchEmitSize = config.getBatchEmitSize();
+        this.batchConverter = batchEmitSize > 0 ? (BatchTupleConverter) messageConverter : null;
+        this.batchEmitLingerMillis = config.getBatchEmitLingerMillis();
+        this.messageReferenceIds = config.isMessageReferenceIdsEnabled();
+        this.convertedByConsumer = config.isConsumerThreadConversionEnabled();
     }
 
     /**
@@ -81,8 +162,27 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
         this.topologyContext = Objects.requireNonNull(topologyContext);
         this.collector = Objects.requireNonNull(spoutOutputCollector);
 
+        // Messages still in flight in other tasks must not be mistaken for abandoned messages.
+        validateAbandonedMessageReclaim(spoutConfig);
+
         // Create funnel instance.
-        this.funnel = new MemoryFunnel(config, spoutConfig, topologyContext);
+        this.funnel = new FunnelFactory().createFunnel(config, spoutConfig, topologyContext);
+
+        // Emitting multiple tuples per call, so limit pending tuples here as well as in the executor.
+        final Object maxPending = spoutConfig.get(Config.TOPOLOGY_MAX_SPOUT_PENDING);
+        if (!atMostOnce && maxPending instanceof Number) {
+            this.maxSpoutPending = ((Number) maxPending).intValue();
+        }
+        this.pendingTuples = 0;
+        this.currentBatch = new ArrayList<>(batchEmitSize);
+
+        // Determine which streams this task consumes from.
+        this.consumerConfig = createConsumerConfig();
+
+        // Expose how the consumer is pacing itself, if paced adaptively.
+        if (config.isMetricsEnabled() && config.isAdaptiveConsumerDelayEnabled()) {
+            topologyContext.registerGauge("consumerDelayMillis", () -> consumer == null ? 0L : consumer.getCurrentDelayMillis());
+        }
 
         // Create and start consumer thread.
         createAndStartConsumerThread();
@@ -114,25 +214,100 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
 
     @Override
     public void nextTuple() {
+        // Emit until the budget is exhausted, the funnel has no more messages, or too many tuples are pending.
+        final long deadlineNanos = maxEmitNanos > 0 ? System.nanoTime() + maxEmitNanos : 0L;
+        for (int handled = 0; handled < maxEmitPerCall; handled++) {
+            if (maxSpoutPending > 0 && pendingTuples >= maxSpoutPending) {
+                return;
+            }
+            if (!(batchEmitSize > 0 ? emitNextBatch() : emitNextMessage())) {
+                return;
+            }
+            if (deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Emit the next message from the funnel.
+     * @return true if a message was taken from the funnel, false if it had none.
+     */
+    private boolean emitNextMessage() {
         // Pop next message from funnel.
         final Message nextMessage = funnel.nextMessage();
 
         // If the funnel has no message
         if (nextMessage == null) {
             // Nothing to do.
-            return;
+            return false;
         }
 
-        // Build tuple from the message.
-        final TupleValue tuple = messageConverter.createTuple(nextMessage);
+        // Build tuple from the message, unless already built by the consumer thread.
+        final TupleValue tuple = convertedByConsumer ? nextMessage.getTupleValue() : messageConverter.createTuple(nextMessage);
         if (tuple == null) {
-            // If null returned, then we should ack the message and return
-            funnel.ackMessage(nextMessage.getId());
-            return;
+            // If null returned, then we should ack the message and return, unless nothing is acked.
+            if (!atMostOnce) {
+                funnel.ackMessage(nextMessage.getId());
+            }
+            return true;
         }
 
-        // Emit down that stream.
-        collector.emit(tuple.getStream(), tuple.getTuple(), nextMessage.getId());
+        // Emit down that stream, unanchored if delivering at most once.
+        if (atMostOnce) {
+            collector.emit(tuple.getStream(), tuple.getTuple());
+        } else {
+            collector.emit(tuple.getStream(), tuple.getTuple(), messageReferenceIds ? nextMessage : nextMessage.getId());
+            pendingTuples++;
+        }
+        return true;
+    }
+
+    /**
+     * Fill the current batch from the funnel, emitting it as a single tuple once full, or once its first
+     * message has waited long enough.
+     * @return true if a batch was emitted, false if still waiting for the batch to fill.
+     */
+    private boolean emitNextBatch() {
+        while (currentBatch.size() < batchEmitSize) {
+            final Message nextMessage = funnel.nextMessage();
+            if (nextMessage == null) {
+                break;
+            }
+            if (currentBatch.isEmpty()) {
+                currentBatchStartMillis = System.currentTimeMillis();
+            }
+            currentBatch.add(nextMessage);
+        }
+
+        // Wait for the batch to fill, until its first message has lingered long enough.
+        if (currentBatch.isEmpty()
+            || (currentBatch.size() < batchEmitSize && System.currentTimeMillis() - currentBatchStartMillis < batchEmitLingerMillis)) {
+            return false;
+        }
+
+        // Hand off the current batch and start a new one, the converter may hold onto the list.
+        final List<Message> messages = currentBatch;
+        currentBatch = new ArrayList<>(batchEmitSize);
+
+        // Build tuple from the batch.
+        final TupleValue tuple = batchConverter.createBatchTuple(messages);
+        if (tuple == null) {
+            // If null returned, then we should ack every message and return, unless nothing is acked.
+            if (!atMostOnce) {
+                messages.forEach((message) -> funnel.ackMessage(message.getId()));
+            }
+            return true;
+        }
+
+        // Emit down that stream, unanchored if delivering at most once.
+        if (atMostOnce) {
+            collector.emit(tuple.getStream(), tuple.getTuple());
+        } else {
+            collector.emit(tuple.getStream(), tuple.getTuple(), new MessageBatch(messages));
+            pendingTuples++;
+        }
+        return true;
     }
 
     @Override
@@ -142,6 +317,20 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
             return;
         }
 
+        // Ack every message in the batch.
+        if (msgId instanceof MessageBatch) {
+            ((MessageBatch) msgId).getMessages().forEach((message) -> funnel.ackMessage(message.getId()));
+            tupleCompleted();
+            return;
+        }
+
+        // Ack the message the tuple was anchored to.
+        if (msgId instanceof Message) {
+            funnel.ackMessage(((Message) msgId).getId());
+            tupleCompleted();
+            return;
+        }
+
         // Ignore non-string msgIds
         if (!(msgId instanceof String)) {
             return;
@@ -149,6 +338,7 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
 
         // Ack the msgId.
         funnel.ackMessage((String) msgId);
+        tupleCompleted();
     }
 
     @Override
@@ -158,6 +348,20 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
             return;
         }
 
+        // Fail every message in the batch.
+        if (msgId instanceof MessageBatch) {
+            ((MessageBatch) msgId).getMessages().forEach(funnel::failMessage);
+            tupleCompleted();
+            return;
+        }
+
+        // Fail the message the tuple was anchored to.
+        if (msgId instanceof Message) {
+            funnel.failMessage((Message) msgId);
+            tupleCompleted();
+            return;
+        }
+
         // Ignore non-string msgIds
         if (!(msgId instanceof String)) {
             return;
@@ -165,6 +369,16 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
 
         // Fail the msgId
         funnel.failMessage((String) msgId);
+        tupleCompleted();
+    }
+
+    /**
+     * Account for an emitted tuple being acked or failed.
+     */
+    private void tupleCompleted() {
+        if (pendingTuples > 0) {
+            pendingTuples--;
+        }
     }
 
     @Override
@@ -183,14 +397,76 @@ public class RedisStreamSpout implements IRichSpout, AutoCloseable {
         return new HashMap<>();
     }
 
+    /**
+     * Ensure messages of live consumers are never idle long enough to be claimed as abandoned.
+     * @param spoutConfig Configuration map passed from Storm.
+     */
+    private void validateAbandonedMessageReclaim(final Map<String, Object> spoutConfig) {
+        if (!config.isAbandonedMessageReclaimEnabled()) {
+            return;
+        }
+        final long messageTimeoutMillis = TimeUnit.SECONDS.toMillis(
+            ObjectReader.getInt(spoutConfig.get(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS), DEFAULT_MESSAGE_TIMEOUT_SECS)
+        );
+        if (config.getAbandonedMessageMinIdleMillis() <= messageTimeoutMillis + config.getAbandonedMessageMaxQueueingDelayMillis()) {
+            throw new IllegalStateException(
+                "Abandoned message min idle time of " + config.getAbandonedMessageMinIdleMillis() + "ms must be longer than "
+                + Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS + " (" + messageTimeoutMillis + "ms) plus the max queueing delay ("
+                + config.getAbandonedMessageMaxQueueingDelayMillis() + "ms), otherwise messages still in flight are delivered twice"
+            );
+        }
+    }
+
+    /**
+     * Create the configuration for this task's consumer.  When partitioned, only the partitions assigned
+     * to this task are consumed from.
+     * @return Configuration, or NULL if no partitions are assigned to this task.
+     */
+    private RedisStreamSpoutConfig createConsumerConfig() {
+        if (!config.isPartitioned()) {
+            return config;
+        }
+
+        final int taskIndex = topologyContext.getThisTaskIndex();
+        final int taskCount = topologyContext.getComponentTasks(topologyContext.getThisComponentId()).size();
+        final List<String> partitions = config.getPartitionsForTask(taskIndex, taskCount);
+        if (partitions.isEmpty()) {
+            logger.warn(
+                "No partitions assigned to task {} of {}, there are only {} partitions.",
+                taskIndex, taskCount, config.getStreamKeys().size()
+            );
+            return null;
+        }
+        logger.info("Assigned partitions {} to task {} of {}", partitions, taskIndex, taskCount);
+        return config.withAssignedStreamKeys(partitions);
+    }
+
     /**
      * Create background consumer thread.
      */
     private void createAndStartConsumerThread() {
+        // Nothing to consume for this task.
+        if (consumerConfig == null) {
+            return;
+        }
+
         // Create consumer and client
         final int taskIndex = topologyContext.getThisTaskIndex();
-        final Client client = new ClientFactory().createClient(config, taskIndex);
-        final Consumer consumer = new Consumer(config, client, (ConsumerFunnel) funnel);
+        final ClientFactory clientFactory = new ClientFactory();
+        final Client client = clientFactory.createClient(consumerConfig, taskIndex);
+
+        // If configured, create a second client dedicated to committing acks.
+        Client committerClient = null;
+        if (consumerConfig.isAckCommitterThreadEnabled()) {
+            committerClient = clientFactory.createClient(consumerConfig, taskIndex);
+        }
+
+        // If configured, create another client dedicated to reading ahead.
+        Client prefetchClient = null;
+        if (consumerConfig.isPrefetchEnabled()) {
+            prefetchClient = clientFactory.createClient(consumerConfig, taskIndex);
+        }
+        consumer = new Consumer(consumerConfig, client, committerClient, prefetchClient, (ConsumerFunnel) funnel);
 
         // Create background consuming thread.
         consumerThread = new Thread(
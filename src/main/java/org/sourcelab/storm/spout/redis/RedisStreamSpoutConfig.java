@@ -2,9 +2,13 @@ package org.sourcelab.storm.spout.redis;
 
 import org.sourcelab.storm.spout.redis.client.ClientType;
 import org.sourcelab.storm.spout.redis.failhandler.NoRetryHandler;
+import org.sourcelab.storm.spout.redis.failhandler.PendingListFailureHandler;
+import org.sourcelab.storm.spout.redis.funnel.FunnelType;
+import org.sourcelab.storm.spout.redis.funnel.WaitStrategy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -21,9 +25,14 @@ public class RedisStreamSpoutConfig implements Serializable {
     private final RedisCluster redisCluster;
 
     /**
-     * The Redis key to stream from.
+     * The Redis keys to stream from.
      */
-    private final String streamKey;
+    private final List<String> streamKeys;
+
+    /**
+     * If set, the stream keys are partitions of a single logical stream, divided between the spout's tasks.
+     */
+    private final boolean partitioned;
 
     /**
      * Consumer group name.
@@ -40,6 +49,11 @@ public class RedisStreamSpoutConfig implements Serializable {
      */
     private final int maxConsumePerRead;
 
+    /**
+     * Minimum number of messages to read per consume when sizing reads adaptively, 0 to always read maxConsumePerRead.
+     */
+    private final int minConsumePerRead;
+
     /**
      * Size of the internal buffer for consuming entries from redis.
      */
@@ -55,6 +69,92 @@ public class RedisStreamSpoutConfig implements Serializable {
      */
     private final long consumerDelayMillis;
 
+    /**
+     * Upper bound on the consumer's delay between batches when pacing adaptively, 0 to always delay consumerDelayMillis.
+     */
+    private final long maxConsumerDelayMillis;
+
+    /**
+     * How long a read should block server side waiting for new messages to arrive.
+     */
+    private final long consumerBlockMillis;
+
+    /**
+     * Maximum number of acked messageIds to commit in a single XACK request.
+     */
+    private final int maxAckBatchSize;
+
+    /**
+     * Maximum time an acked messageId may wait to be batched with others before being committed.
+     */
+    private final long ackLingerMillis;
+
+    /**
+     * If enabled, acks are committed from a dedicated thread using its own connection.
+     */
+    private final boolean ackCommitterThreadEnabled;
+
+    /**
+     * Number of batches to read ahead from a dedicated thread using its own connection, 0 to disable.
+     */
+    private final int prefetchBatches;
+
+    /**
+     * Maximum number of messages emitted per call to nextTuple(), and how long in microseconds each call may keep
+     * emitting for, 0 for no time limit.
+     */
+    private final int maxEmitPerCall;
+    private final long maxEmitMicros;
+
+    /**
+     * Maximum number of messages emitted together as a single tuple, 0 to emit each message as its own tuple,
+     * and how long in milliseconds to wait for a batch to fill before emitting it.
+     */
+    private final int batchEmitSize;
+    private final long batchEmitLingerMillis;
+
+    /**
+     * If enabled, tuples are anchored to their Message itself, rather than to its id, so in flight messages
+     * don't need to be tracked by the funnel.
+     */
+    private final boolean messageReferenceIdsEnabled;
+
+    /**
+     * If enabled, messages are converted into tuples by the consumer thread before being handed to the spout.
+     */
+    private final boolean consumerThreadConversionEnabled;
+
+    /**
+     * How long a message must sit idle in another consumer's pending list before it is claimed, 0 to disable.
+     */
+    private final long abandonedMessageMinIdleMillis;
+
+    /**
+     * How often to scan the group's pending list for abandoned messages.
+     */
+    private final long abandonedMessageReclaimIntervalMillis;
+
+    /**
+     * Longest a message may wait within the spout before being emitted, used to validate the abandoned message min idle time.
+     */
+    private final long abandonedMessageMaxQueueingDelayMillis;
+
+    /**
+     * How long another consumer with no pending messages must be idle before it is removed from the group, 0 to disable.
+     */
+    private final long idleConsumerRemovalMillis;
+
+    /**
+     * If enabled, when consuming from streams spread across a RedisCluster, each node's streams are read
+     * concurrently by a dedicated reader.
+     */
+    private final boolean clusterNodeReadersEnabled;
+
+    /**
+     * If enabled, message body values are read as raw bytes, and only decoded into Strings when accessed.
+     */
+    private final boolean binaryBodiesEnabled;
+
     /**
      * TupleConverter instance for converting Stream messages into Tuples.
      */
@@ -65,6 +165,11 @@ public class RedisStreamSpoutConfig implements Serializable {
      */
     private final FailureHandler failureHandler;
 
+    /**
+     * Delivery guarantee provided for each message.
+     */
+    private final DeliverySemantics deliverySemantics;
+
     /**
      * Metric collection enable/disable flag.
      * Defaults to enabled.
@@ -76,6 +181,35 @@ public class RedisStreamSpoutConfig implements Serializable {
      */
     private final ClientType clientType;
 
+    /**
+     * If enabled, Lettuce clients and their thread pools are shared by every spout task in the worker.
+     * Thread pool sizes of 0 use Lettuce's defaults.
+     */
+    private final boolean sharedClientResourcesEnabled;
+    private final int ioThreadPoolSize;
+    private final int computationThreadPoolSize;
+
+    /**
+     * If a maximum pool size is set, Jedis connections to a single Redis instance are borrowed from a JedisPool,
+     * and acks are pipelined.  Pool sizes also apply to the per node pools of JedisCluster.
+     * If read ack pipelining is enabled, acks are held back and sent in the same pipeline as the next read.
+     */
+    private final int jedisPoolMaxTotal;
+    private final int jedisPoolMaxIdle;
+    private final boolean jedisReadAckPipeliningEnabled;
+
+    /**
+     * Jedis connection and socket timeouts, in milliseconds.
+     */
+    private final int connectionTimeoutMillis;
+    private final int socketTimeoutMillis;
+
+    /**
+     * Defines which funnel implementation to use, and how its threads wait.
+     */
+    private final FunnelType funnelType;
+    private final WaitStrategy funnelWaitStrategy;
+
     /**
      * Constructor.
      * Use Builder instance.
@@ -85,13 +219,26 @@ public class RedisStreamSpoutConfig implements Serializable {
         final RedisServer redisServer,
         final RedisCluster redisCluster,
         // Consumer properties
-        final String streamKey, final String groupName, final String consumerIdPrefix,
+        final List<String> streamKeys, final boolean partitioned, final String groupName, final String consumerIdPrefix,
         // Classes
         final TupleConverter tupleConverterClass, final FailureHandler failureHandlerClass,
+        final DeliverySemantics deliverySemantics,
 
         // Other settings
-        final int maxConsumePerRead, final int maxTupleQueueSize, final int maxAckQueueSize, final long consumerDelayMillis,
-        final boolean metricsEnabled, final ClientType clientType
+        final int minConsumePerRead, final int maxConsumePerRead, final int maxTupleQueueSize, final int maxAckQueueSize,
+        final long consumerDelayMillis, final long maxConsumerDelayMillis, final long consumerBlockMillis,
+        final int maxAckBatchSize, final long ackLingerMillis, final boolean ackCommitterThreadEnabled,
+        final int prefetchBatches, final int maxEmitPerCall, final long maxEmitMicros,
+        final int batchEmitSize, final long batchEmitLingerMillis, final boolean messageReferenceIdsEnabled,
+        final boolean consumerThreadConversionEnabled,
+        final long abandonedMessageMinIdleMillis, final long abandonedMessageReclaimIntervalMillis,
+        final long abandonedMessageMaxQueueingDelayMillis,
+        final long idleConsumerRemovalMillis, final boolean clusterNodeReadersEnabled, final boolean binaryBodiesEnabled,
+        final boolean metricsEnabled, final ClientType clientType,
+        final boolean sharedClientResourcesEnabled, final int ioThreadPoolSize, final int computationThreadPoolSize,
+        final int jedisPoolMaxTotal, final int jedisPoolMaxIdle, final boolean jedisReadAckPipeliningEnabled,
+        final int connectionTimeoutMillis, final int socketTimeoutMillis,
+        final FunnelType funnelType, final WaitStrategy funnelWaitStrategy
     ) {
         // Connection
         if (redisCluster != null && redisServer != null) {
@@ -111,25 +258,205 @@ public class RedisStreamSpoutConfig implements Serializable {
         // Consumer Details
         this.groupName = Objects.requireNonNull(groupName);
         this.consumerIdPrefix = Objects.requireNonNull(consumerIdPrefix);
-        this.streamKey = Objects.requireNonNull(streamKey);
+        if (Objects.requireNonNull(streamKeys).isEmpty()) {
+            throw new IllegalStateException("You must configure at least one stream key to consume from.");
+        }
+        if (streamKeys.stream().distinct().count() != streamKeys.size()) {
+            throw new IllegalStateException("Stream keys must be unique, found duplicates in " + streamKeys);
+        }
+        streamKeys.forEach(Objects::requireNonNull);
+        this.streamKeys = Collections.unmodifiableList(new ArrayList<>(streamKeys));
+        this.partitioned = partitioned;
 
         // Classes
         this.tupleConverter = Objects.requireNonNull(tupleConverterClass);
         this.failureHandler = Objects.requireNonNull(failureHandlerClass);
 
+        // Delivery
+        this.deliverySemantics = Objects.requireNonNull(deliverySemantics);
+        if (deliverySemantics == DeliverySemantics.AT_MOST_ONCE) {
+            if (failureHandlerClass instanceof PendingListFailureHandler || abandonedMessageMinIdleMillis > 0) {
+                throw new IllegalStateException(
+                    "At most once delivery cannot be combined with reclaiming messages from the pending entries list, "
+                    + "as messages claimed would never be acknowledged."
+                );
+            }
+        }
+
         // Other settings
+        if (minConsumePerRead > maxConsumePerRead) {
+            throw new IllegalStateException(
+                "Minimum consume per read " + minConsumePerRead + " cannot exceed maximum " + maxConsumePerRead
+            );
+        }
+        this.minConsumePerRead = minConsumePerRead;
         this.maxConsumePerRead = maxConsumePerRead;
         this.maxTupleQueueSize = maxTupleQueueSize;
         this.maxAckQueueSize = maxAckQueueSize;
+        if (maxConsumerDelayMillis > 0 && maxConsumerDelayMillis < consumerDelayMillis) {
+            throw new IllegalStateException(
+                "Maximum consumer delay " + maxConsumerDelayMillis + " cannot be less than minimum " + consumerDelayMillis
+            );
+        }
         this.consumerDelayMillis = consumerDelayMillis;
+        this.maxConsumerDelayMillis = maxConsumerDelayMillis;
+        this.consumerBlockMillis = consumerBlockMillis;
+        this.maxAckBatchSize = maxAckBatchSize;
+        this.ackLingerMillis = ackLingerMillis;
+        this.ackCommitterThreadEnabled = ackCommitterThreadEnabled;
+        if (prefetchBatches > 0 && minConsumePerRead > 0) {
+            throw new IllegalStateException(
+                "Adaptive read sizing cannot be combined with prefetching, as reads ahead are sized from the tuple queue's room."
+            );
+        }
+        this.prefetchBatches = prefetchBatches;
+        this.maxEmitPerCall = maxEmitPerCall;
+        this.maxEmitMicros = maxEmitMicros;
+        if (batchEmitSize > 0 && !(tupleConverterClass instanceof BatchTupleConverter)) {
+            throw new IllegalStateException(
+                "Batch emit requires the TupleConverter " + tupleConverterClass.getClass().getName()
+                + " to implement BatchTupleConverter"
+            );
+        }
+        this.batchEmitSize = batchEmitSize;
+        this.batchEmitLingerMillis = batchEmitLingerMillis;
+        this.messageReferenceIdsEnabled = messageReferenceIdsEnabled;
+        if (consumerThreadConversionEnabled && batchEmitSize > 0) {
+            throw new IllegalStateException(
+                "Converting messages on the consumer thread cannot be combined with batch emit, "
+                + "as batches are only assembled by the spout."
+            );
+        }
+        this.consumerThreadConversionEnabled = consumerThreadConversionEnabled;
+        this.abandonedMessageMinIdleMillis = abandonedMessageMinIdleMillis;
+        this.abandonedMessageReclaimIntervalMillis = abandonedMessageReclaimIntervalMillis;
+        this.abandonedMessageMaxQueueingDelayMillis = abandonedMessageMaxQueueingDelayMillis;
+        this.idleConsumerRemovalMillis = idleConsumerRemovalMillis;
+        if (clusterNodeReadersEnabled && minConsumePerRead > 0) {
+            throw new IllegalStateException(
+                "Adaptive read sizing cannot be combined with cluster node readers, as each reader reads ahead independently."
+            );
+        }
+        this.clusterNodeReadersEnabled = clusterNodeReadersEnabled;
         this.metricsEnabled = metricsEnabled;
 
         // Client type implementation
         this.clientType = Objects.requireNonNull(clientType);
+        this.sharedClientResourcesEnabled = sharedClientResourcesEnabled;
+        this.ioThreadPoolSize = ioThreadPoolSize;
+        this.computationThreadPoolSize = computationThreadPoolSize;
+        if (jedisReadAckPipeliningEnabled) {
+            if (jedisPoolMaxTotal < 1) {
+                throw new IllegalStateException("Read ack pipelining requires a JedisPool, configure one using Builder.withJedisPool()");
+            }
+            if (redisCluster != null) {
+                throw new IllegalStateException("Read ack pipelining is only supported connecting to a single Redis instance");
+            }
+            if (ackCommitterThreadEnabled || prefetchBatches > 0) {
+                throw new IllegalStateException(
+                    "Read ack pipelining cannot be combined with the ack committer thread or prefetching, "
+                    + "as acks are then committed by a client which never reads."
+                );
+            }
+        }
+        if (binaryBodiesEnabled) {
+            if (clientType == ClientType.LETTUCE_ASYNC || clusterNodeReadersEnabled) {
+                throw new IllegalStateException(
+                    "Binary message bodies are not supported by the asynchronous Lettuce client or cluster node readers"
+                );
+            }
+            if (clientType == ClientType.JEDIS && (jedisPoolMaxTotal < 1 || redisCluster != null)) {
+                throw new IllegalStateException(
+                    "Binary message bodies using Jedis require a JedisPool connecting to a single Redis instance, "
+                    + "configure one using Builder.withJedisPool()"
+                );
+            }
+        }
+        this.binaryBodiesEnabled = binaryBodiesEnabled;
+        this.jedisPoolMaxTotal = jedisPoolMaxTotal;
+        this.jedisPoolMaxIdle = jedisPoolMaxIdle;
+        this.jedisReadAckPipeliningEnabled = jedisReadAckPipeliningEnabled;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+
+        // Funnel implementation
+        this.funnelType = Objects.requireNonNull(funnelType);
+        this.funnelWaitStrategy = Objects.requireNonNull(funnelWaitStrategy);
     }
 
+    /**
+     * The key of the stream to consume from.  When consuming from multiple streams, the first of them.
+     * @return Stream key.
+     */
     public String getStreamKey() {
-        return streamKey;
+        return streamKeys.get(0);
+    }
+
+    public List<String> getStreamKeys() {
+        return streamKeys;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Determine which partitions a task of the spout should consume from, when partitioned.  Partitions are assigned
+     * round-robin by task index, so every task takes the same partitions for as long as the parallelism is unchanged.
+     * @param taskIndex Index of the task within the spout component.
+     * @param taskCount Number of tasks of the spout component.
+     * @return Keys of the partitions to consume from, may be empty if there are more tasks than partitions.
+     */
+    public List<String> getPartitionsForTask(final int taskIndex, final int taskCount) {
+        if (taskIndex < 0 || taskIndex >= taskCount) {
+            throw new IllegalArgumentException("Task index " + taskIndex + " is out of range for " + taskCount + " tasks");
+        }
+        if (!partitioned) {
+            return streamKeys;
+        }
+        final List<String> assigned = new ArrayList<>();
+        for (int partition = taskIndex; partition < streamKeys.size(); partition += taskCount) {
+            assigned.add(streamKeys.get(partition));
+        }
+        return assigned;
+    }
+
+    /**
+     * Create a copy of this configuration consuming from only the given stream keys, such as the partitions
+     * assigned to a task of the spout.
+     * @param keys Stream keys to consume from.
+     * @return Configuration instance.
+     */
+    public RedisStreamSpoutConfig withAssignedStreamKeys(final List<String> keys) {
+        return new RedisStreamSpoutConfig(
+            redisServer, redisCluster,
+            keys, false, groupName, consumerIdPrefix,
+            tupleConverter, failureHandler,
+            deliverySemantics,
+            minConsumePerRead, maxConsumePerRead, maxTupleQueueSize, maxAckQueueSize,
+            consumerDelayMillis, maxConsumerDelayMillis, consumerBlockMillis,
+            maxAckBatchSize, ackLingerMillis, ackCommitterThreadEnabled,
+            prefetchBatches, maxEmitPerCall, maxEmitMicros,
+            batchEmitSize, batchEmitLingerMillis, messageReferenceIdsEnabled,
+            consumerThreadConversionEnabled,
+            abandonedMessageMinIdleMillis, abandonedMessageReclaimIntervalMillis, abandonedMessageMaxQueueingDelayMillis,
+            idleConsumerRemovalMillis,
+            clusterNodeReadersEnabled, binaryBodiesEnabled,
+            metricsEnabled, clientType,
+            sharedClientResourcesEnabled, ioThreadPoolSize, computationThreadPoolSize,
+            jedisPoolMaxTotal, jedisPoolMaxIdle, jedisReadAckPipeliningEnabled,
+            connectionTimeoutMillis, socketTimeoutMillis,
+            funnelType, funnelWaitStrategy
+        );
+    }
+
+    /**
+     * Is the spout consuming from more than one stream.  If so, messageIds are qualified with the key of the stream
+     * they were read from.
+     * @return true if consuming from more than one stream.
+     */
+    public boolean isConsumingMultipleStreams() {
+        return streamKeys.size() > 1;
     }
 
     public String getGroupName() {
@@ -144,6 +471,14 @@ public class RedisStreamSpoutConfig implements Serializable {
         return maxConsumePerRead;
     }
 
+    public int getMinConsumePerRead() {
+        return minConsumePerRead;
+    }
+
+    public boolean isAdaptiveConsumePerReadEnabled() {
+        return minConsumePerRead > 0;
+    }
+
     public boolean isConnectingToCluster() {
         return redisCluster != null;
     }
@@ -182,6 +517,94 @@ public class RedisStreamSpoutConfig implements Serializable {
         return consumerDelayMillis;
     }
 
+    public long getMaxConsumerDelayMillis() {
+        return maxConsumerDelayMillis;
+    }
+
+    public boolean isAdaptiveConsumerDelayEnabled() {
+        return maxConsumerDelayMillis > 0;
+    }
+
+    public long getConsumerBlockMillis() {
+        return consumerBlockMillis;
+    }
+
+    public int getMaxAckBatchSize() {
+        return maxAckBatchSize;
+    }
+
+    public long getAckLingerMillis() {
+        return ackLingerMillis;
+    }
+
+    public boolean isAckCommitterThreadEnabled() {
+        return ackCommitterThreadEnabled;
+    }
+
+    public int getPrefetchBatches() {
+        return prefetchBatches;
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetchBatches > 0;
+    }
+
+    public int getMaxEmitPerCall() {
+        return maxEmitPerCall;
+    }
+
+    public long getMaxEmitMicros() {
+        return maxEmitMicros;
+    }
+
+    public int getBatchEmitSize() {
+        return batchEmitSize;
+    }
+
+    public long getBatchEmitLingerMillis() {
+        return batchEmitLingerMillis;
+    }
+
+    public boolean isBatchEmitEnabled() {
+        return batchEmitSize > 0;
+    }
+
+    public boolean isMessageReferenceIdsEnabled() {
+        return messageReferenceIdsEnabled;
+    }
+
+    public boolean isConsumerThreadConversionEnabled() {
+        return consumerThreadConversionEnabled;
+    }
+
+    public long getAbandonedMessageMinIdleMillis() {
+        return abandonedMessageMinIdleMillis;
+    }
+
+    public boolean isAbandonedMessageReclaimEnabled() {
+        return abandonedMessageMinIdleMillis > 0;
+    }
+
+    public long getAbandonedMessageReclaimIntervalMillis() {
+        return abandonedMessageReclaimIntervalMillis;
+    }
+
+    public long getAbandonedMessageMaxQueueingDelayMillis() {
+        return abandonedMessageMaxQueueingDelayMillis;
+    }
+
+    public long getIdleConsumerRemovalMillis() {
+        return idleConsumerRemovalMillis;
+    }
+
+    public boolean isClusterNodeReadersEnabled() {
+        return clusterNodeReadersEnabled;
+    }
+
+    public boolean isBinaryBodiesEnabled() {
+        return binaryBodiesEnabled;
+    }
+
     public TupleConverter getTupleConverter() {
         return tupleConverter;
     }
@@ -190,6 +613,14 @@ public class RedisStreamSpoutConfig implements Serializable {
         return failureHandler;
     }
 
+    public DeliverySemantics getDeliverySemantics() {
+        return deliverySemantics;
+    }
+
+    public boolean isAtMostOnce() {
+        return deliverySemantics == DeliverySemantics.AT_MOST_ONCE;
+    }
+
     public boolean isMetricsEnabled() {
         return metricsEnabled;
     }
@@ -198,6 +629,50 @@ public class RedisStreamSpoutConfig implements Serializable {
         return clientType;
     }
 
+    public boolean isSharedClientResourcesEnabled() {
+        return sharedClientResourcesEnabled;
+    }
+
+    public int getIoThreadPoolSize() {
+        return ioThreadPoolSize;
+    }
+
+    public int getComputationThreadPoolSize() {
+        return computationThreadPoolSize;
+    }
+
+    public int getJedisPoolMaxTotal() {
+        return jedisPoolMaxTotal;
+    }
+
+    public int getJedisPoolMaxIdle() {
+        return jedisPoolMaxIdle;
+    }
+
+    public boolean isJedisPoolEnabled() {
+        return jedisPoolMaxTotal > 0;
+    }
+
+    public boolean isJedisReadAckPipeliningEnabled() {
+        return jedisReadAckPipeliningEnabled;
+    }
+
+    public int getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public FunnelType getFunnelType() {
+        return funnelType;
+    }
+
+    public WaitStrategy getFunnelWaitStrategy() {
+        return funnelWaitStrategy;
+    }
+
     /**
      * Create a new Builder instance.
      * @return Builder for Configuration instance.
@@ -221,7 +696,8 @@ public class RedisStreamSpoutConfig implements Serializable {
          */
         private String groupName;
         private String consumerIdPrefix;
-        private String streamKey;
+        private final List<String> streamKeys = new ArrayList<>();
+        private boolean partitioned = false;
 
         /**
          * Tuple Converter instance.
@@ -233,13 +709,38 @@ public class RedisStreamSpoutConfig implements Serializable {
          */
         private FailureHandler failureHandler;
 
+        /**
+         * Delivery guarantee.
+         * Defaults to at least once.
+         */
+        private DeliverySemantics deliverySemantics = DeliverySemantics.AT_LEAST_ONCE;
+
         /**
          * Other configuration properties with sane defaults.
          */
+        private int minConsumePerRead = 0;
         private int maxConsumePerRead = 512;
         private int maxTupleQueueSize = 1024;
         private int maxAckQueueSize = 1024;
-        private long consumerDelayMillis = 1000L;
+        private long consumerDelayMillis = 0L;
+        private long maxConsumerDelayMillis = 0L;
+        private long consumerBlockMillis = 1000L;
+        private int maxAckBatchSize = 512;
+        private long ackLingerMillis = 0L;
+        private boolean ackCommitterThreadEnabled = false;
+        private int prefetchBatches = 0;
+        private int maxEmitPerCall = 1;
+        private long maxEmitMicros = 0L;
+        private int batchEmitSize = 0;
+        private long batchEmitLingerMillis = 0L;
+        private boolean messageReferenceIdsEnabled = false;
+        private boolean consumerThreadConversionEnabled = false;
+        private long abandonedMessageMinIdleMillis = 0L;
+        private long abandonedMessageReclaimIntervalMillis = 30_000L;
+        private long abandonedMessageMaxQueueingDelayMillis = 10_000L;
+        private long idleConsumerRemovalMillis = 0L;
+        private boolean clusterNodeReadersEnabled = false;
+        private boolean binaryBodiesEnabled = false;
         private boolean metricsEnabled = true;
 
         /**
@@ -247,6 +748,21 @@ public class RedisStreamSpoutConfig implements Serializable {
          * Defaults to using Lettuce.
          */
         private ClientType clientType = ClientType.LETTUCE;
+        private boolean sharedClientResourcesEnabled = false;
+        private int ioThreadPoolSize = 0;
+        private int computationThreadPoolSize = 0;
+        private int jedisPoolMaxTotal = 0;
+        private int jedisPoolMaxIdle = 0;
+        private boolean jedisReadAckPipeliningEnabled = false;
+        private int connectionTimeoutMillis = 2000;
+        private int socketTimeoutMillis = 2000;
+
+        /**
+         * Funnel implementation to use.
+         * Defaults to using LinkedBlockingQueues.
+         */
+        private FunnelType funnelType = FunnelType.MEMORY;
+        private WaitStrategy funnelWaitStrategy = WaitStrategy.PARK;
 
         private Builder() {
         }
@@ -352,8 +868,53 @@ public class RedisStreamSpoutConfig implements Serializable {
             return this;
         }
 
+        /**
+         * Define the key of the stream to consume from, replacing any previously defined.
+         * @param key Stream key.
+         * @return Builder instance.
+         */
         public Builder withStreamKey(final String key) {
-            this.streamKey = key;
+            return withStreamKeys(Collections.singletonList(key));
+        }
+
+        /**
+         * Define the keys of multiple streams to consume from, replacing any previously defined.  All of them are
+         * read using a single XREADGROUP request, and messageIds are qualified with the key of the stream they were
+         * read from, in the form of "streamKey/messageId".
+         * @param keys Stream keys.
+         * @return Builder instance.
+         */
+        public Builder withStreamKeys(final Collection<String> keys) {
+            this.streamKeys.clear();
+            this.streamKeys.addAll(keys);
+            this.partitioned = false;
+            return this;
+        }
+
+        /**
+         * Consume from a stream partitioned across multiple keys, replacing any previously defined stream keys.
+         * Partition keys are formed by appending the partition number as a hash tag to the prefix, for example
+         * "events:{0}" through "events:{N-1}" for a prefix of "events:", which spreads the partitions across the
+         * slots of a RedisCluster.
+         *
+         * Each task of the spout consumes from its own subset of the partitions, assigned round-robin by task index.
+         * If the spout's parallelism is changed, messages left pending by a previous owner of a partition can be
+         * recovered using {@link Builder#withAbandonedMessageReclaim(long)}.
+         * @param keyPrefix Prefix of each partition's key.
+         * @param partitionCount Number of partitions.
+         * @return Builder instance.
+         */
+        public Builder withPartitionedStreamKey(final String keyPrefix, final int partitionCount) {
+            Objects.requireNonNull(keyPrefix);
+            if (partitionCount < 1) {
+                throw new IllegalArgumentException("Partition count must be at least 1");
+            }
+            final List<String> keys = new ArrayList<>(partitionCount);
+            for (int partition = 0; partition < partitionCount; partition++) {
+                keys.add(keyPrefix + "{" + partition + "}");
+            }
+            withStreamKeys(keys);
+            this.partitioned = true;
             return this;
         }
 
@@ -372,6 +933,22 @@ public class RedisStreamSpoutConfig implements Serializable {
             return this;
         }
 
+        /**
+         * Size each read adaptively, between the given bounds, rather than always reading up to
+         * {@link Builder#withMaxConsumePerRead(int)} messages.  Reads grow while they keep coming back full, shrink
+         * while they come back mostly empty, and never ask for more messages than the tuple queue has room for.
+         * @param minCount Minimum number of messages to read per request.
+         * @param maxCount Maximum number of messages to read per request.
+         * @return Builder instance.
+         */
+        public Builder withAdaptiveConsumePerRead(final int minCount, final int maxCount) {
+            if (minCount < 1) {
+                throw new IllegalArgumentException("Minimum consume per read must be at least 1");
+            }
+            this.minConsumePerRead = minCount;
+            return withMaxConsumePerRead(maxCount);
+        }
+
         public Builder withMaxTupleQueueSize(final int limit) {
             this.maxTupleQueueSize = limit;
             return this;
@@ -382,11 +959,267 @@ public class RedisStreamSpoutConfig implements Serializable {
             return this;
         }
 
+        /**
+         * Define a fixed delay the consumer will sleep between consuming batches.
+         * Defaults to 0, as reads block server side waiting for new messages, {@link Builder#withConsumerBlockMillis(long)}.
+         * @param millis Delay in milliseconds.
+         * @return Builder instance.
+         */
         public Builder withConsumerDelayMillis(final long millis) {
             this.consumerDelayMillis = millis;
             return this;
         }
 
+        /**
+         * Pace the consumer adaptively, rather than sleeping a fixed delay between every batch.  The consumer doesn't
+         * sleep at all after a full batch, sleeps the minimum delay after a partial batch, and backs off exponentially
+         * from the minimum up to the maximum delay while reads keep coming back empty.
+         * @param minDelayMillis Delay in milliseconds after a partial batch, and after the first empty read.
+         * @param maxDelayMillis Maximum delay in milliseconds while reads keep coming back empty.
+         * @return Builder instance.
+         */
+        public Builder withAdaptiveConsumerDelay(final long minDelayMillis, final long maxDelayMillis) {
+            if (minDelayMillis < 1) {
+                throw new IllegalArgumentException("Minimum consumer delay must be at least 1 millisecond");
+            }
+            this.maxConsumerDelayMillis = maxDelayMillis;
+            return withConsumerDelayMillis(minDelayMillis);
+        }
+
+        /**
+         * Define how long each read (XREADGROUP BLOCK) waits server side for new messages to arrive
+         * when none are available.  New messages are delivered as soon as they arrive.
+         * A value of 0 disables blocking, returning immediately when no messages are available.
+         * Defaults to 1000 milliseconds.
+         * @param millis Maximum time to block in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withConsumerBlockMillis(final long millis) {
+            this.consumerBlockMillis = millis;
+            return this;
+        }
+
+        /**
+         * Define the maximum number of acked messages committed back to Redis in a single XACK request.
+         * @param limit Maximum number of messageIds per XACK.
+         * @return Builder instance.
+         */
+        public Builder withMaxAckBatchSize(final int limit) {
+            this.maxAckBatchSize = limit;
+            return this;
+        }
+
+        /**
+         * Define how long acked messages may be held back waiting to be batched together with other
+         * acked messages before being committed.  A batch is committed as soon as it reaches
+         * {@link Builder#withMaxAckBatchSize(int)} entries, or once its oldest entry has waited this long.
+         * Defaults to 0, meaning all acks available at the time are committed on every consumer loop.
+         * @param millis Maximum linger time in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withAckLingerMillis(final long millis) {
+            this.ackLingerMillis = millis;
+            return this;
+        }
+
+        /**
+         * Commit acks from a dedicated background thread using its own connection to Redis, rather than
+         * from the consumer thread in between reads.  Acks are then never delayed by blocking reads,
+         * or by the consumer thread being blocked on a full tuple queue.
+         * @return Builder instance.
+         */
+        public Builder withAckCommitterThread() {
+            return withAckCommitterThreadEnabled(true);
+        }
+
+        public Builder withAckCommitterThreadEnabled(final boolean enabled) {
+            this.ackCommitterThreadEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Read ahead from a dedicated background thread using its own connection to Redis, so the next batch is
+         * already being read while the consumer thread hands the previous one over to the tuple queue.  Holds at most
+         * the given number of batches, and only reads as many messages as the tuple queue has room for, less those
+         * already read ahead, up to {@link Builder#withMaxConsumePerRead(int)} per read.
+         * Cannot be combined with {@link Builder#withAdaptiveConsumePerRead(int, int)}.
+         * Defaults to 0, meaning disabled.
+         * @param batches Maximum number of batches to read ahead.
+         * @return Builder instance.
+         */
+        public Builder withPrefetchBatches(final int batches) {
+            this.prefetchBatches = batches;
+            return this;
+        }
+
+        /**
+         * Emit up to the given number of messages per call to the spout's nextTuple(), rather than one, amortizing
+         * the executor's per call overhead across them.  Each call stops early once the tuple queue is empty, or once
+         * topology.max.spout.pending tuples are pending.  Defaults to 1.
+         * @param maxMessages Maximum number of messages to emit per call.
+         * @return Builder instance.
+         */
+        public Builder withEmitBudget(final int maxMessages) {
+            return withEmitBudget(maxMessages, 0L);
+        }
+
+        /**
+         * Emit up to the given number of messages per call to the spout's nextTuple(), rather than one, amortizing
+         * the executor's per call overhead across them.  Each call stops early once the tuple queue is empty, once
+         * topology.max.spout.pending tuples are pending, or once it has been emitting for the given time.
+         * @param maxMessages Maximum number of messages to emit per call.
+         * @param maxMicros Maximum time in microseconds to keep emitting for per call, 0 for no time limit.
+         * @return Builder instance.
+         */
+        public Builder withEmitBudget(final int maxMessages, final long maxMicros) {
+            if (maxMessages < 1) {
+                throw new IllegalArgumentException("Emit budget must allow at least 1 message per call");
+            }
+            if (maxMicros < 0) {
+                throw new IllegalArgumentException("Emit time budget cannot be negative");
+            }
+            this.maxEmitPerCall = maxMessages;
+            this.maxEmitMicros = maxMicros;
+            return this;
+        }
+
+        /**
+         * Emit messages in batches, each batch as a single tuple created by
+         * {@link BatchTupleConverter#createBatchTuple(List)}, rather than emitting each message as its own tuple.
+         * A batch is emitted once it holds the maximum number of messages, or once its first message has waited
+         * the given time.  Acking or failing the tuple acks or fails every message in the batch.
+         * Requires the TupleConverter to implement {@link BatchTupleConverter}.
+         * @param maxMessages Maximum number of messages per batch.
+         * @param lingerMillis Maximum time in milliseconds to wait for a batch to fill.
+         * @return Builder instance.
+         */
+        public Builder withBatchEmit(final int maxMessages, final long lingerMillis) {
+            if (maxMessages < 1) {
+                throw new IllegalArgumentException("Batches must hold at least 1 message");
+            }
+            if (lingerMillis < 0) {
+                throw new IllegalArgumentException("Batch linger time cannot be negative");
+            }
+            this.batchEmitSize = maxMessages;
+            this.batchEmitLingerMillis = lingerMillis;
+            return this;
+        }
+
+        /**
+         * Anchor each tuple to its {@link Message} itself, rather than to the message's id.  Storm already holds onto
+         * the anchor of every pending tuple and hands it back on ack or fail, so the spout no longer tracks in flight
+         * messages itself, saving a concurrent map insert and removal per tuple, along with the map's memory.
+         * @return Builder instance.
+         */
+        public Builder withMessageReferenceIds() {
+            return withMessageReferenceIdsEnabled(true);
+        }
+
+        public Builder withMessageReferenceIdsEnabled(final boolean enabled) {
+            this.messageReferenceIdsEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Convert messages into tuples using the {@link TupleConverter} on the consumer thread, before they are handed
+         * to the spout, leaving the spout thread only to emit them and handle acks and fails.  Messages converted into
+         * NULL are acked by the consumer thread, one commit per read, without ever reaching the spout.
+         * The converter is then only called from the consumer thread.  Cannot be combined with batch emit.
+         * @return Builder instance.
+         */
+        public Builder withConsumerThreadConversion() {
+            return withConsumerThreadConversionEnabled(true);
+        }
+
+        public Builder withConsumerThreadConversionEnabled(final boolean enabled) {
+            this.consumerThreadConversionEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Periodically claim messages left in the pending lists of other consumers in the group, such as those
+         * belonging to a consumer which has died or been renamed, once both the message and the consumer owning it
+         * have sat idle for at least this long.  Defaults to 0, meaning disabled.
+         *
+         * Messages of live consumers also sit idle in their pending lists while waiting within their spout, while
+         * in flight, and while held for retry by their failure handler, and a consumer which is blocked waiting for
+         * room in its spout stops reading.  To avoid claiming and delivering such messages a second time, this must be
+         * longer than topology.message.timeout.secs plus the longest time messages wait within the spout,
+         * see {@link Builder#withAbandonedMessageMaxQueueingDelayMillis(long)}.  This is validated when the spout is opened.
+         * @param minIdleMillis Minimum time in milliseconds a message and its consumer must have been idle before it is claimed.
+         * @return Builder instance.
+         */
+        public Builder withAbandonedMessageReclaim(final long minIdleMillis) {
+            this.abandonedMessageMinIdleMillis = minIdleMillis;
+            return this;
+        }
+
+        /**
+         * Define how often the group's pending list is scanned for abandoned messages.
+         * Only used when {@link Builder#withAbandonedMessageReclaim(long)} is enabled.  Defaults to 30 seconds.
+         * @param millis Interval in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withAbandonedMessageReclaimIntervalMillis(final long millis) {
+            this.abandonedMessageReclaimIntervalMillis = millis;
+            return this;
+        }
+
+        /**
+         * Define the longest time a message may wait within the spout before being emitted, such as in the tuple
+         * queue.  Only used to validate {@link Builder#withAbandonedMessageReclaim(long)}.  Defaults to 10 seconds.
+         * @param millis Delay in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withAbandonedMessageMaxQueueingDelayMillis(final long millis) {
+            this.abandonedMessageMaxQueueingDelayMillis = millis;
+            return this;
+        }
+
+        /**
+         * Remove other consumers from the group once they have no pending messages and have been idle
+         * for at least this long.  Only used when {@link Builder#withAbandonedMessageReclaim(long)} is enabled.
+         * Defaults to 0, meaning consumers are never removed.
+         * @param minIdleMillis Minimum time in milliseconds a consumer must have been idle before it is removed.
+         * @return Builder instance.
+         */
+        public Builder withIdleConsumerRemoval(final long minIdleMillis) {
+            this.idleConsumerRemovalMillis = minIdleMillis;
+            return this;
+        }
+
+        /**
+         * When consuming from multiple streams spread across the nodes of a RedisCluster, read each node's streams
+         * concurrently from a dedicated reader thread, rather than polling every slot in turn from the consumer thread.
+         * Streams are re-grouped by node as the cluster topology changes.  Only supported by the Lettuce client libraries,
+         * and cannot be combined with {@link Builder#withAdaptiveConsumePerRead(int, int)}.
+         * @return Builder instance.
+         */
+        public Builder withClusterNodeReaders() {
+            return withClusterNodeReadersEnabled(true);
+        }
+
+        public Builder withClusterNodeReadersEnabled(final boolean enabled) {
+            this.clusterNodeReadersEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Read message body values as raw bytes, only decoding each into a String once it is accessed using
+         * {@link Message#getBody()}.  TupleConverters passing values through as-is may use
+         * {@link Message#getRawValue(String)} to never decode them at all.
+         * Supported by the Lettuce client, and the Jedis client using a JedisPool connecting to a single Redis instance.
+         * @return Builder instance.
+         */
+        public Builder withBinaryBodies() {
+            return withBinaryBodiesEnabled(true);
+        }
+
+        public Builder withBinaryBodiesEnabled(final boolean enabled) {
+            this.binaryBodiesEnabled = enabled;
+            return this;
+        }
+
         public Builder withTupleConverter(final TupleConverter instance) {
             this.tupleConverter = instance;
             return this;
@@ -402,6 +1235,22 @@ public class RedisStreamSpoutConfig implements Serializable {
             return this;
         }
 
+        /**
+         * Trade delivery guarantees for throughput.  Messages are read using XREADGROUP NOACK, so they never enter the
+         * pending entries list, and are emitted as unanchored tuples which are never tracked in flight, acked, or
+         * replayed.  The consumer reads only new messages, never replaying its pending entries list on startup.
+         * Intended for data where occasional loss is acceptable, such as metrics.
+         * @return Builder instance.
+         */
+        public Builder withAtMostOnceDelivery() {
+            return withDeliverySemantics(DeliverySemantics.AT_MOST_ONCE);
+        }
+
+        public Builder withDeliverySemantics(final DeliverySemantics deliverySemantics) {
+            this.deliverySemantics = Objects.requireNonNull(deliverySemantics);
+            return this;
+        }
+
         public Builder withMetricsDisabled() {
             return withMetricsEnabled(false);
         }
@@ -423,6 +1272,15 @@ public class RedisStreamSpoutConfig implements Serializable {
             return withClientType(ClientType.LETTUCE);
         }
 
+        /**
+         * Configure the spout to use the Lettuce client library's asynchronous API for communicating with redis.
+         * Reads are issued ahead of time and acks are pipelined, rather than waiting on each round trip.
+         * @return Builder instance.
+         */
+        public Builder withLettuceAsyncClientLibrary() {
+            return withClientType(ClientType.LETTUCE_ASYNC);
+        }
+
         /**
          * Configure the spout to use the Jedis client library for communicating with redis.
          * @return Builder instance.
@@ -436,6 +1294,112 @@ public class RedisStreamSpoutConfig implements Serializable {
             return this;
         }
 
+        /**
+         * Share Lettuce clients, along with their event loop and computation thread pools, between every spout task
+         * in the worker connecting to the same Redis instance or RedisCluster, rather than each task creating its own.
+         * Each task still opens its own connections, as reads block them server side.
+         * Thread pools are sized using Lettuce's defaults.
+         * @return Builder instance.
+         */
+        public Builder withSharedClientResources() {
+            return withSharedClientResources(0, 0);
+        }
+
+        /**
+         * Share Lettuce clients, along with their event loop and computation thread pools, between every spout task
+         * in the worker connecting to the same Redis instance or RedisCluster, rather than each task creating its own.
+         * Each task still opens its own connections, as reads block them server side.
+         * @param ioThreads Number of I/O event loop threads, 0 to use Lettuce's default.
+         * @param computationThreads Number of computation threads, 0 to use Lettuce's default.
+         * @return Builder instance.
+         */
+        public Builder withSharedClientResources(final int ioThreads, final int computationThreads) {
+            if (ioThreads < 0 || computationThreads < 0) {
+                throw new IllegalArgumentException("Thread pool sizes cannot be negative");
+            }
+            this.sharedClientResourcesEnabled = true;
+            this.ioThreadPoolSize = ioThreads;
+            this.computationThreadPoolSize = computationThreads;
+            return this;
+        }
+
+        /**
+         * Borrow Jedis connections to a single Redis instance from a JedisPool, rather than holding a single
+         * connection, and pipeline acks for multiple streams into a single round trip.  When connecting to a
+         * RedisCluster, sizes the pool JedisCluster keeps for each node.  Only used by the Jedis client library.
+         * @param maxTotal Maximum number of connections in the pool.
+         * @param maxIdle Maximum number of idle connections kept in the pool.
+         * @return Builder instance.
+         */
+        public Builder withJedisPool(final int maxTotal, final int maxIdle) {
+            if (maxTotal < 1) {
+                throw new IllegalArgumentException("Maximum pool size must be at least 1");
+            }
+            if (maxIdle < 0 || maxIdle > maxTotal) {
+                throw new IllegalArgumentException("Maximum idle connections must be between 0 and " + maxTotal);
+            }
+            this.jedisPoolMaxTotal = maxTotal;
+            this.jedisPoolMaxIdle = maxIdle;
+            return this;
+        }
+
+        /**
+         * Hold acks back and send them in the same pipeline as the next read, so each consumer loop costs a single
+         * round trip to Redis.  Acks are applied before the read blocks, and any still held are sent on disconnect.
+         * Requires {@link Builder#withJedisPool(int, int)} connecting to a single Redis instance, and cannot be combined
+         * with {@link Builder#withAckCommitterThread()} or {@link Builder#withPrefetchBatches(int)}.
+         * @return Builder instance.
+         */
+        public Builder withJedisReadAckPipelining() {
+            return withJedisReadAckPipeliningEnabled(true);
+        }
+
+        public Builder withJedisReadAckPipeliningEnabled(final boolean enabled) {
+            this.jedisReadAckPipeliningEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Define the Jedis connection and socket timeouts.  Reads blocking server side wait without a socket timeout.
+         * Defaults to 2000 milliseconds each.  Only used by the Jedis client library.
+         * @param connectionTimeout Connection timeout in milliseconds.
+         * @param socketTimeout Socket read timeout in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withJedisTimeouts(final int connectionTimeout, final int socketTimeout) {
+            if (connectionTimeout < 1 || socketTimeout < 1) {
+                throw new IllegalArgumentException("Timeouts must be at least 1 millisecond");
+            }
+            this.connectionTimeoutMillis = connectionTimeout;
+            this.socketTimeoutMillis = socketTimeout;
+            return this;
+        }
+
+        /**
+         * Configure the spout to pass messages and acks between its threads using LinkedBlockingQueues.
+         * This is the default.
+         * @return Builder instance.
+         */
+        public Builder withMemoryFunnel() {
+            return withFunnelType(FunnelType.MEMORY);
+        }
+
+        /**
+         * Configure the spout to pass messages and acks between its threads using preallocated lock-free
+         * ring buffers, avoiding an allocation and lock per message and ack.
+         * @param waitStrategy How threads wait on a full buffer, or for acks to arrive.
+         * @return Builder instance.
+         */
+        public Builder withRingBufferFunnel(final WaitStrategy waitStrategy) {
+            this.funnelWaitStrategy = Objects.requireNonNull(waitStrategy);
+            return withFunnelType(FunnelType.RING_BUFFER);
+        }
+
+        public Builder withFunnelType(final FunnelType funnelType) {
+            this.funnelType = Objects.requireNonNull(funnelType);
+            return this;
+        }
+
         /**
          * Creates new Configuration instance.
          * @return Configuration instance.
@@ -451,15 +1415,30 @@ public class RedisStreamSpoutConfig implements Serializable {
                 redisServer, redisCluster,
 
                 // Consumer Properties
-                streamKey, groupName, consumerIdPrefix,
+                streamKeys, partitioned, groupName, consumerIdPrefix,
                 // Classes
                 tupleConverter, failureHandler,
+                deliverySemantics,
                 // Other settings
-                maxConsumePerRead, maxTupleQueueSize, maxAckQueueSize, consumerDelayMillis,
+                minConsumePerRead, maxConsumePerRead, maxTupleQueueSize, maxAckQueueSize,
+                consumerDelayMillis, maxConsumerDelayMillis, consumerBlockMillis,
+                maxAckBatchSize, ackLingerMillis, ackCommitterThreadEnabled,
+                prefetchBatches, maxEmitPerCall, maxEmitMicros,
+                batchEmitSize, batchEmitLingerMillis, messageReferenceIdsEnabled,
+                consumerThreadConversionEnabled,
+                abandonedMessageMinIdleMillis, abandonedMessageReclaimIntervalMillis, abandonedMessageMaxQueueingDelayMillis,
+                idleConsumerRemovalMillis,
+                clusterNodeReadersEnabled, binaryBodiesEnabled,
                 metricsEnabled,
 
                 // Underlying client type
-                clientType
+                clientType,
+                sharedClientResourcesEnabled, ioThreadPoolSize, computationThreadPoolSize,
+                jedisPoolMaxTotal, jedisPoolMaxIdle, jedisReadAckPipeliningEnabled,
+                connectionTimeoutMillis, socketTimeoutMillis,
+
+                // Funnel implementation
+                funnelType, funnelWaitStrategy
             );
         }
     }
@@ -0,0 +1,159 @@
+package org.sourcelab.storm.spout.redis;
+
+import java.io.Serializable;
+
+/**
+ * Id of an entry within a Redis Stream, in the form of "millisecondsTime-sequenceNumber".
+ *
+ * Both parts are held as unsigned 64 bit numbers, so ids can be compared, hashed and incremented without
+ * going through their String form.  Used where entry ids are computed, such as the next id to page through a
+ * pending entries list from.
+ *
+ * MessageIds are not StreamIds.  They are handed to the funnel and {@link FailureHandler} implementations
+ * as Strings, as returned by {@link Message#getId()}, and are qualified with their stream key when consuming from
+ * multiple streams, so an entry id alone does not identify a message.
+ */
+public final class StreamId implements Comparable<StreamId>, Serializable {
+    /**
+     * The smallest possible id, "0-0".
+     */
+    public static final StreamId MIN = new StreamId(0L, 0L);
+
+    /**
+     * Separates the time from the sequence number.
+     */
+    private static final char SEPARATOR = '-';
+
+    /**
+     * Largest value which may be multiplied by 10 without overflowing an unsigned 64 bit number.
+     */
+    private static final long MAX_BEFORE_DIGIT = Long.divideUnsigned(-1L, 10);
+
+    private final long millis;
+    private final long sequence;
+
+    private StreamId(final long millis, final long sequence) {
+        this.millis = millis;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Create an id from its parts.
+     * @param millis Time part, treated as unsigned.
+     * @param sequence Sequence number part, treated as unsigned.
+     * @return StreamId instance.
+     */
+    public static StreamId of(final long millis, final long sequence) {
+        return new StreamId(millis, sequence);
+    }
+
+    /**
+     * Parse an id in the form of "millisecondsTime-sequenceNumber".
+     * @param id Id to parse.
+     * @return StreamId instance.
+     * @throws IllegalArgumentException if the id is not in the expected form.
+     */
+    public static StreamId parse(final CharSequence id) {
+        return parse(id, 0, id.length());
+    }
+
+    /**
+     * Parse an id in the form of "millisecondsTime-sequenceNumber" from part of a larger String, such as a messageId
+     * qualified with its stream key, without copying it out first.
+     * @param id Contains the id to parse.
+     * @param beginIndex Index of the first character of the id, inclusive.
+     * @param endIndex Index of the last character of the id, exclusive.
+     * @return StreamId instance.
+     * @throws IllegalArgumentException if the id is not in the expected form.
+     */
+    public static StreamId parse(final CharSequence id, final int beginIndex, final int endIndex) {
+        int separator = -1;
+        for (int index = beginIndex; index < endIndex; index++) {
+            if (id.charAt(index) == SEPARATOR) {
+                separator = index;
+                break;
+            }
+        }
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid stream entry id " + id.subSequence(beginIndex, endIndex));
+        }
+        return new StreamId(
+            parseUnsigned(id, beginIndex, separator),
+            parseUnsigned(id, separator + 1, endIndex)
+        );
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * The smallest id greater than this one, such as when paging using an inclusive start.
+     * @return Next id.
+     */
+    public StreamId next() {
+        if (sequence == -1L) {
+            // Sequence is unsigned, and exhausted for this time.
+            return new StreamId(millis + 1, 0L);
+        }
+        return new StreamId(millis, sequence + 1);
+    }
+
+    @Override
+    public int compareTo(final StreamId other) {
+        final int result = Long.compareUnsigned(millis, other.millis);
+        if (result != 0) {
+            return result;
+        }
+        return Long.compareUnsigned(sequence, other.sequence);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final StreamId streamId = (StreamId) other;
+        return millis == streamId.millis && sequence == streamId.sequence;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(millis) + Long.hashCode(sequence);
+    }
+
+    /**
+     * The id in the form Redis expects.
+     * @return Id in the form of "millisecondsTime-sequenceNumber".
+     */
+    @Override
+    public String toString() {
+        return Long.toUnsignedString(millis) + SEPARATOR + Long.toUnsignedString(sequence);
+    }
+
+    private static long parseUnsigned(final CharSequence id, final int beginIndex, final int endIndex) {
+        if (beginIndex >= endIndex) {
+            throw new IllegalArgumentException("Invalid stream entry id " + id);
+        }
+        long result = 0L;
+        for (int index = beginIndex; index < endIndex; index++) {
+            final int digit = id.charAt(index) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid stream entry id " + id);
+            }
+            final long next = result * 10 + digit;
+            if (Long.compareUnsigned(result, MAX_BEFORE_DIGIT) > 0 || Long.compareUnsigned(next, result * 10) < 0) {
+                throw new IllegalArgumentException("Invalid stream entry id " + id);
+            }
+            result = next;
+        }
+        return result;
+    }
+}
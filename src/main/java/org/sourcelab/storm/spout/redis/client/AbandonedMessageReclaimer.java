@@ -0,0 +1,174 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Claims messages abandoned in the pending entries lists of other consumers in the group, such as those
+ * belonging to a spout instance which died, or which was renamed when the topology was rebalanced.
+ *
+ * Periodically pages through the group's pending entries list of each stream using XPENDING, a batch at a time, claiming
+ * entries owned by other consumers which have been idle for at least the configured time using XCLAIM.  Only entries
+ * of consumers which have themselves been idle that long, according to XINFO CONSUMERS, are claimed, as a live consumer's
+ * entries also sit idle while waiting within its spout, in flight, or held for retry by its failure handler.
+ * Once a full pass has been made, other consumers left with no pending entries which have been idle for
+ * long enough are optionally removed from the group.
+ *
+ * Not thread safe, expected to be accessed only from the consumer thread.
+ */
+class AbandonedMessageReclaimer {
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedMessageReclaimer.class);
+
+    /**
+     * Id to start paging from the beginning of the pending entries list.
+     */
+    private static final String FIRST_ID = "-";
+
+    /**
+     * The underlying Redis Client.
+     */
+    private final Client redisClient;
+
+    /**
+     * Configuration properties.
+     */
+    private final long minIdleMillis;
+    private final long reclaimIntervalMillis;
+    private final long idleConsumerRemovalMillis;
+    private final int batchSize;
+
+    /**
+     * Streams being consumed from.
+     */
+    private final List<String> streamKeys;
+
+    /**
+     * Id to resume paging through each stream's pending entries list from.
+     */
+    private final Map<String, String> cursors = new HashMap<>();
+
+    /**
+     * When the pending entries list was last inspected.
+     */
+    private long lastReclaimTimestamp = 0L;
+
+    /**
+     * Constructor.
+     * @param config Spout configuration properties.
+     * @param redisClient Client to inspect and claim pending entries with.
+     */
+    AbandonedMessageReclaimer(final RedisStreamSpoutConfig config, final Client redisClient) {
+        this.redisClient = Objects.requireNonNull(redisClient);
+        this.minIdleMillis = config.getAbandonedMessageMinIdleMillis();
+        this.reclaimIntervalMillis = config.getAbandonedMessageReclaimIntervalMillis();
+        this.idleConsumerRemovalMillis = config.getIdleConsumerRemovalMillis();
+        this.batchSize = Math.max(1, config.getMaxConsumePerRead());
+        this.streamKeys = config.getStreamKeys();
+    }
+
+    /**
+     * If the reclaim interval has passed, inspect the next batch of the group's pending entries for each stream.
+     * @return Messages claimed from other consumers, or an empty list if none.
+     */
+    List<Message> reclaim() {
+        final long now = System.currentTimeMillis();
+        if (now - lastReclaimTimestamp < reclaimIntervalMillis) {
+            return Collections.emptyList();
+        }
+        lastReclaimTimestamp = now;
+
+        if (streamKeys.size() == 1) {
+            return reclaim(streamKeys.get(0));
+        }
+        final List<Message> claimed = new ArrayList<>();
+        for (final String streamKey : streamKeys) {
+            claimed.addAll(reclaim(streamKey));
+        }
+        return claimed;
+    }
+
+    /**
+     * Inspect the next batch of the group's pending entries for a stream.
+     * @param streamKey Key of the stream.
+     * @return Messages claimed from other consumers, or an empty list if none.
+     */
+    private List<Message> reclaim(final String streamKey) {
+        final String cursor = cursors.getOrDefault(streamKey, FIRST_ID);
+        final List<PendingEntry> entries = redisClient.groupPendingMessages(streamKey, cursor, batchSize);
+
+        // Resume from just after the last entry, or wrap around once we've reached the end.
+        final boolean reachedEnd = entries.size() < batchSize;
+        if (reachedEnd) {
+            cursors.remove(streamKey);
+        } else {
+            cursors.put(streamKey, PendingListReclaimer.nextId(entries.get(entries.size() - 1).getId()));
+        }
+
+        final String consumerId = redisClient.getConsumerId();
+        List<GroupConsumer> consumers = null;
+        Set<String> idleConsumerNames = null;
+        final List<String> toClaim = new ArrayList<>();
+        for (final PendingEntry entry : entries) {
+            // Our own entries are in flight, or handled by the failure handler.
+            if (consumerId.equals(entry.getConsumerName()) || entry.getIdleMillis() < minIdleMillis) {
+                continue;
+            }
+
+            // Leave the entries of consumers still reading alone.
+            if (idleConsumerNames == null) {
+                consumers = redisClient.groupConsumers(streamKey);
+                idleConsumerNames = consumers.stream()
+                    .filter((consumer) -> consumer.getIdleMillis() >= minIdleMillis)
+                    .map(GroupConsumer::getName)
+                    .collect(Collectors.toSet());
+            }
+            if (idleConsumerNames.contains(entry.getConsumerName())) {
+                toClaim.add(entry.getId());
+            }
+        }
+        if (reachedEnd) {
+            removeIdleConsumers(streamKey, consumers);
+        }
+        if (toClaim.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Claiming with a min idle time skips any acked or re-delivered since we inspected them.
+        final List<Message> claimed = redisClient.claimMessages(streamKey, minIdleMillis, toClaim);
+        logger.info("Claimed {} abandoned messages from other consumers of {}", claimed.size(), streamKey);
+        return claimed;
+    }
+
+    /**
+     * Remove other consumers from the group which have no pending entries, and have been idle long enough.
+     * @param streamKey Key of the stream.
+     * @param consumers Consumers in the group if already retrieved, or NULL to retrieve them.
+     */
+    private void removeIdleConsumers(final String streamKey, final List<GroupConsumer> consumers) {
+        if (idleConsumerRemovalMillis <= 0) {
+            return;
+        }
+
+        final String consumerId = redisClient.getConsumerId();
+        for (final GroupConsumer consumer : consumers == null ? redisClient.groupConsumers(streamKey) : consumers) {
+            if (consumerId.equals(consumer.getName())
+                || consumer.getPendingCount() > 0
+                || consumer.getIdleMillis() < idleConsumerRemovalMillis) {
+                continue;
+            }
+            logger.info("Removing idle consumer {} from group on {}", consumer, streamKey);
+            redisClient.removeConsumer(streamKey, consumer.getName());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Buffers acked messageIds so they can be committed back to Redis using a single XACK request.
+ *
+ * A batch is committed once it reaches the configured maximum size, or once the oldest entry
+ * in the batch has waited longer than the configured linger time.
+ *
+ * Not thread safe, expected to be accessed only from a single thread.
+ */
+class AckBatcher {
+    /**
+     * The underlying Redis Client used to commit batches.
+     */
+    private final Client redisClient;
+
+    /**
+     * Maximum number of messageIds to include in a single commit.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Maximum time in milliseconds the oldest buffered messageId may wait before being committed.
+     */
+    private final long lingerMillis;
+
+    /**
+     * Buffered messageIds waiting to be committed.
+     */
+    private List<String> pendingMsgIds;
+
+    /**
+     * Timestamp the oldest buffered messageId was added at.
+     */
+    private long oldestPendingTimestamp = 0L;
+
+    /**
+     * Constructor.
+     * @param redisClient Client to commit batches with.
+     * @param maxBatchSize Maximum number of messageIds per commit.
+     * @param lingerMillis Maximum time in milliseconds to hold a messageId before committing.
+     */
+    AckBatcher(final Client redisClient, final int maxBatchSize, final long lingerMillis) {
+        this.redisClient = Objects.requireNonNull(redisClient);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerMillis = lingerMillis;
+        this.pendingMsgIds = new ArrayList<>(this.maxBatchSize);
+    }
+
+    /**
+     * Buffer the messageId to be committed.  If this fills the batch, the batch is committed.
+     * @param msgId Id of the message to commit.
+     */
+    void add(final String msgId) {
+        if (pendingMsgIds.isEmpty()) {
+            oldestPendingTimestamp = System.currentTimeMillis();
+        }
+        pendingMsgIds.add(msgId);
+
+        if (pendingMsgIds.size() >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Drain all available acked messageIds from the funnel, committing each batch as it fills.
+     * @param funnel Funnel to drain acked messageIds from.
+     * @return Number of messageIds drained.
+     */
+    int drainFrom(final ConsumerFunnel funnel) {
+        int drained = 0;
+        while (true) {
+            final boolean wasEmpty = pendingMsgIds.isEmpty();
+            final int count = funnel.drainAcks(pendingMsgIds, maxBatchSize - pendingMsgIds.size());
+            if (count == 0) {
+                return drained;
+            }
+            if (wasEmpty) {
+                oldestPendingTimestamp = System.currentTimeMillis();
+            }
+            drained += count;
+
+            // If the batch isn't full the funnel is empty.
+            if (pendingMsgIds.size() < maxBatchSize) {
+                return drained;
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Commit the buffered messageIds if the oldest entry has lingered long enough.
+     */
+    void flushIfExpired() {
+        if (pendingMsgIds.isEmpty()) {
+            return;
+        }
+        if (System.currentTimeMillis() - oldestPendingTimestamp >= lingerMillis) {
+            flush();
+        }
+    }
+
+    /**
+     * Commit all buffered messageIds, regardless of how long they have been waiting.
+     */
+    void flush() {
+        if (pendingMsgIds.isEmpty()) {
+            return;
+        }
+        // Hand off the current batch and start a new one, the client may hold onto the list.
+        final List<String> batch = pendingMsgIds;
+        pendingMsgIds = new ArrayList<>(maxBatchSize);
+        redisClient.commitMessages(batch);
+    }
+
+    /**
+     * Number of messageIds currently buffered.
+     * @return Number of messageIds waiting to be committed.
+     */
+    int size() {
+        return pendingMsgIds.size();
+    }
+}
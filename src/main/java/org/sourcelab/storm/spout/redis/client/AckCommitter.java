@@ -0,0 +1,105 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
+
+import java.util.Objects;
+
+/**
+ * Background Processing Thread handling committing acked messages back to Redis,
+ * using its own Client connection.  This keeps acks flowing independently of the
+ * {@link Consumer} thread, which may be blocked reading from Redis or pushing into a full funnel.
+ */
+public class AckCommitter implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(AckCommitter.class);
+
+    /**
+     * How long to wait for new acks to arrive before checking if we should stop.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    /**
+     * Configuration properties for the client.
+     */
+    private final RedisStreamSpoutConfig config;
+
+    /**
+     * The underlying Redis Client, dedicated to committing.
+     */
+    private final Client redisClient;
+
+    /**
+     * For thread safe communication between this client thread and the spout thread.
+     */
+    private final ConsumerFunnel funnel;
+
+    /**
+     * Batches acked messageIds into multi-id XACK requests.
+     */
+    private final AckBatcher ackBatcher;
+
+    /**
+     * Stop flag.
+     */
+    private volatile boolean shouldStop = false;
+
+    /**
+     * Constructor.
+     * @param config Spout configuration properties.
+     * @param redisClient RedisClient instance dedicated to committing.
+     * @param funnel Funnel instance.
+     */
+    public AckCommitter(final RedisStreamSpoutConfig config, final Client redisClient, final ConsumerFunnel funnel) {
+        this.config = Objects.requireNonNull(config);
+        this.redisClient = Objects.requireNonNull(redisClient);
+        this.funnel = Objects.requireNonNull(funnel);
+        this.ackBatcher = new AckBatcher(redisClient, config.getMaxAckBatchSize(), config.getAckLingerMillis());
+    }
+
+    /**
+     * Intended to be run by a background processing Thread.
+     * This will continue running and not return until {@link AckCommitter#requestStop()} is called.
+     */
+    @Override
+    public void run() {
+        // Connect
+        redisClient.connect();
+
+        logger.info("Starting to commit acked messages to {}", config.getStreamKeys());
+        while (!shouldStop) {
+            // If we are holding acks back to batch them, don't wait past their linger time.
+            long pollTimeout = POLL_TIMEOUT_MILLIS;
+            if (ackBatcher.size() > 0) {
+                pollTimeout = Math.max(1L, Math.min(POLL_TIMEOUT_MILLIS, config.getAckLingerMillis()));
+            }
+
+            // Wait for the next ack.
+            final String msgId = funnel.nextAck(pollTimeout);
+            if (msgId != null) {
+                // Buffer it along with any others available, committing each batch once it is full.
+                ackBatcher.add(msgId);
+                ackBatcher.drainFrom(funnel);
+            }
+
+            // Commit whatever remains once it has waited long enough.
+            ackBatcher.flushIfExpired();
+        }
+        logger.info("Ack Committer Requested Shutdown...");
+
+        // Commit any remaining acks before disconnecting.
+        ackBatcher.drainFrom(funnel);
+        ackBatcher.flush();
+
+        // Close our connection and shutdown.
+        redisClient.disconnect();
+    }
+
+    /**
+     * Request the committer stop, after committing any remaining acks.
+     */
+    public void requestStop() {
+        shouldStop = true;
+    }
+}
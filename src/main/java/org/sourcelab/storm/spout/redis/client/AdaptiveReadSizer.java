@@ -0,0 +1,86 @@
+package org.sourcelab.storm.spout.redis.client;
+
+/**
+ * Sizes each read from Redis between configured bounds, based on how full recent reads came back and how much room
+ * is left in the funnel's tuple queue.
+ *
+ * Reads double in size while they keep coming back full, as messages are arriving faster than they are read, and
+ * halve once recent reads come back mostly empty.  A read never asks for more messages than the tuple queue currently
+ * has room for, so messages aren't fetched only to block the consumer thread handing them over, unless that would
+ * fall below the minimum.
+ *
+ * Not thread safe, expected to be accessed only from the consumer thread.
+ */
+class AdaptiveReadSizer {
+    /**
+     * Weight given to the latest read when tracking how full recent reads came back.
+     */
+    private static final double FILL_RATIO_WEIGHT = 0.5;
+
+    /**
+     * Reads shrink once recent reads come back less full than this, on average.
+     */
+    private static final double SHRINK_FILL_RATIO = 0.25;
+
+    /**
+     * Bounds on the size of each read.
+     */
+    private final int minCount;
+    private final int maxCount;
+
+    /**
+     * Size to read, before accounting for room in the tuple queue.
+     */
+    private int targetCount;
+
+    /**
+     * Moving average of how full reads came back, relative to how many messages they asked for.
+     */
+    private double fillRatio = 1.0;
+
+    /**
+     * Constructor.
+     * @param minCount Minimum number of messages to read per request.
+     * @param maxCount Maximum number of messages to read per request.
+     */
+    AdaptiveReadSizer(final int minCount, final int maxCount) {
+        if (minCount < 1 || minCount > maxCount) {
+            throw new IllegalArgumentException("Invalid read size bounds [" + minCount + ", " + maxCount + "]");
+        }
+        this.minCount = minCount;
+        this.maxCount = maxCount;
+
+        // Start out reading as much as allowed, such as when replaying the PPL on startup.
+        this.targetCount = maxCount;
+    }
+
+    /**
+     * Determine how many messages to ask for in the next read.
+     * @param remainingCapacity Number of messages the tuple queue currently has room for.
+     * @return Number of messages to read.
+     */
+    int nextCount(final int remainingCapacity) {
+        return Math.max(minCount, Math.min(targetCount, remainingCapacity));
+    }
+
+    /**
+     * Record the outcome of a read, adjusting the size of the following reads.
+     * @param requestedCount Number of messages asked for.
+     * @param receivedCount Number of messages read.
+     */
+    void recordRead(final int requestedCount, final int receivedCount) {
+        final double ratio = Math.min(1.0, (double) receivedCount / requestedCount);
+        fillRatio = (FILL_RATIO_WEIGHT * ratio) + ((1 - FILL_RATIO_WEIGHT) * fillRatio);
+
+        if (receivedCount >= requestedCount) {
+            // Came back full, there are likely more messages waiting.
+            targetCount = (int) Math.min(maxCount, targetCount * 2L);
+        } else if (fillRatio < SHRINK_FILL_RATIO) {
+            targetCount = Math.max(minCount, targetCount / 2);
+        }
+    }
+
+    int getTargetCount() {
+        return targetCount;
+    }
+}
@@ -19,12 +19,73 @@ public interface Client {
      */
     List<Message> nextMessages();
 
+    /**
+     * Retrieve the next batch of messages from Redis Stream, reading up to the given number of messages per stream.
+     * @param maxCount Maximum number of messages to read from each stream.
+     * @return List of next Messages consumed from Redis Stream.
+     */
+    List<Message> nextMessages(final int maxCount);
+
     /**
      * Mark message with passed Id as having been processed.
-     * @param msgId Id of the message to mark complete.
+     * @param msgId Id of the message to mark complete, as returned by {@link Message#getId()}.
      */
     void commitMessage(final String msgId);
 
+    /**
+     * Mark all messages with the passed Ids as having been processed, using a single request per stream.
+     * @param msgIds Ids of the messages to mark complete, as returned by {@link Message#getId()}.
+     */
+    void commitMessages(final List<String> msgIds);
+
+    /**
+     * Retrieve entries from this consumer's pending entries list for a stream, in order of entry id.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.  "-" to start from the beginning of the list.
+     * @param limit Maximum number of entries to retrieve.
+     * @return Pending entries.
+     */
+    List<PendingEntry> pendingMessages(final String streamKey, final String startId, final int limit);
+
+    /**
+     * Claim pending messages for this consumer, resetting their idle time and incrementing their delivery count.
+     * Only messages which have been idle for at least minIdleMillis are claimed.
+     * @param streamKey Key of the stream.
+     * @param minIdleMillis Minimum idle time in milliseconds a message must have to be claimed.
+     * @param entryIds Ids of the entries within the stream to claim.
+     * @return Messages claimed.
+     */
+    List<Message> claimMessages(final String streamKey, final long minIdleMillis, final List<String> entryIds);
+
+    /**
+     * Retrieve entries from the pending entries lists of every consumer in the group for a stream, in order of entry id.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.  "-" to start from the beginning of the list.
+     * @param limit Maximum number of entries to retrieve.
+     * @return Pending entries.
+     */
+    List<PendingEntry> groupPendingMessages(final String streamKey, final String startId, final int limit);
+
+    /**
+     * Retrieve details about every consumer in the group for a stream.
+     * @param streamKey Key of the stream.
+     * @return Consumers in the group.
+     */
+    List<GroupConsumer> groupConsumers(final String streamKey);
+
+    /**
+     * Remove a consumer from the group for a stream.  Any messages still pending for it are discarded.
+     * @param streamKey Key of the stream.
+     * @param consumerId Name of the consumer to remove.
+     */
+    void removeConsumer(final String streamKey, final String consumerId);
+
+    /**
+     * Name of the consumer this client reads as.
+     * @return Consumer name.
+     */
+    String getConsumerId();
+
     /**
      * Disconnect from Redis server.
      */
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
 import org.sourcelab.storm.spout.redis.client.jedis.JedisClient;
+import org.sourcelab.storm.spout.redis.client.lettuce.LettuceAsyncClient;
 import org.sourcelab.storm.spout.redis.client.lettuce.LettuceClient;
 
 import java.util.Objects;
@@ -30,6 +31,9 @@ public class ClientFactory {
             case LETTUCE:
                 logger.info("Using Lettuce client library.");
                 return new LettuceClient(config, instanceId);
+            case LETTUCE_ASYNC:
+                logger.info("Using Lettuce client library with asynchronous commands.");
+                return new LettuceAsyncClient(config, instanceId);
             default:
                 throw new IllegalStateException("Unknown/Unhandled Client Type");
         }
@@ -5,5 +5,6 @@ package org.sourcelab.storm.spout.redis.client;
  */
 public enum ClientType {
     LETTUCE,
+    LETTUCE_ASYNC,
     JEDIS;
 }
@@ -4,8 +4,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.Message;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.TupleConverter;
+import org.sourcelab.storm.spout.redis.TupleValue;
+import org.sourcelab.storm.spout.redis.failhandler.PendingListFailureHandler;
 import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -15,6 +19,16 @@ import java.util.Objects;
 public class Consumer implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(Consumer.class);
 
+    /**
+     * How long to wait for the dedicated committer thread to finish on shutdown.
+     */
+    private static final long COMMITTER_STOP_TIMEOUT_MILLIS = 5000L;
+
+    /**
+     * How long to wait for the prefetch thread to finish on shutdown.
+     */
+    private static final long PREFETCHER_STOP_TIMEOUT_MILLIS = 5000L;
+
     /**
      * Configuration properties for the client.
      */
@@ -30,6 +44,51 @@ public class Consumer implements Runnable {
      */
     private final ConsumerFunnel funnel;
 
+    /**
+     * Batches acked messageIds into multi-id XACK requests.
+     */
+    private final AckBatcher ackBatcher;
+
+    /**
+     * Optional committer, when set acks are committed from a dedicated thread instead of this one.
+     */
+    private final AckCommitter ackCommitter;
+
+    /**
+     * Optional prefetcher, when set messages are read ahead from a dedicated thread instead of this one.
+     */
+    private final Prefetcher prefetcher;
+
+    /**
+     * Replays failed messages from the pending entries list, when using {@link PendingListFailureHandler}.
+     */
+    private final PendingListReclaimer pendingListReclaimer;
+
+    /**
+     * Claims messages abandoned by other consumers in the group, when enabled.
+     */
+    private final AbandonedMessageReclaimer abandonedMessageReclaimer;
+
+    /**
+     * Sizes each read from the room left in the funnel and how full recent reads came back, when enabled.
+     */
+    private final AdaptiveReadSizer readSizer;
+
+    /**
+     * Decides how long to sleep between batches.
+     */
+    private final ConsumerPacer pacer;
+
+    /**
+     * Converts messages into tuples before handing them to the funnel, when configured to convert on this thread.
+     */
+    private final TupleConverter tupleConverter;
+
+    /**
+     * Set once the TupleConverter has thrown, stopping the consumer.
+     */
+    private boolean conversionFailed = false;
+
     /**
      * Protected constructor for injecting a RedisClient instance, typically for tests.
      * @param config Spout configuration properties.
@@ -37,9 +96,87 @@ public class Consumer implements Runnable {
      * @param funnel Funnel instance.
      */
     public Consumer(final RedisStreamSpoutConfig config, final Client redisClient, final ConsumerFunnel funnel) {
+        this(config, redisClient, null, funnel);
+    }
+
+    /**
+     * Constructor.
+     * @param config Spout configuration properties.
+     * @param redisClient RedisClient instance.
+     * @param committerClient (optional) RedisClient instance used to commit acks from a dedicated thread,
+     *                        or NULL to commit acks from this consumer thread.
+     * @param funnel Funnel instance.
+     */
+    public Consumer(
+        final RedisStreamSpoutConfig config,
+        final Client redisClient,
+        final Client committerClient,
+        final ConsumerFunnel funnel
+    ) {
+        this(config, redisClient, committerClient, null, funnel);
+    }
+
+    /**
+     * Constructor.
+     * @param config Spout configuration properties.
+     * @param redisClient RedisClient instance.
+     * @param committerClient (optional) RedisClient instance used to commit acks from a dedicated thread,
+     *                        or NULL to commit acks from this consumer thread.
+     * @param prefetchClient (optional) RedisClient instance used to read ahead from a dedicated thread,
+     *                       or NULL to read from this consumer thread.
+     * @param funnel Funnel instance.
+     */
+    public Consumer(
+        final RedisStreamSpoutConfig config,
+        final Client redisClient,
+        final Client committerClient,
+        final Client prefetchClient,
+        final ConsumerFunnel funnel
+    ) {
         this.config = Objects.requireNonNull(config);
         this.redisClient = Objects.requireNonNull(redisClient);
         this.funnel = Objects.requireNonNull(funnel);
+        this.ackBatcher = new AckBatcher(redisClient, config.getMaxAckBatchSize(), config.getAckLingerMillis());
+
+        if (committerClient != null) {
+            this.ackCommitter = new AckCommitter(config, committerClient, funnel);
+        } else {
+            this.ackCommitter = null;
+        }
+
+        if (prefetchClient != null) {
+            this.prefetcher = new Prefetcher(config, prefetchClient, funnel);
+        } else {
+            this.prefetcher = null;
+        }
+
+        if (config.getFailureHandler() instanceof PendingListFailureHandler) {
+            this.pendingListReclaimer = new PendingListReclaimer(
+                config, redisClient, (PendingListFailureHandler) config.getFailureHandler()
+            );
+        } else {
+            this.pendingListReclaimer = null;
+        }
+
+        if (config.isAbandonedMessageReclaimEnabled()) {
+            this.abandonedMessageReclaimer = new AbandonedMessageReclaimer(config, redisClient);
+        } else {
+            this.abandonedMessageReclaimer = null;
+        }
+
+        if (config.isAdaptiveConsumePerReadEnabled()) {
+            this.readSizer = new AdaptiveReadSizer(config.getMinConsumePerRead(), config.getMaxConsumePerRead());
+        } else {
+            this.readSizer = null;
+        }
+
+        this.pacer = new ConsumerPacer(config.getConsumerDelayMillis(), config.getMaxConsumerDelayMillis());
+
+        if (config.isConsumerThreadConversionEnabled()) {
+            this.tupleConverter = config.getTupleConverter();
+        } else {
+            this.tupleConverter = null;
+        }
     }
 
     /**
@@ -49,37 +186,78 @@ public class Consumer implements Runnable {
      */
     @Override
     public void run() {
-        // Connect
-        redisClient.connect();
-
-        // flip running flag.
-        funnel.setIsRunning(true);
-
-        logger.info("Starting to consume new messages from {}", config.getStreamKey());
-        while (!funnel.shouldStop()) {
-            final List<Message> messages = redisClient.nextMessages();
-
-            // Loop over each message
-            messages
-                // Push into the funnel.
-                // This operation can block if the queue is full.
-                .forEach(funnel::addMessage);
-
-            // process acks
-            String msgId = funnel.nextAck();
-            while (msgId != null) {
-                // Confirm that the message has been processed using XACK
-                redisClient.commitMessage(msgId);
-
-                // Grab next msg to ack.
-                msgId = funnel.nextAck();
+        Thread committerThread = null;
+        Thread prefetchThread = null;
+        try {
+            // Connect
+            redisClient.connect();
+
+            // Start dedicated committer thread, if configured.
+            if (ackCommitter != null) {
+                committerThread = new Thread(ackCommitter, Thread.currentThread().getName() + "-AckCommitter");
+                committerThread.start();
+            }
+
+            // Start dedicated prefetch thread, if configured.
+            if (prefetcher != null) {
+                prefetchThread = new Thread(prefetcher, Thread.currentThread().getName() + "-Prefetcher");
+                prefetchThread.start();
             }
 
-            // If configured with a delay
-            if (config.getConsumerDelayMillis() > 0) {
+            // flip running flag.
+            funnel.setIsRunning(true);
+
+            consume();
+        } catch (final RuntimeException exception) {
+            // Hand over to the spout thread, so Storm sees the failure rather than the spout silently emitting nothing.
+            logger.error("Consumer stopped after an error: {}", exception.getMessage(), exception);
+            funnel.reportError(exception);
+        } finally {
+            shutdown(committerThread, prefetchThread);
+        }
+    }
+
+    /**
+     * Consume until the funnel notifies this thread to stop, or converting a message fails.
+     */
+    private void consume() {
+        logger.info("Starting to consume new messages from {}", config.getStreamKeys());
+        while (!funnel.shouldStop() && !conversionFailed) {
+            final int requestedCount = readSizer == null
+                ? config.getMaxConsumePerRead()
+                : readSizer.nextCount(funnel.getRemainingMessageCapacity());
+            final List<Message> messages = prefetcher != null
+                ? prefetcher.nextBatch(Math.max(0L, config.getConsumerBlockMillis()))
+                : nextMessages(requestedCount);
+
+            // Push into the funnel.
+            // This operation can block if the queue is full.
+            addMessages(messages);
+            if (prefetcher != null) {
+                prefetcher.handedOff(messages.size());
+            }
+
+            // Replay failed messages from the pending entries list, if configured.
+            if (pendingListReclaimer != null) {
+                addMessages(pendingListReclaimer.reclaim());
+            }
+
+            // Claim messages abandoned by other consumers, if configured.
+            if (abandonedMessageReclaimer != null) {
+                addMessages(abandonedMessageReclaimer.reclaim());
+            }
+
+            // process acks, unless handled by the dedicated committer thread.
+            if (ackCommitter == null) {
+                processAcks();
+            }
+
+            // If configured with a delay, skipped after full batches when pacing adaptively.
+            final long delayMillis = pacer.nextDelayMillis(requestedCount, messages.size());
+            if (delayMillis > 0) {
                 // Small delay.
                 try {
-                    Thread.sleep(config.getConsumerDelayMillis());
+                    Thread.sleep(delayMillis);
                 } catch (final InterruptedException exception) {
                     logger.info("Caught interrupt, stopping consumer", exception);
                     break;
@@ -87,11 +265,160 @@ public class Consumer implements Runnable {
             }
         }
         logger.info("Spout Requested Shutdown...");
+    }
 
-        // Close our connection and shutdown.
-        redisClient.disconnect();
+    /**
+     * Stop background threads, commit any remaining acks, and disconnect.  Always flips the running flag to false,
+     * even if any of these fail.
+     * @param committerThread The committer thread, or NULL if not started.
+     * @param prefetchThread The prefetch thread, or NULL if not started.
+     */
+    private void shutdown(final Thread committerThread, final Thread prefetchThread) {
+        try {
+            // Stop reading ahead, anything not yet handed over remains pending.
+            if (prefetchThread != null) {
+                stopPrefetcher(prefetchThread);
+            }
+
+            // Commit any remaining acks before disconnecting.
+            if (ackCommitter == null) {
+                processAcks();
+                ackBatcher.flush();
+            } else if (committerThread != null) {
+                stopAckCommitter(committerThread);
+            }
+        } finally {
+            try {
+                // Close our connection and shutdown.
+                redisClient.disconnect();
+            } finally {
+                // Flip running flag to false to signal to spout.
+                funnel.setIsRunning(false);
+            }
+        }
+    }
+
+    /**
+     * Stop the dedicated committer thread, waiting for it to commit any remaining acks.
+     * @param committerThread The committer thread.
+     */
+    private void stopAckCommitter(final Thread committerThread) {
+        ackCommitter.requestStop();
+        try {
+            committerThread.join(COMMITTER_STOP_TIMEOUT_MILLIS);
+        } catch (final InterruptedException exception) {
+            logger.info("Interrupted waiting for ack committer to stop", exception);
+            Thread.currentThread().interrupt();
+        }
+        if (committerThread.isAlive()) {
+            logger.warn("Timed out waiting for ack committer to stop.");
+        }
+    }
+
+    /**
+     * Read the next batch of messages, sized adaptively if configured.
+     * @param count Number of messages to read, when sized adaptively.
+     * @return Messages read.
+     */
+    private List<Message> nextMessages(final int count) {
+        if (readSizer == null) {
+            return redisClient.nextMessages();
+        }
+        final List<Message> messages = redisClient.nextMessages(count);
+        readSizer.recordRead(count, messages.size());
+        return messages;
+    }
+
+    /**
+     * How long the consumer sleeps after its most recent batch.
+     * @return Delay in milliseconds.
+     */
+    public long getCurrentDelayMillis() {
+        return pacer.getCurrentDelayMillis();
+    }
+
+    /**
+     * Stop the dedicated prefetch thread.
+     * @param prefetchThread The prefetch thread.
+     */
+    private void stopPrefetcher(final Thread prefetchThread) {
+        prefetcher.requestStop();
+        try {
+            prefetchThread.join(Math.max(0L, config.getConsumerBlockMillis()) + PREFETCHER_STOP_TIMEOUT_MILLIS);
+        } catch (final InterruptedException exception) {
+            logger.info("Interrupted waiting for prefetcher to stop", exception);
+            Thread.currentThread().interrupt();
+        }
+        if (prefetchThread.isAlive()) {
+            logger.warn("Timed out waiting for prefetcher to stop.");
+        }
+    }
+
+    /**
+     * Hand the messages over to the funnel in as few operations as the funnel has room for.
+     * @param readMessages Messages to push into the funnel.
+     */
+    private void addMessages(final List<Message> readMessages) {
+        // Stopping, leave the messages pending.
+        if (conversionFailed) {
+            return;
+        }
+        final List<Message> messages = tupleConverter == null ? readMessages : convertMessages(readMessages);
+        int added = 0;
+        while (added < messages.size()) {
+            final int count = funnel.addMessages(added == 0 ? messages : messages.subList(added, messages.size()));
+            if (count == 0) {
+                // Interrupted, remaining messages stay pending in redis.
+                logger.warn("Unable to add {} messages to funnel", messages.size() - added);
+                return;
+            }
+            added += count;
+        }
+    }
+
+    /**
+     * Convert messages into tuples ahead of handing them to the funnel.  Messages converted into NULL emit no tuple,
+     * and are acked straight away using a single commit.
+     *
+     * If the converter throws, the error is handed to the funnel to be rethrown by the spout, as it would have been
+     * had the spout converted the message itself, and the consumer stops.  That message and the rest of the batch are
+     * left pending.
+     * @param messages Messages to convert.
+     * @return Messages to push into the funnel, each carrying its converted tuple.
+     */
+    private List<Message> convertMessages(final List<Message> messages) {
+        final List<Message> converted = new ArrayList<>(messages.size());
+        final List<String> skippedMsgIds = new ArrayList<>();
+        for (final Message message : messages) {
+            final TupleValue tuple;
+            try {
+                tuple = tupleConverter.createTuple(message);
+            } catch (final RuntimeException exception) {
+                logger.error("Failed to convert message {}: {}", message.getId(), exception.getMessage(), exception);
+                funnel.reportError(exception);
+                conversionFailed = true;
+                break;
+            }
+            if (tuple != null) {
+                converted.add(message.withTupleValue(tuple));
+            } else if (!config.isAtMostOnce()) {
+                skippedMsgIds.add(message.getId());
+            }
+        }
+        if (!skippedMsgIds.isEmpty()) {
+            redisClient.commitMessages(skippedMsgIds);
+        }
+        return converted;
+    }
+
+    /**
+     * Drain acked messageIds from the funnel, confirming they have been processed using batched XACK requests.
+     */
+    private void processAcks() {
+        // Buffer, committing each batch once it is full.
+        ackBatcher.drainFrom(funnel);
 
-        // Flip running flag to false to signal to spout.
-        funnel.setIsRunning(false);
+        // Commit whatever remains once it has waited long enough.
+        ackBatcher.flushIfExpired();
     }
 }
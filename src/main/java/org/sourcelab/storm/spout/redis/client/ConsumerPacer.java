@@ -0,0 +1,69 @@
+package org.sourcelab.storm.spout.redis.client;
+
+/**
+ * Decides how long the consumer thread sleeps between batches.
+ *
+ * With a fixed delay, the consumer always sleeps the same amount.  When pacing adaptively, the consumer doesn't sleep
+ * after a full batch, as more messages are likely waiting, sleeps the minimum delay after a partial batch, and backs
+ * off exponentially up to the maximum delay while reads keep coming back empty.
+ *
+ * Only updated from the consumer thread, the current delay may be read from any thread for metrics.
+ */
+class ConsumerPacer {
+    /**
+     * Delay after a partial batch, and the first empty read.  Or the fixed delay, when not pacing adaptively.
+     */
+    private final long minDelayMillis;
+
+    /**
+     * Maximum delay while reads keep coming back empty, 0 to always sleep the fixed delay.
+     */
+    private final long maxDelayMillis;
+
+    /**
+     * Delay decided after the most recent batch.
+     */
+    private volatile long currentDelayMillis;
+
+    /**
+     * Constructor.
+     * @param minDelayMillis Delay after a partial batch, or the fixed delay when maxDelayMillis is 0.
+     * @param maxDelayMillis Maximum delay while reads keep coming back empty, 0 to always sleep the fixed delay.
+     */
+    ConsumerPacer(final long minDelayMillis, final long maxDelayMillis) {
+        this.minDelayMillis = Math.max(0L, minDelayMillis);
+        this.maxDelayMillis = maxDelayMillis;
+        this.currentDelayMillis = this.minDelayMillis;
+    }
+
+    /**
+     * Decide how long to sleep after a batch.
+     * @param requestedCount Number of messages the read asked for.
+     * @param receivedCount Number of messages read.
+     * @return Delay in milliseconds, 0 to not sleep.
+     */
+    long nextDelayMillis(final int requestedCount, final int receivedCount) {
+        if (maxDelayMillis <= 0) {
+            return minDelayMillis;
+        }
+
+        final long delayMillis;
+        if (receivedCount >= requestedCount) {
+            delayMillis = 0L;
+        } else if (receivedCount > 0) {
+            delayMillis = minDelayMillis;
+        } else {
+            delayMillis = Math.min(maxDelayMillis, Math.max(minDelayMillis, currentDelayMillis * 2));
+        }
+        currentDelayMillis = delayMillis;
+        return delayMillis;
+    }
+
+    /**
+     * Delay decided after the most recent batch.
+     * @return Delay in milliseconds.
+     */
+    long getCurrentDelayMillis() {
+        return currentDelayMillis;
+    }
+}
@@ -0,0 +1,63 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Shares a single instance of each field name across every message read, instead of every message holding its own
+ * copy of the same handful of names.
+ *
+ * Holds at most a fixed number of names, so streams with unbounded field names don't grow it forever, names seen
+ * once it is full are returned as-is.  Thread safe, as messages may be read from multiple threads.
+ */
+class FieldNameInterner implements UnaryOperator<String> {
+    /**
+     * Default maximum number of names held.
+     */
+    static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final int maxSize;
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     */
+    FieldNameInterner() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param maxSize Maximum number of names held.
+     */
+    FieldNameInterner(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the shared instance of a field name.
+     * @param name Field name.
+     * @return Shared instance equal to the name.
+     */
+    @Override
+    public String apply(final String name) {
+        final String shared = names.get(name);
+        if (shared != null) {
+            return shared;
+        }
+        if (names.size() >= maxSize) {
+            return name;
+        }
+        final String previous = names.putIfAbsent(name, name);
+        return previous == null ? name : previous;
+    }
+
+    /**
+     * Number of names held.
+     * @return Size.
+     */
+    int size() {
+        return names.size();
+    }
+}
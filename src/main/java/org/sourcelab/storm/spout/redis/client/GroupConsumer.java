@@ -0,0 +1,96 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A consumer within the consumer group, as reported by XINFO CONSUMERS.
+ */
+public class GroupConsumer {
+    private final String name;
+    private final long pendingCount;
+    private final long idleMillis;
+
+    /**
+     * Constructor.
+     * @param name Name of the consumer.
+     * @param pendingCount Number of messages pending for the consumer.
+     * @param idleMillis Milliseconds since the consumer last interacted with the group.
+     */
+    public GroupConsumer(final String name, final long pendingCount, final long idleMillis) {
+        this.name = Objects.requireNonNull(name);
+        this.pendingCount = pendingCount;
+        this.idleMillis = idleMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+
+    /**
+     * Parse the raw reply from XINFO CONSUMERS, a list of field/value lists for each consumer.
+     * Field names and consumer names may be either Strings or byte arrays, depending on the client library.
+     * @param reply Raw reply.
+     * @return Consumers in the group.
+     */
+    public static List<GroupConsumer> parseXinfoConsumers(final List<?> reply) {
+        final List<GroupConsumer> consumers = new ArrayList<>();
+        if (reply == null) {
+            return consumers;
+        }
+
+        for (final Object consumerInfo : reply) {
+            final List<?> fields = (List<?>) consumerInfo;
+            String name = null;
+            long pendingCount = 0L;
+            long idleMillis = 0L;
+            for (int index = 0; index + 1 < fields.size(); index += 2) {
+                final Object value = fields.get(index + 1);
+                switch (asString(fields.get(index))) {
+                    case "name":
+                        name = asString(value);
+                        break;
+                    case "pending":
+                        pendingCount = ((Number) value).longValue();
+                        break;
+                    case "idle":
+                        idleMillis = ((Number) value).longValue();
+                        break;
+                    default:
+                        // Ignore other fields.
+                        break;
+                }
+            }
+            if (name != null) {
+                consumers.add(new GroupConsumer(name, pendingCount, idleMillis));
+            }
+        }
+        return consumers;
+    }
+
+    private static String asString(final Object value) {
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupConsumer{"
+            + "name='" + name + '\''
+            + ", pendingCount=" + pendingCount
+            + ", idleMillis=" + idleMillis
+            + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import java.util.Objects;
+
+/**
+ * An entry in a consumer's pending entries list, a message delivered to the consumer but not yet acknowledged.
+ */
+public class PendingEntry {
+    private final String id;
+    private final String consumerName;
+    private final long idleMillis;
+    private final long deliveryCount;
+
+    /**
+     * Constructor.
+     * @param id Id of the entry within its stream.
+     * @param consumerName Name of the consumer the message is pending for.
+     * @param idleMillis Milliseconds since the message was last delivered.
+     * @param deliveryCount Number of times the message has been delivered.
+     */
+    public PendingEntry(final String id, final String consumerName, final long idleMillis, final long deliveryCount) {
+        this.id = Objects.requireNonNull(id);
+        this.consumerName = Objects.requireNonNull(consumerName);
+        this.idleMillis = idleMillis;
+        this.deliveryCount = deliveryCount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getConsumerName() {
+        return consumerName;
+    }
+
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingEntry{"
+            + "id='" + id + '\''
+            + ", consumerName='" + consumerName + '\''
+            + ", idleMillis=" + idleMillis
+            + ", deliveryCount=" + deliveryCount
+            + '}';
+    }
+}
@@ -0,0 +1,159 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.StreamId;
+import org.sourcelab.storm.spout.redis.failhandler.PendingListConfig;
+import org.sourcelab.storm.spout.redis.failhandler.PendingListFailureHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Replays failed messages left in the consumer's pending entries list by {@link PendingListFailureHandler}.
+ *
+ * Periodically pages through the pending entries list of each stream using XPENDING, a batch at a time.  Entries idle for
+ * longer than the retry delay for their delivery count are re-claimed using XCLAIM to be replayed, or
+ * acked if they have exhausted the retry limit.
+ *
+ * Not thread safe, expected to be accessed only from the consumer thread.
+ */
+class PendingListReclaimer {
+    private static final Logger logger = LoggerFactory.getLogger(PendingListReclaimer.class);
+
+    /**
+     * Id to start paging from the beginning of the pending entries list.
+     */
+    private static final String FIRST_ID = "-";
+
+    /**
+     * The underlying Redis Client.
+     */
+    private final Client redisClient;
+
+    /**
+     * The failure handler, for its configuration and metrics.
+     */
+    private final PendingListFailureHandler failureHandler;
+    private final PendingListConfig config;
+
+    /**
+     * Streams being consumed from, and how their messageIds are formed.
+     */
+    private final List<String> streamKeys;
+    private final StreamMessageIds messageIds;
+
+    /**
+     * Id to resume paging through each stream's pending entries list from.
+     */
+    private final Map<String, String> cursors = new HashMap<>();
+
+    /**
+     * When the pending entries list was last inspected.
+     */
+    private long lastReclaimTimestamp = 0L;
+
+    /**
+     * Constructor.
+     * @param spoutConfig Spout configuration properties.
+     * @param redisClient Client to inspect and claim pending entries with.
+     * @param failureHandler The failure handler leaving messages in the pending entries list.
+     */
+    PendingListReclaimer(
+        final RedisStreamSpoutConfig spoutConfig,
+        final Client redisClient,
+        final PendingListFailureHandler failureHandler
+    ) {
+        this.redisClient = Objects.requireNonNull(redisClient);
+        this.failureHandler = Objects.requireNonNull(failureHandler);
+        this.config = failureHandler.getConfig();
+        this.streamKeys = spoutConfig.getStreamKeys();
+        this.messageIds = new StreamMessageIds(spoutConfig);
+    }
+
+    /**
+     * If the reclaim interval has passed, inspect the next batch of pending entries for each stream.
+     * @return Messages re-claimed to be replayed, or an empty list if none.
+     */
+    List<Message> reclaim() {
+        final long now = System.currentTimeMillis();
+        if (now - lastReclaimTimestamp < config.getReclaimIntervalMs()) {
+            return Collections.emptyList();
+        }
+        lastReclaimTimestamp = now;
+
+        if (streamKeys.size() == 1) {
+            return reclaim(streamKeys.get(0));
+        }
+        final List<Message> claimed = new ArrayList<>();
+        for (final String streamKey : streamKeys) {
+            claimed.addAll(reclaim(streamKey));
+        }
+        return claimed;
+    }
+
+    /**
+     * Inspect the next batch of pending entries for a stream.
+     * @param streamKey Key of the stream.
+     * @return Messages re-claimed to be replayed, or an empty list if none.
+     */
+    private List<Message> reclaim(final String streamKey) {
+        final String cursor = cursors.getOrDefault(streamKey, FIRST_ID);
+        final List<PendingEntry> entries = redisClient.pendingMessages(streamKey, cursor, config.getReclaimBatchSize());
+
+        // Resume from just after the last entry, or wrap around once we've reached the end.
+        if (entries.size() < config.getReclaimBatchSize()) {
+            cursors.remove(streamKey);
+        } else {
+            cursors.put(streamKey, nextId(entries.get(entries.size() - 1).getId()));
+        }
+
+        final List<String> toClaim = new ArrayList<>();
+        final List<String> toDrop = new ArrayList<>();
+        long minIdleMillis = Long.MAX_VALUE;
+        for (final PendingEntry entry : entries) {
+            // Still waiting out its retry delay, or still being processed.
+            final long retryDelayMs = config.getRetryDelayMs(entry.getDeliveryCount());
+            if (entry.getIdleMillis() < retryDelayMs) {
+                continue;
+            }
+
+            // Each delivery after the first is a retry.
+            if (config.getRetryLimit() >= 0 && entry.getDeliveryCount() > config.getRetryLimit()) {
+                toDrop.add(messageIds.toMessageId(streamKey, entry.getId()));
+            } else {
+                toClaim.add(entry.getId());
+                minIdleMillis = Math.min(minIdleMillis, retryDelayMs);
+            }
+        }
+
+        if (!toDrop.isEmpty()) {
+            logger.debug("Dropping {} messages which exceeded the retry limit", toDrop.size());
+            redisClient.commitMessages(toDrop);
+            failureHandler.recordExceededRetryLimit(toDrop.size());
+        }
+        if (toClaim.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Claiming with a min idle time skips any acked or re-delivered since we inspected them.
+        final List<Message> claimed = redisClient.claimMessages(streamKey, minIdleMillis, toClaim);
+        failureHandler.recordRetried(claimed.size());
+        return claimed;
+    }
+
+    /**
+     * The smallest messageId greater than the given one, used as an inclusive start when paging.
+     * @param msgId MessageId in the form of "timestamp-sequence".
+     * @return Next messageId.
+     */
+    static String nextId(final String msgId) {
+        return StreamId.parse(msgId).next().toString();
+    }
+}
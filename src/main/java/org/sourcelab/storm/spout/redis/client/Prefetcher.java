@@ -0,0 +1,176 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background Processing Thread reading ahead from Redis using its own Client connection, so the next batch
+ * is already being read while the {@link Consumer} thread hands the previous one over to the funnel.
+ *
+ * Read ahead is bounded both by the number of batches held, and by the room left in the funnel's tuple queue.
+ * Each read is sized from the funnel's remaining capacity, less the messages already read ahead but not yet
+ * handed over, so the funnel and the prefetcher together never hold more than the tuple queue's capacity.
+ */
+public class Prefetcher implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(Prefetcher.class);
+
+    /**
+     * How long to wait for the consumer thread to take a batch before checking if we should stop.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    /**
+     * How long to wait before checking again for room in the funnel.
+     */
+    private static final long FULL_BACKOFF_MILLIS = 5L;
+
+    /**
+     * How long to wait before retrying after a failed read.
+     */
+    private static final long ERROR_BACKOFF_MILLIS = 1000L;
+
+    /**
+     * Configuration properties for the client.
+     */
+    private final RedisStreamSpoutConfig config;
+
+    /**
+     * The underlying Redis Client, dedicated to reading.
+     */
+    private final Client redisClient;
+
+    /**
+     * Batches read ahead, waiting to be taken by the consumer thread.
+     */
+    private final BlockingQueue<List<Message>> batches;
+
+    /**
+     * Funnel the messages read ahead are handed over to by the consumer thread.
+     */
+    private final ConsumerFunnel funnel;
+
+    /**
+     * Number of messages read ahead, but not yet handed over to the funnel.
+     */
+    private final AtomicInteger bufferedMessages = new AtomicInteger();
+
+    /**
+     * Maximum number of messages per read.
+     */
+    private final int maxCount;
+
+    /**
+     * Stop flag.
+     */
+    private volatile boolean shouldStop = false;
+
+    /**
+     * Constructor.
+     * @param config Spout configuration properties.
+     * @param redisClient RedisClient instance dedicated to reading.
+     * @param funnel Funnel the messages read ahead are handed over to.
+     */
+    public Prefetcher(final RedisStreamSpoutConfig config, final Client redisClient, final ConsumerFunnel funnel) {
+        this.config = Objects.requireNonNull(config);
+        this.redisClient = Objects.requireNonNull(redisClient);
+        this.funnel = Objects.requireNonNull(funnel);
+        if (config.getPrefetchBatches() < 1) {
+            throw new IllegalArgumentException("Prefetch batches must be at least 1");
+        }
+        this.batches = new ArrayBlockingQueue<>(config.getPrefetchBatches());
+        this.maxCount = Math.min(config.getMaxConsumePerRead(), config.getMaxTupleQueueSize());
+    }
+
+    /**
+     * Intended to be run by a background processing Thread.
+     * This will continue running and not return until {@link Prefetcher#requestStop()} is called.
+     */
+    @Override
+    public void run() {
+        // Connect
+        redisClient.connect();
+
+        logger.info("Starting to read ahead from {}", config.getStreamKeys());
+        try {
+            while (!shouldStop) {
+                // Wait for room to read ahead, reading only as much as there is room for.
+                final int count = Math.min(maxCount, funnel.getRemainingMessageCapacity() - bufferedMessages.get());
+                if (count <= 0) {
+                    Thread.sleep(FULL_BACKOFF_MILLIS);
+                    continue;
+                }
+
+                final List<Message> messages;
+                try {
+                    messages = redisClient.nextMessages(count);
+                } catch (final RuntimeException exception) {
+                    logger.error("Failed to read ahead from {}: {}", config.getStreamKeys(), exception.getMessage(), exception);
+                    Thread.sleep(ERROR_BACKOFF_MILLIS);
+                    continue;
+                }
+
+                if (!messages.isEmpty()) {
+                    bufferedMessages.addAndGet(messages.size());
+                    while (!shouldStop && !batches.offer(messages, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        // Wait for the consumer thread to take a batch.
+                    }
+                }
+            }
+        } catch (final InterruptedException exception) {
+            logger.info("Caught interrupt, stopping prefetcher", exception);
+        }
+        logger.info("Prefetcher Requested Shutdown...");
+
+        // Anything read ahead but not handed over remains pending, and is replayed once reconnected.
+        redisClient.disconnect();
+    }
+
+    /**
+     * Take the next batch read ahead, waiting up to the specified time for one to become available.
+     * The caller must call {@link #handedOff(int)} once the batch has been handed over to the funnel.
+     * @param timeoutMillis Maximum time to wait in milliseconds.
+     * @return Messages read, empty if none became available.
+     */
+    public List<Message> nextBatch(final long timeoutMillis) {
+        final List<Message> batch;
+        try {
+            batch = batches.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException exception) {
+            logger.info("Interrupted waiting for prefetched messages", exception);
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
+        if (batch == null) {
+            return Collections.emptyList();
+        }
+        return batch;
+    }
+
+    /**
+     * Record messages taken using {@link #nextBatch(long)} as handed over to the funnel, where they now count
+     * against its remaining capacity instead.
+     * @param count Number of messages taken.
+     */
+    public void handedOff(final int count) {
+        bufferedMessages.addAndGet(-count);
+    }
+
+    /**
+     * Request the prefetcher stop.
+     */
+    public void requestStop() {
+        shouldStop = true;
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.sourcelab.storm.spout.redis.CompactMap;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps between the messageIds handed to the spout, and the stream key and entry id they refer to in Redis.
+ *
+ * When consuming from a single stream, messageIds are the stream entry ids as-is.  When consuming from
+ * multiple streams, the same entry id may exist in more than one stream, so messageIds are qualified with
+ * the stream key, in the form of "streamKey/entryId".  Entry ids never contain a '/', so the last one
+ * separates the two.
+ */
+public class StreamMessageIds {
+    /**
+     * Separates the stream key from the entry id in a qualified messageId.
+     */
+    public static final char SEPARATOR = '/';
+
+    /**
+     * Are messageIds qualified with their stream key.
+     */
+    private final boolean qualified;
+
+    /**
+     * Stream key for unqualified messageIds.
+     */
+    private final String defaultStreamKey;
+
+    /**
+     * Shares field names across the bodies of every message created.
+     */
+    private final FieldNameInterner fieldNames = new FieldNameInterner();
+
+    /**
+     * Constructor.
+     * @param config Spout configuration.
+     */
+    public StreamMessageIds(final RedisStreamSpoutConfig config) {
+        this.qualified = config.isConsumingMultipleStreams();
+        this.defaultStreamKey = config.getStreamKey();
+    }
+
+    /**
+     * Create a Message read from the given stream.  The body is copied into a {@link CompactMap}, sharing
+     * field names with previously created messages.
+     * @param streamKey Key of the stream the message was read from.
+     * @param entryId Id of the entry within the stream.
+     * @param body The stream message.
+     * @return Message instance.
+     */
+    public Message createMessage(final String streamKey, final String entryId, final Map<String, String> body) {
+        return new Message(streamKey, toMessageId(streamKey, entryId), CompactMap.copyOf(body, fieldNames));
+    }
+
+    /**
+     * Create a Message read from the given stream, leaving the body's values as raw bytes until accessed.
+     * @param streamKey Key of the stream the message was read from.
+     * @param entryId Id of the entry within the stream.
+     * @param body The stream message, with UTF-8 encoded values.
+     * @return Message instance.
+     */
+    public Message createRawMessage(final String streamKey, final String entryId, final Map<String, byte[]> body) {
+        return new Message(streamKey, toMessageId(streamKey, entryId), CompactMap.copyOfRaw(body, fieldNames));
+    }
+
+    /**
+     * Build the messageId handed to the spout for an entry.
+     * @param streamKey Key of the stream the entry belongs to.
+     * @param entryId Id of the entry within the stream.
+     * @return MessageId.
+     */
+    public String toMessageId(final String streamKey, final String entryId) {
+        if (!qualified) {
+            return entryId;
+        }
+        return streamKey + SEPARATOR + entryId;
+    }
+
+    /**
+     * Key of the stream the messageId belongs to.
+     * @param msgId MessageId.
+     * @return Stream key.
+     */
+    public String getStreamKey(final String msgId) {
+        if (!qualified) {
+            return defaultStreamKey;
+        }
+        return msgId.substring(0, separatorIndex(msgId));
+    }
+
+    /**
+     * Id of the entry within its stream.
+     * @param msgId MessageId.
+     * @return Entry id.
+     */
+    public String getEntryId(final String msgId) {
+        if (!qualified) {
+            return msgId;
+        }
+        return msgId.substring(separatorIndex(msgId) + 1);
+    }
+
+    /**
+     * Group messageIds into the entry ids for each stream, in the order each stream was first seen.
+     * @param msgIds MessageIds.
+     * @return Entry ids keyed by stream key.
+     */
+    public Map<String, List<String>> groupByStreamKey(final Collection<String> msgIds) {
+        if (!qualified) {
+            return Collections.singletonMap(defaultStreamKey, new ArrayList<>(msgIds));
+        }
+        final Map<String, List<String>> entryIds = new LinkedHashMap<>();
+        for (final String msgId : msgIds) {
+            entryIds.computeIfAbsent(getStreamKey(msgId), (key) -> new ArrayList<>())
+                .add(getEntryId(msgId));
+        }
+        return entryIds;
+    }
+
+    private static int separatorIndex(final String msgId) {
+        final int index = msgId.lastIndexOf(SEPARATOR);
+        if (index < 0) {
+            throw new IllegalArgumentException("MessageId " + msgId + " is not qualified with a stream key");
+        }
+        return index;
+    }
+}
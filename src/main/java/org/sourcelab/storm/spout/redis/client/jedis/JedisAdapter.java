@@ -1,6 +1,7 @@
 package org.sourcelab.storm.spout.redis.client.jedis;
 
 import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamPendingEntry;
 
 import java.util.List;
 import java.util.Map;
@@ -15,16 +16,80 @@ public interface JedisAdapter {
     void connect();
 
     /**
-     * Consume next batch of messages.
-     * @return List of messages consumed.
+     * Consume next batch of messages from every stream.
+     * @param maxCount Maximum number of messages to read from each stream.
+     * @return List of messages consumed, keyed by stream key.
      */
-    List<Map.Entry<String, List<StreamEntry>>> consume();
+    List<Map.Entry<String, List<StreamEntry>>> consume(final int maxCount);
 
     /**
      * Mark the provided messageId as acknowledged/completed.
+     * @param streamKey Key of the stream the message belongs to.
      * @param msgId Id of the message.
      */
-    void commit(final String msgId);
+    void commit(final String streamKey, final String msgId);
+
+    /**
+     * Mark all of the provided messageIds as acknowledged/completed in a single request.
+     * @param streamKey Key of the stream the messages belong to.
+     * @param msgIds Ids of the messages.
+     */
+    void commit(final String streamKey, final List<String> msgIds);
+
+    /**
+     * Mark all of the provided messageIds, from any number of streams, as acknowledged/completed.
+     * @param msgIdsByStreamKey Ids of the messages, keyed by the stream they belong to.
+     */
+    default void commit(final Map<String, List<String>> msgIdsByStreamKey) {
+        msgIdsByStreamKey.forEach(this::commit);
+    }
+
+    /**
+     * Retrieve entries from this consumer's pending entries list.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @return Pending entries.
+     */
+    List<StreamPendingEntry> pending(final String streamKey, final String startId, final int limit);
+
+    /**
+     * Claim pending messages for this consumer.
+     * @param streamKey Key of the stream.
+     * @param minIdleMillis Minimum idle time in milliseconds a message must have to be claimed.
+     * @param msgIds Ids of the messages to claim.
+     * @return Entries claimed.
+     */
+    List<StreamEntry> claim(final String streamKey, final long minIdleMillis, final List<String> msgIds);
+
+    /**
+     * Retrieve entries from the pending entries lists of every consumer in the group.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @return Pending entries.
+     */
+    List<StreamPendingEntry> groupPending(final String streamKey, final String startId, final int limit);
+
+    /**
+     * Retrieve the raw XINFO CONSUMERS reply for the group.
+     * @param streamKey Key of the stream.
+     * @return Raw reply.
+     */
+    List<Object> consumers(final String streamKey);
+
+    /**
+     * Remove a consumer from the group.
+     * @param streamKey Key of the stream.
+     * @param consumerId Name of the consumer to remove.
+     */
+    void deleteConsumer(final String streamKey, final String consumerId);
+
+    /**
+     * Name of the consumer this adapter reads as.
+     * @return Consumer name.
+     */
+    String getConsumerId();
 
     /**
      * Disconnect client.
@@ -32,13 +97,15 @@ public interface JedisAdapter {
     void close();
 
     /**
-     * Advance the last offset consumed from PPL.
+     * Advance the last offset consumed from the stream's PPL.
+     * @param streamKey Key of the stream.
      * @param lastMsgId Id of the last msg consumed.
      */
-    void advancePplOffset(final String lastMsgId);
+    void advancePplOffset(final String streamKey, final String lastMsgId);
 
     /**
-     * Switch to consuming from latest messages.
+     * Switch to consuming from latest messages of the stream.
+     * @param streamKey Key of the stream.
      */
-    void switchToConsumerGroupMessages();
+    void switchToConsumerGroupMessages(final String streamKey);
 }
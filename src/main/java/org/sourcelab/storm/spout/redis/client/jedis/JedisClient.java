@@ -5,14 +5,25 @@ import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.Message;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
 import org.sourcelab.storm.spout.redis.client.Client;
+import org.sourcelab.storm.spout.redis.client.GroupConsumer;
+import org.sourcelab.storm.spout.redis.client.PendingEntry;
+import org.sourcelab.storm.spout.redis.client.StreamMessageIds;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamPendingEntry;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,16 +32,31 @@ import java.util.stream.Collectors;
 public class JedisClient implements Client {
     private static final Logger logger = LoggerFactory.getLogger(JedisClient.class);
 
+    /**
+     * How many times JedisCluster attempts a command, following redirects, before giving up.
+     */
+    private static final int CLUSTER_MAX_ATTEMPTS = 5;
+
+    /**
+     * Configuration properties for the client.
+     */
+    private final RedisStreamSpoutConfig config;
+
     /**
      * The underlying Redis Client.
      */
     private final JedisAdapter adapter;
 
+    /**
+     * Maps between messageIds and the stream entries they refer to.
+     */
+    private final StreamMessageIds messageIds;
+
     /**
      * State for consuming first from consumer's personal pending list,
-     * then switching to reading from consumer group messages.
+     * then switching to reading from consumer group messages, tracked for each stream.
      */
-    private boolean hasFinishedPpl = false;
+    private final Set<String> finishedPplStreamKeys = new HashSet<>();
 
     /**
      * Constructor.
@@ -39,6 +65,7 @@ public class JedisClient implements Client {
      */
     public JedisClient(final RedisStreamSpoutConfig config, final int instanceId) {
         this(
+            config,
             // Determine which adapter to use based on what type of redis instance we are
             // communicating with.
             JedisClient.createAdapter(config, instanceId)
@@ -47,10 +74,13 @@ public class JedisClient implements Client {
 
     /**
      * Protected constructor for injecting a RedisClient instance, typically for tests.
+     * @param config Configuration.
      * @param adapter JedisAdapter instance.
      */
-    JedisClient(final JedisAdapter adapter) {
+    JedisClient(final RedisStreamSpoutConfig config, final JedisAdapter adapter) {
+        this.config = Objects.requireNonNull(config);
         this.adapter = Objects.requireNonNull(adapter);
+        this.messageIds = new StreamMessageIds(config);
     }
 
     @Override
@@ -59,41 +89,107 @@ public class JedisClient implements Client {
         adapter.connect();
 
         // Start consuming from PPL at first entry.
-        adapter.advancePplOffset("0-0");
+        finishedPplStreamKeys.clear();
+        for (final String streamKey : config.getStreamKeys()) {
+            if (config.isAtMostOnce()) {
+                // Anything left in the PPL may already have been delivered.
+                switchToConsumerGroupMessages(streamKey);
+            } else {
+                adapter.advancePplOffset(streamKey, "0-0");
+            }
+        }
     }
 
     @Override
     public List<Message> nextMessages() {
-        final List<Message> messages = adapter.consume()
-            .stream()
-            .map(Map.Entry::getValue)
-            .flatMap(Collection::stream)
-            .map((entry) -> new Message(entry.getID().toString(), entry.getFields()))
-            .collect(Collectors.toList());
+        return nextMessages(config.getMaxConsumePerRead());
+    }
 
-        // If we haven't finished consuming from PPL, but we received no messages
-        if (!hasFinishedPpl) {
-            if (messages.isEmpty()) {
-                logger.info("Personal Pending List appears empty, switching to consuming from new messages.");
+    @Override
+    public List<Message> nextMessages(final int maxCount) {
+        final List<Message> messages = new ArrayList<>();
+        boolean hasSwitchedFromPpl = false;
+        for (final Map.Entry<String, List<StreamEntry>> streamEntries : adapter.consume(maxCount)) {
+            final String streamKey = streamEntries.getKey();
+            final List<StreamEntry> entries = streamEntries.getValue();
+            for (final StreamEntry entry : entries) {
+                messages.add(messageIds.createMessage(streamKey, entry.getID().toString(), entry.getFields()));
+            }
 
-                // Switch to reading from consumer group
-                hasFinishedPpl = true;
-                adapter.switchToConsumerGroupMessages();
+            // If we haven't finished consuming from this stream's PPL
+            if (!finishedPplStreamKeys.contains(streamKey)) {
+                if (entries.isEmpty()) {
+                    hasSwitchedFromPpl |= switchToConsumerGroupMessages(streamKey);
+                } else {
+                    // Advance last index consumed from PPL so we don't continue to replay old messages.
+                    adapter.advancePplOffset(streamKey, entries.get(entries.size() - 1).getID().toString());
+                }
+            }
+        }
 
-                // Re-attempt consuming
-                return nextMessages();
-            } else {
-                // Advance last index consumed from PPL so we don't continue to replay old messages.
-                final String lastId = messages.get(messages.size() - 1).getId();
-                adapter.advancePplOffset(lastId);
+        // Streams with an empty PPL may be left out of the reply entirely.
+        if (finishedPplStreamKeys.size() < config.getStreamKeys().size() && messages.isEmpty()) {
+            for (final String streamKey : config.getStreamKeys()) {
+                hasSwitchedFromPpl |= switchToConsumerGroupMessages(streamKey);
             }
         }
+
+        if (hasSwitchedFromPpl && messages.isEmpty()) {
+            // Re-attempt consuming
+            return nextMessages(maxCount);
+        }
         return messages;
     }
 
     @Override
     public void commitMessage(final String msgId) {
-        adapter.commit(msgId);
+        adapter.commit(messageIds.getStreamKey(msgId), messageIds.getEntryId(msgId));
+    }
+
+    @Override
+    public void commitMessages(final List<String> msgIds) {
+        if (msgIds.isEmpty()) {
+            return;
+        }
+        adapter.commit(messageIds.groupByStreamKey(msgIds));
+    }
+
+    @Override
+    public List<PendingEntry> pendingMessages(final String streamKey, final String startId, final int limit) {
+        return toPendingEntries(adapter.pending(streamKey, startId, limit));
+    }
+
+    @Override
+    public List<Message> claimMessages(final String streamKey, final long minIdleMillis, final List<String> entryIds) {
+        if (entryIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return adapter.claim(streamKey, minIdleMillis, entryIds)
+            .stream()
+            // Entries deleted from the stream while pending are returned as null.
+            .filter(Objects::nonNull)
+            .map((entry) -> messageIds.createMessage(streamKey, entry.getID().toString(), entry.getFields()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<PendingEntry> groupPendingMessages(final String streamKey, final String startId, final int limit) {
+        return toPendingEntries(adapter.groupPending(streamKey, startId, limit));
+    }
+
+    @Override
+    public List<GroupConsumer> groupConsumers(final String streamKey) {
+        return GroupConsumer.parseXinfoConsumers(adapter.consumers(streamKey));
+    }
+
+    @Override
+    public void removeConsumer(final String streamKey, final String consumerId) {
+        adapter.deleteConsumer(streamKey, consumerId);
+    }
+
+    @Override
+    public String getConsumerId() {
+        return adapter.getConsumerId();
     }
 
     @Override
@@ -101,6 +197,29 @@ public class JedisClient implements Client {
         adapter.close();
     }
 
+    /**
+     * Switch the stream from consuming its PPL to consuming new messages, if it hasn't already.
+     * @param streamKey Key of the stream.
+     * @return true if switched, false if already switched.
+     */
+    private boolean switchToConsumerGroupMessages(final String streamKey) {
+        if (!finishedPplStreamKeys.add(streamKey)) {
+            return false;
+        }
+        logger.info("Personal Pending List of {} appears empty, switching to consuming from new messages.", streamKey);
+        adapter.switchToConsumerGroupMessages(streamKey);
+        return true;
+    }
+
+    private static List<PendingEntry> toPendingEntries(final List<StreamPendingEntry> entries) {
+        return entries
+            .stream()
+            .map((entry) -> new PendingEntry(
+                entry.getID().toString(), entry.getConsumerName(), entry.getIdleTime(), entry.getDeliveredTimes()
+            ))
+            .collect(Collectors.toList());
+    }
+
     /**
      * Factory method for creating the appropriate adapter based on configuration.
      * @param config Spout configuration.
@@ -108,12 +227,53 @@ public class JedisClient implements Client {
      */
     private static JedisAdapter createAdapter(final RedisStreamSpoutConfig config, final int instanceId) {
         final String connectStr = config.getConnectString().replaceAll("redis://", "");
+        final HostAndPort hostAndPort = HostAndPort.parseString(connectStr);
         if (config.isConnectingToCluster()) {
             logger.info("Connecting to RedisCluster at {}", config.getConnectStringMasked());
-            return new JedisClusterAdapter(new JedisCluster(HostAndPort.parseString(connectStr)), config, instanceId);
+            final JedisCluster jedisCluster = new JedisCluster(
+                hostAndPort,
+                config.getConnectionTimeoutMillis(),
+                config.getSocketTimeoutMillis(),
+                CLUSTER_MAX_ATTEMPTS,
+                createPoolConfig(config)
+            );
+            return new JedisClusterAdapter(jedisCluster, config, instanceId);
+        } else if (config.isJedisPoolEnabled()) {
+            logger.info("Connecting to Redis using a pool at {}", config.getConnectStringMasked());
+            final JedisPool jedisPool = new JedisPool(
+                createPoolConfig(config),
+                hostAndPort.getHost(),
+                hostAndPort.getPort(),
+                config.getConnectionTimeoutMillis(),
+                config.getSocketTimeoutMillis(),
+                null,
+                Protocol.DEFAULT_DATABASE,
+                null
+            );
+            return new JedisPooledAdapter(jedisPool, config, instanceId);
         } else {
             logger.info("Connecting to RedisCluster at {}", config.getConnectStringMasked());
-            return new JedisRedisAdapter(new Jedis(HostAndPort.parseString(connectStr)), config, instanceId);
+            final Jedis jedis = new Jedis(
+                hostAndPort.getHost(),
+                hostAndPort.getPort(),
+                config.getConnectionTimeoutMillis(),
+                config.getSocketTimeoutMillis()
+            );
+            return new JedisRedisAdapter(jedis, config, instanceId);
+        }
+    }
+
+    /**
+     * Create the pool configuration, using Jedis' defaults unless pool sizes are configured.
+     * @param config Spout configuration.
+     * @return Pool configuration.
+     */
+    static JedisPoolConfig createPoolConfig(final RedisStreamSpoutConfig config) {
+        final JedisPoolConfig poolConfig = new JedisPoolConfig();
+        if (config.isJedisPoolEnabled()) {
+            poolConfig.setMaxTotal(config.getJedisPoolMaxTotal());
+            poolConfig.setMaxIdle(config.getJedisPoolMaxIdle());
         }
+        return poolConfig;
     }
 }
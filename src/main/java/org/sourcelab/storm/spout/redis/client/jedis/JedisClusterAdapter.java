@@ -4,19 +4,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Protocol;
 import redis.clients.jedis.StreamEntry;
 import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.StreamPendingEntry;
 import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Adapter for talking to a RedisCluster.
  * If you need to talk to a single Redis instance {@link JedisRedisAdapter}.
+ *
+ * A single XREADGROUP request may only read keys which hash to the same slot, so when consuming from multiple
+ * streams one request is issued per slot.
  */
 public class JedisClusterAdapter implements JedisAdapter {
     private static final Logger logger = LoggerFactory.getLogger(JedisClusterAdapter.class);
@@ -35,9 +44,14 @@ public class JedisClusterAdapter implements JedisAdapter {
     private final String consumerId;
 
     /**
-     * Contains the position key to read from.
+     * Contains the position to read from for each stream key.
      */
-    private Map.Entry<String, StreamEntryID> streamPositionKey;
+    private final Map<String, StreamEntryID> streamPositions = new LinkedHashMap<>();
+
+    /**
+     * Stream keys grouped by the slot they hash to, each group read using a single XREADGROUP.
+     */
+    private final List<List<String>> slotGroups;
 
     /**
      * Constructor.
@@ -49,34 +63,70 @@ public class JedisClusterAdapter implements JedisAdapter {
         this.jedisCluster = Objects.requireNonNull(jedisCluster);
         this.config = Objects.requireNonNull(config);
         this.consumerId = config.getConsumerIdPrefix() + instanceId;
+        this.slotGroups = new ArrayList<>(
+            config.getStreamKeys()
+                .stream()
+                .collect(Collectors.groupingBy(JedisClusterCRC16::getSlot, LinkedHashMap::new, Collectors.toList()))
+                .values()
+        );
     }
 
     @Override
     public void connect() {
-        // Attempt to create consumer group
-        try {
-            jedisCluster.xgroupCreate(config.getStreamKey(), config.getGroupName(), new StreamEntryID(), true);
-        } catch (final JedisDataException exception) {
-            // Consumer group already exists, that's ok. Just swallow this.
-            logger.debug(
-                "Group {} for key {} already exists? : {}", config.getGroupName(), config.getStreamKey(),
-                exception.getMessage(), exception
-            );
+        for (final String streamKey : config.getStreamKeys()) {
+            // Attempt to create consumer group
+            try {
+                jedisCluster.xgroupCreate(streamKey, config.getGroupName(), new StreamEntryID(), true);
+            } catch (final JedisDataException exception) {
+                // Consumer group already exists, that's ok. Just swallow this.
+                logger.debug(
+                    "Group {} for key {} already exists? : {}", config.getGroupName(), streamKey,
+                    exception.getMessage(), exception
+                );
+            }
+
+            // Default to requesting entries from our personal pending queue.
+            advancePplOffset(streamKey, "0-0");
         }
-
-        // Default to requesting entries from our personal pending queue.
-        advancePplOffset("0-0");
     }
 
     @Override
-    public List<Map.Entry<String, List<StreamEntry>>> consume() {
+    public List<Map.Entry<String, List<StreamEntry>>> consume(final int maxCount) {
+        if (slotGroups.size() == 1) {
+            return consume(slotGroups.get(0), maxCount, config.getConsumerBlockMillis());
+        }
+
+        // Only block on the last slot, and only if nothing was read from the others.
+        final List<Map.Entry<String, List<StreamEntry>>> entries = new ArrayList<>();
+        for (int index = 0; index < slotGroups.size(); index++) {
+            final boolean shouldBlock = index == slotGroups.size() - 1 && entries.isEmpty();
+            entries.addAll(consume(slotGroups.get(index), maxCount, shouldBlock ? config.getConsumerBlockMillis() : 0L));
+        }
+        return entries;
+    }
+
+    /**
+     * Consume the next batch of messages from streams which hash to the same slot.
+     * @param streamKeys Keys of the streams to read.
+     * @param maxCount Maximum number of messages to read from each stream.
+     * @param blockMillis How long to block waiting for new messages, 0 to not block.
+     * @return List of messages consumed.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Map.Entry<String, List<StreamEntry>>> consume(
+        final List<String> streamKeys,
+        final int maxCount,
+        final long blockMillis
+    ) {
         final List<Map.Entry<String, List<StreamEntry>>> entries = jedisCluster.xreadGroup(
             config.getGroupName(),
             consumerId,
-            config.getMaxConsumePerRead(),
-            2000L,
-            false,
-            streamPositionKey
+            maxCount,
+            blockMillis,
+            config.isAtMostOnce(),
+            streamKeys.stream()
+                .map((streamKey) -> new AbstractMap.SimpleEntry<>(streamKey, streamPositions.get(streamKey)))
+                .toArray(Map.Entry[]::new)
         );
 
         if (entries == null) {
@@ -86,32 +136,110 @@ public class JedisClusterAdapter implements JedisAdapter {
     }
 
     @Override
-    public void commit(final String msgId) {
+    public void commit(final String streamKey, final String msgId) {
         jedisCluster.xack(
-            config.getStreamKey(),
+            streamKey,
             config.getGroupName(),
             new StreamEntryID(msgId)
         );
     }
 
     @Override
-    public void close() {
-        jedisCluster.close();
+    public void commit(final String streamKey, final List<String> msgIds) {
+        jedisCluster.xack(
+            streamKey,
+            config.getGroupName(),
+            msgIds.stream()
+                .map(StreamEntryID::new)
+                .toArray(StreamEntryID[]::new)
+        );
+    }
+
+    @Override
+    public List<StreamPendingEntry> pending(final String streamKey, final String startId, final int limit) {
+        return xpending(streamKey, startId, limit, consumerId);
+    }
+
+    @Override
+    public List<StreamPendingEntry> groupPending(final String streamKey, final String startId, final int limit) {
+        return xpending(streamKey, startId, limit, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> consumers(final String streamKey) {
+        // Not provided by Jedis.
+        return (List<Object>) jedisCluster.sendCommand(
+            streamKey, JedisCommand.XINFO, "CONSUMERS", streamKey, config.getGroupName()
+        );
     }
 
     @Override
-    public void advancePplOffset(final String lastMsgId) {
-        streamPositionKey = new AbstractMap.SimpleEntry<>(
-            config.getStreamKey(),
-            new StreamEntryID(lastMsgId)
+    public void deleteConsumer(final String streamKey, final String consumerId) {
+        // Jedis' xgroupDelConsumer() expects a status reply, but Redis replies with the number of entries discarded.
+        jedisCluster.sendCommand(
+            streamKey, Protocol.Command.XGROUP, "DELCONSUMER", streamKey, config.getGroupName(), consumerId
         );
     }
 
     @Override
-    public void switchToConsumerGroupMessages() {
-        streamPositionKey = new AbstractMap.SimpleEntry<>(
-            config.getStreamKey(),
-            StreamEntryID.UNRECEIVED_ENTRY
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<StreamEntry> claim(final String streamKey, final long minIdleMillis, final List<String> msgIds) {
+        return jedisCluster.xclaim(
+            streamKey,
+            config.getGroupName(),
+            consumerId,
+            minIdleMillis,
+            0L,
+            0,
+            false,
+            msgIds.stream()
+                .map(StreamEntryID::new)
+                .toArray(StreamEntryID[]::new)
+        );
+    }
+
+    /**
+     * Retrieve pending entries using XPENDING.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @param consumerName Consumer to retrieve entries for, or NULL for every consumer in the group.
+     * @return Pending entries.
+     */
+    private List<StreamPendingEntry> xpending(
+        final String streamKey,
+        final String startId,
+        final int limit,
+        final String consumerName
+    ) {
+        return jedisCluster.xpending(
+            streamKey,
+            config.getGroupName(),
+            // A null start or end is sent as '-' or '+' respectively.
+            "-".equals(startId) ? null : new StreamEntryID(startId),
+            null,
+            limit,
+            consumerName
         );
     }
+
+    @Override
+    public void close() {
+        jedisCluster.close();
+    }
+
+    @Override
+    public void advancePplOffset(final String streamKey, final String lastMsgId) {
+        streamPositions.put(streamKey, new StreamEntryID(lastMsgId));
+    }
+
+    @Override
+    public void switchToConsumerGroupMessages(final String streamKey) {
+        streamPositions.put(streamKey, StreamEntryID.UNRECEIVED_ENTRY);
+    }
 }
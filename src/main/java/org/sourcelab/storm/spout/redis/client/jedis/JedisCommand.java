@@ -0,0 +1,22 @@
+package org.sourcelab.storm.spout.redis.client.jedis;
+
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Commands not provided by the Jedis library, sent using sendCommand().
+ */
+enum JedisCommand implements ProtocolCommand {
+    XINFO;
+
+    private final byte[] raw;
+
+    JedisCommand() {
+        raw = SafeEncoder.encode(name());
+    }
+
+    @Override
+    public byte[] getRaw() {
+        return raw;
+    }
+}
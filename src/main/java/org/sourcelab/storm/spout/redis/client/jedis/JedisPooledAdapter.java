@@ -0,0 +1,342 @@
+package org.sourcelab.storm.spout.redis.client.jedis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.CompactMap;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.StreamPendingEntry;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Adapter for talking to a single Redis instance using connections borrowed from a JedisPool.
+ * If you need to talk to a RedisCluster {@link JedisClusterAdapter}.
+ *
+ * Acks for multiple streams are pipelined into a single round trip.  If read ack pipelining is enabled, acks are
+ * held back and sent in the same pipeline as the next read, ahead of it, so they are applied before the read blocks.
+ *
+ * Not thread safe, expected to be accessed only from a single thread.
+ */
+public class JedisPooledAdapter implements JedisAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(JedisPooledAdapter.class);
+
+    private final JedisPool jedisPool;
+
+    /**
+     * Configuration properties for the client.
+     */
+    private final RedisStreamSpoutConfig config;
+
+    /**
+     * Generated from config.getConsumerIdPrefix() along with the spout's instance
+     * id to come to a unique consumerId to support parallelism.
+     */
+    private final String consumerId;
+
+    /**
+     * Contains the position to read from for each stream key.
+     */
+    private final Map<String, StreamEntryID> streamPositions = new LinkedHashMap<>();
+
+    /**
+     * Acks held back to be sent along with the next read, keyed by stream key.
+     */
+    private final Map<String, List<String>> heldAcks = new LinkedHashMap<>();
+
+    /**
+     * Constructor.
+     * @param jedisPool Underlying Jedis connection pool.
+     * @param config Spout configuration.
+     * @param instanceId Spout instance Id.
+     */
+    public JedisPooledAdapter(final JedisPool jedisPool, final RedisStreamSpoutConfig config, final int instanceId) {
+        this.jedisPool = Objects.requireNonNull(jedisPool);
+        this.config = Objects.requireNonNull(config);
+        this.consumerId = config.getConsumerIdPrefix() + instanceId;
+    }
+
+    @Override
+    public void connect() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            for (final String streamKey : config.getStreamKeys()) {
+                // Attempt to create consumer group
+                try {
+                    jedis.xgroupCreate(streamKey, config.getGroupName(), new StreamEntryID(), true);
+                } catch (final JedisDataException exception) {
+                    // Consumer group already exists, that's ok. Just swallow this.
+                    logger.debug(
+                        "Group {} for key {} already exists? : {}", config.getGroupName(), streamKey,
+                        exception.getMessage(), exception
+                    );
+                }
+
+                // Default to requesting entries from our personal pending queue.
+                advancePplOffset(streamKey, "0-0");
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map.Entry<String, List<StreamEntry>>> consume(final int maxCount) {
+        final Object reply;
+        try (Jedis jedis = jedisPool.getResource()) {
+            final Pipeline pipeline = jedis.pipelined();
+            queueAcks(pipeline, heldAcks);
+            final Response<Object> response = pipeline.sendCommand(Protocol.Command.XREADGROUP, xreadGroupArgs(maxCount));
+
+            // As with Jedis' own blocking commands, wait for the read without a socket timeout.
+            jedis.getClient().setTimeoutInfinite();
+            try {
+                pipeline.sync();
+            } finally {
+                jedis.getClient().rollbackTimeout();
+            }
+
+            // XACK is idempotent, so held acks are only let go of once the pipeline has succeeded.
+            heldAcks.clear();
+            reply = response.get();
+        }
+        if (reply == null) {
+            return Collections.emptyList();
+        }
+
+        // Parse the same way as Jedis.xreadGroup(), unless leaving values undecoded.
+        final List<Object> streams = (List<Object>) reply;
+        final List<Map.Entry<String, List<StreamEntry>>> entries = new ArrayList<>(streams.size());
+        for (final Object stream : streams) {
+            final List<Object> streamReply = (List<Object>) stream;
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(
+                SafeEncoder.encode((byte[]) streamReply.get(0)),
+                config.isBinaryBodiesEnabled()
+                    ? buildRawEntries((List<Object>) streamReply.get(1))
+                    : BuilderFactory.STREAM_ENTRY_LIST.build(streamReply.get(1))
+            ));
+        }
+        return entries;
+    }
+
+    @Override
+    public void commit(final String streamKey, final String msgId) {
+        commit(streamKey, Collections.singletonList(msgId));
+    }
+
+    @Override
+    public void commit(final String streamKey, final List<String> msgIds) {
+        commit(Collections.singletonMap(streamKey, msgIds));
+    }
+
+    @Override
+    public void commit(final Map<String, List<String>> msgIdsByStreamKey) {
+        if (config.isJedisReadAckPipeliningEnabled()) {
+            // Held until the next read.
+            msgIdsByStreamKey.forEach((streamKey, msgIds) ->
+                heldAcks.computeIfAbsent(streamKey, (key) -> new ArrayList<>()).addAll(msgIds)
+            );
+            return;
+        }
+        sendAcks(msgIdsByStreamKey);
+    }
+
+    @Override
+    public List<StreamPendingEntry> pending(final String streamKey, final String startId, final int limit) {
+        return xpending(streamKey, startId, limit, consumerId);
+    }
+
+    @Override
+    public List<StreamPendingEntry> groupPending(final String streamKey, final String startId, final int limit) {
+        return xpending(streamKey, startId, limit, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> consumers(final String streamKey) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            // Not provided by Jedis.
+            return (List<Object>) jedis.sendCommand(JedisCommand.XINFO, "CONSUMERS", streamKey, config.getGroupName());
+        }
+    }
+
+    @Override
+    public void deleteConsumer(final String streamKey, final String consumerId) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            // Jedis' xgroupDelConsumer() expects a status reply, but Redis replies with the number of entries discarded.
+            jedis.sendCommand(Protocol.Command.XGROUP, "DELCONSUMER", streamKey, config.getGroupName(), consumerId);
+        }
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<StreamEntry> claim(final String streamKey, final long minIdleMillis, final List<String> msgIds) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.xclaim(
+                streamKey,
+                config.getGroupName(),
+                consumerId,
+                minIdleMillis,
+                0L,
+                0,
+                false,
+                msgIds.stream()
+                    .map(StreamEntryID::new)
+                    .toArray(StreamEntryID[]::new)
+            );
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            // Send any acks still held back.
+            if (!heldAcks.isEmpty()) {
+                sendAcks(heldAcks);
+                heldAcks.clear();
+            }
+        } finally {
+            jedisPool.close();
+        }
+    }
+
+    @Override
+    public void advancePplOffset(final String streamKey, final String lastMsgId) {
+        streamPositions.put(streamKey, new StreamEntryID(lastMsgId));
+    }
+
+    @Override
+    public void switchToConsumerGroupMessages(final String streamKey) {
+        streamPositions.put(streamKey, StreamEntryID.UNRECEIVED_ENTRY);
+    }
+
+    /**
+     * Number of acks held back to be sent along with the next read.
+     * @return Number of messageIds held.
+     */
+    int getHeldAckCount() {
+        return heldAcks.values().stream()
+            .mapToInt(List::size)
+            .sum();
+    }
+
+    /**
+     * Send acks for any number of streams in a single pipeline.
+     * @param msgIdsByStreamKey Ids of the messages, keyed by the stream they belong to.
+     */
+    private void sendAcks(final Map<String, List<String>> msgIdsByStreamKey) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            final Pipeline pipeline = jedis.pipelined();
+            queueAcks(pipeline, msgIdsByStreamKey);
+            pipeline.sync();
+        }
+    }
+
+    /**
+     * Queue an XACK for each stream onto the pipeline.
+     * @param pipeline Pipeline to queue onto.
+     * @param msgIdsByStreamKey Ids of the messages, keyed by the stream they belong to.
+     */
+    private void queueAcks(final Pipeline pipeline, final Map<String, List<String>> msgIdsByStreamKey) {
+        msgIdsByStreamKey.forEach((streamKey, msgIds) -> {
+            if (!msgIds.isEmpty()) {
+                pipeline.xack(
+                    streamKey,
+                    config.getGroupName(),
+                    msgIds.stream()
+                        .map(StreamEntryID::new)
+                        .toArray(StreamEntryID[]::new)
+                );
+            }
+        });
+    }
+
+    /**
+     * Build stream entries from an XREADGROUP reply, holding each field value as raw bytes until accessed.
+     * @param entriesReply Reply listing the entries read from a stream.
+     * @return Stream entries, with fields held in a {@link CompactMap}.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<StreamEntry> buildRawEntries(final List<Object> entriesReply) {
+        final List<StreamEntry> entries = new ArrayList<>(entriesReply.size());
+        for (final Object entry : entriesReply) {
+            final List<Object> entryReply = (List<Object>) entry;
+            final List<byte[]> fields = (List<byte[]>) entryReply.get(1);
+            entries.add(new StreamEntry(
+                new StreamEntryID(SafeEncoder.encode((byte[]) entryReply.get(0))),
+                // Entries deleted while pending are listed without fields.
+                fields == null ? Collections.emptyMap() : CompactMap.ofRaw(fields)
+            ));
+        }
+        return entries;
+    }
+
+    /**
+     * Build the arguments of an XREADGROUP request reading from every stream.
+     * @param maxCount Maximum number of messages to read from each stream.
+     * @return Arguments.
+     */
+    private String[] xreadGroupArgs(final int maxCount) {
+        final List<String> args = new ArrayList<>(8 + (2 * streamPositions.size()));
+        args.add("GROUP");
+        args.add(config.getGroupName());
+        args.add(consumerId);
+        args.add("COUNT");
+        args.add(String.valueOf(maxCount));
+        if (config.isAtMostOnce()) {
+            args.add("NOACK");
+        }
+        if (config.getConsumerBlockMillis() > 0) {
+            args.add("BLOCK");
+            args.add(String.valueOf(config.getConsumerBlockMillis()));
+        }
+        args.add("STREAMS");
+        args.addAll(streamPositions.keySet());
+        streamPositions.values().forEach((position) -> args.add(position.toString()));
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Retrieve pending entries using XPENDING.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @param consumerName Consumer to retrieve entries for, or NULL for every consumer in the group.
+     * @return Pending entries.
+     */
+    private List<StreamPendingEntry> xpending(
+        final String streamKey,
+        final String startId,
+        final int limit,
+        final String consumerName
+    ) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.xpending(
+                streamKey,
+                config.getGroupName(),
+                // A null start or end is sent as '-' or '+' respectively.
+                "-".equals(startId) ? null : new StreamEntryID(startId),
+                null,
+                limit,
+                consumerName
+            );
+        }
+    }
+}
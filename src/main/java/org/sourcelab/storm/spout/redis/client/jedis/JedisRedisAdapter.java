@@ -4,12 +4,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
 import redis.clients.jedis.StreamEntry;
 import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.StreamPendingEntry;
 import redis.clients.jedis.exceptions.JedisDataException;
 
-import java.util.AbstractMap;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,9 +37,9 @@ public class JedisRedisAdapter implements JedisAdapter {
     private final String consumerId;
 
     /**
-     * Contains the position key to read from.
+     * Contains the position to read from for each stream key.
      */
-    private Map.Entry<String, StreamEntryID> streamPositionKey;
+    private final Map<String, StreamEntryID> streamPositions = new LinkedHashMap<>();
 
     /**
      * Constructor.
@@ -55,30 +57,35 @@ public class JedisRedisAdapter implements JedisAdapter {
     public void connect() {
         jedis.connect();
 
-        // Attempt to create consumer group
-        try {
-            jedis.xgroupCreate(config.getStreamKey(), config.getGroupName(), new StreamEntryID(), true);
-        } catch (final JedisDataException exception) {
-            // Consumer group already exists, that's ok. Just swallow this.
-            logger.debug(
-                "Group {} for key {} already exists? : {}", config.getGroupName(), config.getStreamKey(),
-                exception.getMessage(), exception
-            );
+        for (final String streamKey : config.getStreamKeys()) {
+            // Attempt to create consumer group
+            try {
+                jedis.xgroupCreate(streamKey, config.getGroupName(), new StreamEntryID(), true);
+            } catch (final JedisDataException exception) {
+                // Consumer group already exists, that's ok. Just swallow this.
+                logger.debug(
+                    "Group {} for key {} already exists? : {}", config.getGroupName(), streamKey,
+                    exception.getMessage(), exception
+                );
+            }
+
+            // Default to requesting entries from our personal pending queue.
+            advancePplOffset(streamKey, "0-0");
         }
-
-        // Default to requesting entries from our personal pending queue.
-        advancePplOffset("0-0");
     }
 
     @Override
-    public List<Map.Entry<String, List<StreamEntry>>> consume() {
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public List<Map.Entry<String, List<StreamEntry>>> consume(final int maxCount) {
+        // Generic arrays can't be created directly, the array only ever holds Map.Entry<String, StreamEntryID> instances.
+        final Map.Entry<String, StreamEntryID>[] streams = streamPositions.entrySet().toArray(new Map.Entry[0]);
         final List<Map.Entry<String, List<StreamEntry>>> entries = jedis.xreadGroup(
             config.getGroupName(),
             consumerId,
-            config.getMaxConsumePerRead(),
-            2000L,
-            false,
-            streamPositionKey
+            maxCount,
+            config.getConsumerBlockMillis(),
+            config.isAtMostOnce(),
+            streams
         );
         if (entries == null) {
             return Collections.emptyList();
@@ -86,8 +93,89 @@ public class JedisRedisAdapter implements JedisAdapter {
         return entries;
     }
 
-    public void commit(final String msgId) {
-        jedis.xack(config.getStreamKey(), config.getGroupName(), new StreamEntryID(msgId));
+    @Override
+    public void commit(final String streamKey, final String msgId) {
+        jedis.xack(streamKey, config.getGroupName(), new StreamEntryID(msgId));
+    }
+
+    @Override
+    public void commit(final String streamKey, final List<String> msgIds) {
+        jedis.xack(
+            streamKey,
+            config.getGroupName(),
+            msgIds.stream()
+                .map(StreamEntryID::new)
+                .toArray(StreamEntryID[]::new)
+        );
+    }
+
+    @Override
+    public List<StreamPendingEntry> pending(final String streamKey, final String startId, final int limit) {
+        return xpending(streamKey, startId, limit, consumerId);
+    }
+
+    @Override
+    public List<StreamPendingEntry> groupPending(final String streamKey, final String startId, final int limit) {
+        return xpending(streamKey, startId, limit, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> consumers(final String streamKey) {
+        // Not provided by Jedis.
+        return (List<Object>) jedis.sendCommand(JedisCommand.XINFO, "CONSUMERS", streamKey, config.getGroupName());
+    }
+
+    @Override
+    public void deleteConsumer(final String streamKey, final String consumerId) {
+        // Jedis' xgroupDelConsumer() expects a status reply, but Redis replies with the number of entries discarded.
+        jedis.sendCommand(Protocol.Command.XGROUP, "DELCONSUMER", streamKey, config.getGroupName(), consumerId);
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<StreamEntry> claim(final String streamKey, final long minIdleMillis, final List<String> msgIds) {
+        return jedis.xclaim(
+            streamKey,
+            config.getGroupName(),
+            consumerId,
+            minIdleMillis,
+            0L,
+            0,
+            false,
+            msgIds.stream()
+                .map(StreamEntryID::new)
+                .toArray(StreamEntryID[]::new)
+        );
+    }
+
+    /**
+     * Retrieve pending entries using XPENDING.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @param consumerName Consumer to retrieve entries for, or NULL for every consumer in the group.
+     * @return Pending entries.
+     */
+    private List<StreamPendingEntry> xpending(
+        final String streamKey,
+        final String startId,
+        final int limit,
+        final String consumerName
+    ) {
+        return jedis.xpending(
+            streamKey,
+            config.getGroupName(),
+            // A null start or end is sent as '-' or '+' respectively.
+            "-".equals(startId) ? null : new StreamEntryID(startId),
+            null,
+            limit,
+            consumerName
+        );
     }
 
     @Override
@@ -96,18 +184,12 @@ public class JedisRedisAdapter implements JedisAdapter {
     }
 
     @Override
-    public void advancePplOffset(final String lastMsgId) {
-        streamPositionKey = new AbstractMap.SimpleEntry<>(
-            config.getStreamKey(),
-            new StreamEntryID(lastMsgId)
-        );
+    public void advancePplOffset(final String streamKey, final String lastMsgId) {
+        streamPositions.put(streamKey, new StreamEntryID(lastMsgId));
     }
 
     @Override
-    public void switchToConsumerGroupMessages() {
-        streamPositionKey = new AbstractMap.SimpleEntry<>(
-            config.getStreamKey(),
-            StreamEntryID.UNRECEIVED_ENTRY
-        );
+    public void switchToConsumerGroupMessages(final String streamKey) {
+        streamPositions.put(streamKey, StreamEntryID.UNRECEIVED_ENTRY);
     }
 }
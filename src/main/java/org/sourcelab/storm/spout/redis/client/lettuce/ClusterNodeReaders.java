@@ -0,0 +1,406 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.client.StreamMessageIds;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads streams spread across the nodes of a RedisCluster concurrently, using a dedicated reader thread per node.
+ * Each reader polls the slots owned by its node, handing what it reads over to the consumer thread, so an idle
+ * node's blocking reads never hold up consuming from the others.
+ *
+ * Readers share their own connection, so blocking reads never delay acks or other requests issued by the consumer
+ * thread.  Lettuce follows MOVED and ASK redirects for requests issued while slots migrate, and refreshes its view of
+ * the cluster topology.  Whenever that view changes which node owns a slot, the readers are re-assigned.
+ *
+ * Re-assigning never blocks the consumer thread.  The running readers are asked to stop, and exit once their read
+ * in flight completes.  Only once every one of them has exited, and whatever they read has been collected, are
+ * readers started for the new assignment, so no two readers ever read the same stream at once.
+ */
+class ClusterNodeReaders {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterNodeReaders.class);
+
+    /**
+     * How often to check whether slots have moved between nodes.
+     */
+    private static final long TOPOLOGY_CHECK_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    /**
+     * How long a reader waits before retrying after a failed read.
+     */
+    private static final long ERROR_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    /**
+     * How long a reader waits on a full hand off queue before checking if it should stop.
+     */
+    private static final long HAND_OFF_TIMEOUT_MILLIS = 100L;
+
+    /**
+     * Upper bound on how long to wait for a reader to finish its read in flight when stopping.
+     */
+    private static final long READER_STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * Number of batches each reader may have read ahead of the consumer thread.
+     */
+    private static final int QUEUED_BATCHES_PER_READER = 2;
+
+    /**
+     * Configuration properties for the client.
+     */
+    private final RedisStreamSpoutConfig config;
+
+    /**
+     * Adapter to open the readers' connection from.
+     */
+    private final LettuceClusterAdapter adapter;
+
+    /**
+     * Re-usable instances to prevent unnecessary garbage creation.
+     */
+    private final Consumer<String> consumerFrom;
+    private final XReadArgs xreadArgs;
+    private final XReadArgs nonBlockingXreadArgs;
+
+    /**
+     * Maps between messageIds and the stream entries they refer to.
+     */
+    private final StreamMessageIds messageIds;
+
+    /**
+     * Read positions of each stream, shared with the client.  Each stream is only ever read by one reader at a time.
+     */
+    private final StreamReadState readState;
+
+    /**
+     * Batches read, waiting to be handed over to the consumer thread.
+     */
+    private final BlockingQueue<List<Message>> batches;
+
+    /**
+     * Running readers, and the groups of streams by the id of the node they were assigned to.
+     */
+    private final List<NodeReader> readers = new ArrayList<>();
+    private Map<String, List<List<String>>> assignment = Collections.emptyMap();
+    private long lastTopologyCheckMillis = 0L;
+
+    /**
+     * Readers asked to stop while re-assigning, which have not yet exited.
+     */
+    private final List<NodeReader> stoppingReaders = new ArrayList<>();
+
+    /**
+     * Connection shared by the readers.
+     */
+    private StatefulRedisClusterConnection<String, String> connection;
+
+    /**
+     * Constructor.
+     * @param config Configuration.
+     * @param adapter Adapter to open the readers' connection from.
+     * @param consumerFrom Consumer to read as.
+     * @param messageIds Maps stream entries to messageIds.
+     * @param readState Read positions of each stream.
+     */
+    ClusterNodeReaders(
+        final RedisStreamSpoutConfig config,
+        final LettuceClusterAdapter adapter,
+        final Consumer<String> consumerFrom,
+        final StreamMessageIds messageIds,
+        final StreamReadState readState
+    ) {
+        this.config = Objects.requireNonNull(config);
+        this.adapter = Objects.requireNonNull(adapter);
+        this.consumerFrom = Objects.requireNonNull(consumerFrom);
+        this.messageIds = Objects.requireNonNull(messageIds);
+        this.readState = Objects.requireNonNull(readState);
+
+        xreadArgs = LettuceClient.createXReadArgs(config, true);
+        nonBlockingXreadArgs = LettuceClient.createXReadArgs(config, false);
+
+        // At most one reader per slot.
+        batches = new LinkedBlockingQueue<>(QUEUED_BATCHES_PER_READER * readState.getReadGroups().size());
+    }
+
+    /**
+     * Open the readers' connection and start a reader for each node.
+     */
+    void start() {
+        if (connection != null) {
+            throw new IllegalStateException("Cannot call start more than once!");
+        }
+        connection = adapter.connectReader();
+        lastTopologyCheckMillis = System.currentTimeMillis();
+        startReaders(assignReadGroups());
+    }
+
+    /**
+     * Retrieve the messages read by any of the readers, waiting up to the configured block time if none are available.
+     * @return Messages read, may be empty.
+     */
+    List<Message> nextMessages() {
+        final List<Message> messages = reassignIfTopologyChanged();
+
+        List<Message> batch;
+        try {
+            batch = messages.isEmpty()
+                ? batches.poll(Math.max(0L, config.getConsumerBlockMillis()), TimeUnit.MILLISECONDS)
+                : batches.poll();
+        } catch (final InterruptedException exception) {
+            logger.info("Interrupted waiting for messages from cluster node readers", exception);
+            Thread.currentThread().interrupt();
+            return messages;
+        }
+        while (batch != null) {
+            messages.addAll(batch);
+            batch = batches.poll();
+        }
+        return messages;
+    }
+
+    /**
+     * Stop every reader and close their connection.  Messages read but not yet handed over remain in the
+     * consumer's PPL, and are replayed once reconnected.
+     */
+    void stop() {
+        readers.forEach(NodeReader::requestStop);
+        stoppingReaders.addAll(readers);
+        readers.clear();
+        for (final NodeReader reader : stoppingReaders) {
+            try {
+                reader.thread.join(Math.max(0L, config.getConsumerBlockMillis()) + READER_STOP_TIMEOUT_MILLIS);
+            } catch (final InterruptedException exception) {
+                logger.info("Interrupted waiting for cluster node reader to stop", exception);
+                Thread.currentThread().interrupt();
+            }
+            if (reader.thread.isAlive()) {
+                logger.warn("Timed out waiting for cluster node reader {} to stop.", reader.thread.getName());
+            }
+        }
+        stoppingReaders.clear();
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+
+    /**
+     * Number of running readers.
+     * @return Number of readers.
+     */
+    int getReaderCount() {
+        return readers.size();
+    }
+
+    /**
+     * Periodically check which node owns each slot, re-assigning readers if any have moved.
+     * @return Messages read by the previous readers but not yet handed over, may be empty.
+     */
+    private List<Message> reassignIfTopologyChanged() {
+        // Finish any re-assignment in progress.
+        if (!stoppingReaders.isEmpty()) {
+            return collectStoppedReaders();
+        }
+
+        final long now = System.currentTimeMillis();
+        if (now - lastTopologyCheckMillis < TOPOLOGY_CHECK_INTERVAL_MILLIS) {
+            return new ArrayList<>();
+        }
+        lastTopologyCheckMillis = now;
+
+        final Map<String, List<List<String>>> newAssignment = assignReadGroups();
+        if (newAssignment.equals(assignment)) {
+            return new ArrayList<>();
+        }
+        logger.info("Cluster topology changed, re-assigning readers to nodes {}", newAssignment.keySet());
+        assignment = newAssignment;
+        readers.forEach(NodeReader::requestStop);
+        stoppingReaders.addAll(readers);
+        readers.clear();
+        return collectStoppedReaders();
+    }
+
+    /**
+     * Group the streams by the node currently owning their slot.
+     * @return Groups of streams which can each be read in a single request, by node id.
+     */
+    private Map<String, List<List<String>>> assignReadGroups() {
+        final Map<String, List<List<String>>> groupsByNode = new LinkedHashMap<>();
+        for (final List<String> readGroup : readState.getReadGroups()) {
+            final RedisClusterNode node = connection.getPartitions().getPartitionBySlot(SlotHash.getSlot(readGroup.get(0)));
+            // If no node is known to own the slot yet, read it from any node and let Lettuce follow the redirect.
+            final String nodeId = node == null ? "" : node.getNodeId();
+            groupsByNode.computeIfAbsent(nodeId, (key) -> new ArrayList<>()).add(readGroup);
+        }
+        return groupsByNode;
+    }
+
+    private void startReaders(final Map<String, List<List<String>>> newAssignment) {
+        assignment = newAssignment;
+        newAssignment.forEach((nodeId, readGroups) -> {
+            final NodeReader reader = new NodeReader(readGroups);
+            final Thread thread = new Thread(reader, Thread.currentThread().getName() + "-ClusterReader-" + nodeId);
+            reader.thread = thread;
+            readers.add(reader);
+            thread.start();
+        });
+    }
+
+    /**
+     * Collect what was read by any stopping readers which have since exited, without waiting on those still running.
+     * Once all have exited, starts readers for the current assignment.
+     * @return Messages read but not yet handed over, may be empty.
+     */
+    private List<Message> collectStoppedReaders() {
+        final List<Message> undelivered = new ArrayList<>();
+        final Iterator<NodeReader> iterator = stoppingReaders.iterator();
+        while (iterator.hasNext()) {
+            final NodeReader reader = iterator.next();
+            if (reader.thread.isAlive()) {
+                continue;
+            }
+            iterator.remove();
+
+            // The reader has exited, so its streams' read positions are now only advanced from this thread.
+            readState.advance(reader.streamKeys, reader.undeliveredEntries);
+            undelivered.addAll(reader.undelivered);
+        }
+
+        // Anything already handed over was read before whatever the readers were holding on to.
+        final List<Message> messages = new ArrayList<>();
+        if (!undelivered.isEmpty()) {
+            final List<List<Message>> handedOver = new ArrayList<>();
+            batches.drainTo(handedOver);
+            handedOver.forEach(messages::addAll);
+            messages.addAll(undelivered);
+        }
+
+        if (stoppingReaders.isEmpty()) {
+            startReaders(assignment);
+        }
+        return messages;
+    }
+
+    /**
+     * Reads the slots owned by a single node, handing what it reads over to the consumer thread.
+     */
+    private class NodeReader implements Runnable {
+        private final List<List<String>> readGroups;
+        private final List<String> streamKeys;
+        private volatile boolean shouldStop = false;
+        private Thread thread;
+
+        /**
+         * Entries last read, when asked to stop before they could be handed over, and the messages created from them.
+         * Only accessed by other threads once this reader has exited.
+         */
+        private List<StreamMessage<String, String>> undeliveredEntries = Collections.emptyList();
+        private List<Message> undelivered = Collections.emptyList();
+
+        NodeReader(final List<List<String>> readGroups) {
+            this.readGroups = readGroups;
+            this.streamKeys = readGroups.stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+
+        @Override
+        public void run() {
+            logger.info("Starting to read from {}", streamKeys);
+            final RedisAdvancedClusterCommands<String, String> commands = connection.sync();
+            while (!shouldStop) {
+                final List<StreamMessage<String, String>> entries;
+                try {
+                    entries = read(commands);
+                } catch (final RuntimeException exception) {
+                    logger.error("Failed to read from {}: {}", streamKeys, exception.getMessage(), exception);
+                    if (!pause()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                // Only advance past what was read once handed over, otherwise leave it to be collected once stopped.
+                final List<Message> messages = entries.stream()
+                    .map((streamMsg) -> messageIds.createMessage(streamMsg.getStream(), streamMsg.getId(), streamMsg.getBody()))
+                    .collect(Collectors.toList());
+                if (!handOff(messages)) {
+                    undeliveredEntries = entries;
+                    undelivered = messages;
+                    return;
+                }
+                readState.advance(streamKeys, entries);
+            }
+        }
+
+        /**
+         * One request per slot, only blocking on the last, and only if nothing was read from the others.
+         */
+        private List<StreamMessage<String, String>> read(final RedisAdvancedClusterCommands<String, String> commands) {
+            final List<StreamMessage<String, String>> entries = new ArrayList<>();
+            for (int index = 0; index < readGroups.size(); index++) {
+                final boolean shouldBlock = index == readGroups.size() - 1 && entries.isEmpty();
+                entries.addAll(commands.xreadgroup(
+                    consumerFrom,
+                    shouldBlock ? xreadArgs : nonBlockingXreadArgs,
+                    readState.getOffsets(readGroups.get(index))
+                ));
+            }
+            return entries;
+        }
+
+        /**
+         * Wait for room in the hand off queue.  Nothing needs handing over if nothing was read.
+         * @return false if asked to stop before there was room.
+         */
+        private boolean handOff(final List<Message> messages) {
+            try {
+                while (!shouldStop) {
+                    if (messages.isEmpty() || batches.offer(messages, HAND_OFF_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        /**
+         * Back off after a failed read.
+         * @return false if interrupted.
+         */
+        private boolean pause() {
+            try {
+                Thread.sleep(ERROR_BACKOFF_MILLIS);
+                return true;
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void requestStop() {
+            shouldStop = true;
+        }
+    }
+}
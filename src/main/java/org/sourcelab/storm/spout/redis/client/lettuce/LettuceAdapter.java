@@ -1,11 +1,19 @@
 package org.sourcelab.storm.spout.redis.client.lettuce;
 
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
 import io.lettuce.core.api.sync.RedisStreamCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
 
 /**
  * Adapter to allow usage of both RedisClient and RedisClusterClient.
  */
 public interface LettuceAdapter {
+    /**
+     * Decodes keys into Strings, leaving values as raw bytes.
+     */
+    RedisCodec<String, byte[]> BINARY_VALUE_CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
 
     /**
      * Is the underlying client connected?
@@ -13,6 +21,12 @@ public interface LettuceAdapter {
      */
     boolean isConnected();
 
+    /**
+     * Does the adapter's connection leave values as raw bytes, using {@link LettuceAdapter#BINARY_VALUE_CODEC}.
+     * @return true if values are left as raw bytes, false if decoded into Strings.
+     */
+    boolean hasBinaryValues();
+
     /**
      * Call connect.
      */
@@ -21,9 +35,24 @@ public interface LettuceAdapter {
     /**
      * Get sync Redis Stream Commands instance.
      * @return Available synchronous stream commands.
+     * @throws IllegalStateException if the connection leaves values as raw bytes.
      */
     RedisStreamCommands<String, String> getSyncCommands();
 
+    /**
+     * Get async Redis Stream Commands instance.
+     * @return Available asynchronous stream commands.
+     * @throws IllegalStateException if the connection leaves values as raw bytes.
+     */
+    RedisStreamAsyncCommands<String, String> getAsyncCommands();
+
+    /**
+     * Get sync Redis Stream Commands instance, leaving values as raw bytes.
+     * @return Available synchronous stream commands.
+     * @throws IllegalStateException if the connection decodes values into Strings.
+     */
+    RedisStreamCommands<String, byte[]> getBinarySyncCommands();
+
     /**
      * Call shutdown.
      */
@@ -0,0 +1,328 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.client.Client;
+import org.sourcelab.storm.spout.redis.client.GroupConsumer;
+import org.sourcelab.storm.spout.redis.client.PendingEntry;
+import org.sourcelab.storm.spout.redis.client.StreamMessageIds;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Redis Stream Consumer using the Lettuce RedisLabs java library's asynchronous API.
+ *
+ * Rather than paying a full round trip per XACK, acks are pipelined without waiting on their replies.
+ * Replies are checked as they complete, and any failures logged.
+ *
+ * After a read returns a full batch, suggesting more messages are waiting, the next XREADGROUP is issued
+ * straight away without blocking, so it is in flight while the batch is handed off and its acks are written,
+ * and is only waited on by the following call to {@link #nextMessages(int)}.  A read ahead is sized using the
+ * count of the read before it.  Only done when all streams can be read using a single request.
+ */
+public class LettuceAsyncClient implements Client {
+    private static final Logger logger = LoggerFactory.getLogger(LettuceAsyncClient.class);
+
+    /**
+     * Upper bound on how long to wait for a command reply, on top of any configured read block time.
+     */
+    private static final long COMMAND_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * Maximum number of XACK requests allowed to be outstanding before waiting on the oldest one.
+     */
+    private static final int MAX_OUTSTANDING_ACKS = 128;
+
+    /**
+     * Configuration properties for the client.
+     */
+    private final RedisStreamSpoutConfig config;
+
+    /**
+     * The underlying Redis Client.
+     */
+    private final LettuceAdapter adapter;
+
+    /**
+     * Re-usable instance to prevent unnecessary garbage creation.
+     */
+    private final XReadArgs xreadArgs;
+    private final XReadArgs nonBlockingXreadArgs;
+    private final Consumer<String> consumerFrom;
+
+    /**
+     * Maps between messageIds and the stream entries they refer to.
+     */
+    private final StreamMessageIds messageIds;
+
+    /**
+     * How long to wait on a read reply.
+     */
+    private final long readTimeoutMillis;
+
+    /**
+     * State for consuming first from consumer's personal pending list,
+     * then switching to reading from consumer group messages, tracked for each stream.
+     */
+    private final StreamReadState readState;
+
+    /**
+     * Reads each cluster node's streams concurrently, if enabled.
+     */
+    private ClusterNodeReaders clusterNodeReaders = null;
+
+    /**
+     * XACK requests which have been written, but whose replies have not yet been checked.
+     */
+    private final Deque<RedisFuture<Long>> pendingAcks = new ArrayDeque<>();
+
+    /**
+     * XREADGROUP issued ahead of the next call to read, NULL if none.
+     */
+    private RedisFuture<List<StreamMessage<String, String>>> readAhead = null;
+
+    /**
+     * Constructor.
+     * @param config Configuration.
+     * @param instanceId Which instance number is this running under.
+     */
+    public LettuceAsyncClient(final RedisStreamSpoutConfig config, final int instanceId) {
+        this(
+            config,
+            instanceId,
+            // Determine which adapter to use based on what type of redis instance we are communicating with.
+            LettuceClient.createAdapter(config)
+        );
+    }
+
+    /**
+     * Protected constructor for injecting a RedisClient instance, typically for tests.
+     * @param config Configuration.
+     * @param instanceId Which instance number is this running under.
+     * @param adapter RedisClient instance.
+     */
+    LettuceAsyncClient(final RedisStreamSpoutConfig config, final int instanceId, final LettuceAdapter adapter) {
+        this.config = Objects.requireNonNull(config);
+        this.adapter = Objects.requireNonNull(adapter);
+
+        // Create re-usable xReadArgs objects.
+        xreadArgs = LettuceClient.createXReadArgs(config, true);
+        nonBlockingXreadArgs = LettuceClient.createXReadArgs(config, false);
+        readTimeoutMillis = Math.max(0, config.getConsumerBlockMillis()) + COMMAND_TIMEOUT_MILLIS;
+
+        // Create re-usable ConsumerFrom instance.
+        consumerFrom = Consumer.from(config.getGroupName(), config.getConsumerIdPrefix() + instanceId);
+
+        messageIds = new StreamMessageIds(config);
+        readState = new StreamReadState(config);
+    }
+
+    @Override
+    public void connect() {
+        if (adapter.isConnected()) {
+            throw new IllegalStateException("Cannot call connect more than once!");
+        }
+
+        adapter.connect();
+
+        // Default to consuming from PPL list
+        readState.reset();
+
+        // Attempt to create consumer group
+        LettuceClient.createConsumerGroup(adapter, config);
+
+        // Start reading from each cluster node concurrently, if configured.
+        clusterNodeReaders = LettuceClient.startClusterNodeReaders(adapter, config, consumerFrom, messageIds, readState);
+    }
+
+    @Override
+    public List<Message> nextMessages() {
+        return nextMessages(config.getMaxConsumePerRead());
+    }
+
+    @Override
+    public List<Message> nextMessages(final int maxCount) {
+        // Check on replies to previously written acks.
+        reapCompletedAcks();
+
+        if (clusterNodeReaders != null) {
+            // Readers read ahead independently, bounded by their hand off queue.
+            return clusterNodeReaders.nextMessages();
+        }
+
+        // Size the re-usable read arguments for this read.
+        xreadArgs.count(maxCount);
+        nonBlockingXreadArgs.count(maxCount);
+
+        // Collect the read issued ahead of this call, or issue the read and wait for the reply.
+        final boolean wasReadAhead = readAhead != null;
+        final List<StreamMessage<String, String>> entries;
+        final List<List<String>> readGroups = readState.getReadGroups();
+        if (wasReadAhead) {
+            entries = awaitRead(readAhead);
+            readAhead = null;
+        } else if (readGroups.size() == 1) {
+            entries = awaitRead(issueRead(xreadArgs, readGroups.get(0)));
+        } else {
+            // One request per slot, only blocking on the last, and only if nothing was read from the others.
+            entries = new ArrayList<>();
+            for (int index = 0; index < readGroups.size(); index++) {
+                final boolean shouldBlock = index == readGroups.size() - 1 && entries.isEmpty();
+                entries.addAll(awaitRead(issueRead(shouldBlock ? xreadArgs : nonBlockingXreadArgs, readGroups.get(index))));
+            }
+        }
+
+        // Loop over each message
+        final List<Message> messages = entries.stream()
+            // Map into Message Object
+            .map((streamMsg) -> messageIds.createMessage(streamMsg.getStream(), streamMsg.getId(), streamMsg.getBody()))
+            .collect(Collectors.toList());
+
+        // Advance past messages consumed from PPL, re-attempting consuming if we switched to new messages,
+        // or if reading ahead found nothing, this time blocking.
+        final boolean hasSwitched = readState.advance(entries);
+        if (messages.isEmpty() && (hasSwitched || wasReadAhead)) {
+            return nextMessages(maxCount);
+        }
+
+        // A full batch suggests more messages are waiting, so issue the next read without blocking on it.
+        if (entries.size() >= maxCount && readGroups.size() == 1) {
+            readAhead = issueRead(nonBlockingXreadArgs, readGroups.get(0));
+        }
+        return messages;
+    }
+
+    @Override
+    public void commitMessage(final String msgId) {
+        commitMessages(Collections.singletonList(msgId));
+    }
+
+    @Override
+    public void commitMessages(final List<String> msgIds) {
+        if (msgIds.isEmpty()) {
+            return;
+        }
+
+        // Limit the number of outstanding requests by waiting on the oldest.
+        if (pendingAcks.size() >= MAX_OUTSTANDING_ACKS) {
+            awaitAck(pendingAcks.poll());
+        }
+
+        // Pipeline an XACK per stream, without waiting for the reply.
+        messageIds.groupByStreamKey(msgIds).forEach((streamKey, entryIds) -> pendingAcks.add(
+            adapter.getAsyncCommands().xack(streamKey, config.getGroupName(), entryIds.toArray(new String[0]))
+        ));
+    }
+
+    /**
+     * Issued synchronously on the same connection, so any pipelined acks ahead of it are applied first.
+     */
+    @Override
+    public List<PendingEntry> pendingMessages(final String streamKey, final String startId, final int limit) {
+        return LettuceClient.readPendingEntries(adapter, consumerFrom, streamKey, startId, limit);
+    }
+
+    @Override
+    public List<Message> claimMessages(final String streamKey, final long minIdleMillis, final List<String> entryIds) {
+        return LettuceClient.claimPendingMessages(adapter, consumerFrom, messageIds, streamKey, minIdleMillis, entryIds);
+    }
+
+    @Override
+    public List<PendingEntry> groupPendingMessages(final String streamKey, final String startId, final int limit) {
+        return LettuceClient.readGroupPendingEntries(adapter, config, streamKey, startId, limit);
+    }
+
+    @Override
+    public List<GroupConsumer> groupConsumers(final String streamKey) {
+        return LettuceClient.readGroupConsumers(adapter, config, streamKey);
+    }
+
+    @Override
+    public void removeConsumer(final String streamKey, final String consumerId) {
+        LettuceClient.deleteGroupConsumer(adapter, config, streamKey, consumerId);
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerFrom.getName();
+    }
+
+    @Override
+    public void disconnect() {
+        // Discard any read ahead, its messages remain pending in redis.
+        if (readAhead != null) {
+            readAhead.cancel(true);
+            readAhead = null;
+        }
+
+        // Wait for outstanding acks to complete.
+        while (!pendingAcks.isEmpty()) {
+            awaitAck(pendingAcks.poll());
+        }
+        if (clusterNodeReaders != null) {
+            clusterNodeReaders.stop();
+        }
+        adapter.shutdown();
+    }
+
+    /**
+     * Issue a read from a group of streams, without waiting for the reply.
+     * @param args Arguments to read with.
+     * @param streamKeys Keys of the streams to read.
+     * @return Future for the entries read.
+     */
+    private RedisFuture<List<StreamMessage<String, String>>> issueRead(final XReadArgs args, final List<String> streamKeys) {
+        return adapter.getAsyncCommands().xreadgroup(consumerFrom, args, readState.getOffsets(streamKeys));
+    }
+
+    /**
+     * Wait for the reply to a read.
+     * @param future Future for the XREADGROUP request.
+     * @return Entries read.
+     */
+    private List<StreamMessage<String, String>> awaitRead(final RedisFuture<List<StreamMessage<String, String>>> future) {
+        return LettuceFutures.awaitOrCancel(future, readTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Remove acks which have completed, logging any which failed.
+     */
+    private void reapCompletedAcks() {
+        final Iterator<RedisFuture<Long>> iterator = pendingAcks.iterator();
+        while (iterator.hasNext()) {
+            final RedisFuture<Long> future = iterator.next();
+            if (!future.isDone()) {
+                continue;
+            }
+            iterator.remove();
+            awaitAck(future);
+        }
+    }
+
+    /**
+     * Wait for the ack to complete, logging a failure.
+     * @param future Future for the XACK request.
+     */
+    private void awaitAck(final RedisFuture<Long> future) {
+        try {
+            LettuceFutures.awaitOrCancel(future, COMMAND_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (final RuntimeException exception) {
+            logger.error("Failed to commit messages: {}", exception.getMessage(), exception);
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package org.sourcelab.storm.spout.redis.client.lettuce;
 
+import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.Consumer;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
 import io.lettuce.core.RedisBusyException;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisCommandExecutionException;
 import io.lettuce.core.StreamMessage;
 import io.lettuce.core.XGroupCreateArgs;
 import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.sync.RedisStreamCommands;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
 import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.models.stream.PendingParser;
+import io.lettuce.core.resource.ClientResources;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.storm.spout.redis.Message;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
 import org.sourcelab.storm.spout.redis.client.Client;
+import org.sourcelab.storm.spout.redis.client.GroupConsumer;
+import org.sourcelab.storm.spout.redis.client.PendingEntry;
+import org.sourcelab.storm.spout.redis.client.StreamMessageIds;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +41,11 @@ import java.util.stream.Collectors;
 public class LettuceClient implements Client {
     private static final Logger logger = LoggerFactory.getLogger(LettuceClient.class);
 
+    /**
+     * How often to refresh the view of the RedisCluster's topology.
+     */
+    private static final long TOPOLOGY_REFRESH_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
     /**
      * Configuration properties for the client.
      */
@@ -44,14 +66,24 @@ public class LettuceClient implements Client {
      * Re-usable instance to prevent unnecessary garbage creation.
      */
     private final XReadArgs xreadArgs;
+    private final XReadArgs nonBlockingXreadArgs;
     private final Consumer<String> consumerFrom;
 
+    /**
+     * Maps between messageIds and the stream entries they refer to.
+     */
+    private final StreamMessageIds messageIds;
+
     /**
      * State for consuming first from consumer's personal pending list,
-     * then switching to reading from consumer group messages.
+     * then switching to reading from consumer group messages, tracked for each stream.
      */
-    private boolean hasFinishedPpl = false;
-    private XReadArgs.StreamOffset<String> lastConsumed;
+    private final StreamReadState readState;
+
+    /**
+     * Reads each cluster node's streams concurrently, if enabled.
+     */
+    private ClusterNodeReaders clusterNodeReaders = null;
 
     /**
      * Constructor.
@@ -80,15 +112,15 @@ public class LettuceClient implements Client {
         // Calculate consumerId
         this.consumerId = config.getConsumerIdPrefix() + instanceId;
 
-        // Create re-usable xReadArgs object.
-        xreadArgs = XReadArgs.Builder.noack()
-            // Define limit on number of messages to read per request
-            .count(config.getMaxConsumePerRead())
-            // Require Acks
-            .noack(false);
+        // Create re-usable xReadArgs objects.
+        xreadArgs = createXReadArgs(config, true);
+        nonBlockingXreadArgs = createXReadArgs(config, false);
 
         // Create re-usable ConsumerFrom instance.
         consumerFrom = Consumer.from(config.getGroupName(), consumerId);
+
+        messageIds = new StreamMessageIds(config);
+        readState = new StreamReadState(config);
     }
 
     @Override
@@ -99,15 +131,365 @@ public class LettuceClient implements Client {
 
         adapter.connect();
 
-        // Create re-usable lastConsumed instance, default to consuming from PPL list
-        lastConsumed = XReadArgs.StreamOffset.from(config.getStreamKey(), "0-0");
-        hasFinishedPpl = false;
+        // Default to consuming from PPL list
+        readState.reset();
+
+        // Attempt to create consumer group
+        createConsumerGroup(adapter, config);
+
+        // Start reading from each cluster node concurrently, if configured.
+        clusterNodeReaders = startClusterNodeReaders(adapter, config, consumerFrom, messageIds, readState);
+    }
+
+    @Override
+    public List<Message> nextMessages() {
+        return nextMessages(config.getMaxConsumePerRead());
+    }
+
+    @Override
+    public List<Message> nextMessages(final int maxCount) {
+        if (clusterNodeReaders != null) {
+            // Readers read ahead independently, bounded by their hand off queue.
+            return clusterNodeReaders.nextMessages();
+        }
+
+        // Size the re-usable read arguments for this read.
+        xreadArgs.count(maxCount);
+        nonBlockingXreadArgs.count(maxCount);
+
+        // Get next batch of messages, mapped into Message Objects.
+        final List<? extends StreamMessage<String, ?>> entries;
+        final List<Message> messages;
+        if (config.isBinaryBodiesEnabled()) {
+            final List<StreamMessage<String, byte[]>> binaryEntries = read(adapter.getBinarySyncCommands());
+            messages = binaryEntries.stream()
+                .map((streamMsg) -> messageIds.createRawMessage(streamMsg.getStream(), streamMsg.getId(), streamMsg.getBody()))
+                .collect(Collectors.toList());
+            entries = binaryEntries;
+        } else {
+            final List<StreamMessage<String, String>> stringEntries = read(adapter.getSyncCommands());
+            messages = stringEntries.stream()
+                .map((streamMsg) -> messageIds.createMessage(streamMsg.getStream(), streamMsg.getId(), streamMsg.getBody()))
+                .collect(Collectors.toList());
+            entries = stringEntries;
+        }
+
+        // Advance past messages consumed from PPL, re-attempting consuming if we switched to new messages.
+        if (readState.advance(entries) && messages.isEmpty()) {
+            return nextMessages(maxCount);
+        }
+        return messages;
+    }
+
+    /**
+     * Read the next batch of entries from every stream.
+     * @param commands Commands to read using.
+     * @param <V> Type of values in entry bodies.
+     * @return Entries read.
+     */
+    private <V> List<StreamMessage<String, V>> read(final RedisStreamCommands<String, V> commands) {
+        final List<List<String>> readGroups = readState.getReadGroups();
+        if (readGroups.size() == 1) {
+            return commands.xreadgroup(
+                consumerFrom,
+                xreadArgs,
+                readState.getOffsets(readGroups.get(0))
+            );
+        }
+
+        // One request per slot, only blocking on the last, and only if nothing was read from the others.
+        final List<StreamMessage<String, V>> entries = new ArrayList<>();
+        for (int index = 0; index < readGroups.size(); index++) {
+            final boolean shouldBlock = index == readGroups.size() - 1 && entries.isEmpty();
+            entries.addAll(commands.xreadgroup(
+                consumerFrom,
+                shouldBlock ? xreadArgs : nonBlockingXreadArgs,
+                readState.getOffsets(readGroups.get(index))
+            ));
+        }
+        return entries;
+    }
+
+    @Override
+    public void commitMessage(final String msgId) {
+        // Confirm that the message has been processed using XACK
+        getCommands(adapter).xack(
+            messageIds.getStreamKey(msgId),
+            config.getGroupName(),
+            messageIds.getEntryId(msgId)
+        );
+    }
+
+    @Override
+    public void commitMessages(final List<String> msgIds) {
+        if (msgIds.isEmpty()) {
+            return;
+        }
+
+        // Confirm that all of the messages have been processed using a single XACK per stream
+        messageIds.groupByStreamKey(msgIds).forEach((streamKey, entryIds) -> getCommands(adapter).xack(
+            streamKey,
+            config.getGroupName(),
+            entryIds.toArray(new String[0])
+        ));
+    }
+
+    @Override
+    public List<PendingEntry> pendingMessages(final String streamKey, final String startId, final int limit) {
+        return readPendingEntries(adapter, consumerFrom, streamKey, startId, limit);
+    }
+
+    @Override
+    public List<Message> claimMessages(final String streamKey, final long minIdleMillis, final List<String> entryIds) {
+        return claimPendingMessages(adapter, consumerFrom, messageIds, streamKey, minIdleMillis, entryIds);
+    }
+
+    @Override
+    public List<PendingEntry> groupPendingMessages(final String streamKey, final String startId, final int limit) {
+        return readGroupPendingEntries(adapter, config, streamKey, startId, limit);
+    }
+
+    @Override
+    public List<GroupConsumer> groupConsumers(final String streamKey) {
+        return readGroupConsumers(adapter, config, streamKey);
+    }
+
+    @Override
+    public void removeConsumer(final String streamKey, final String consumerId) {
+        deleteGroupConsumer(adapter, config, streamKey, consumerId);
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerFrom.getName();
+    }
+
+    @Override
+    public void disconnect() {
+        if (clusterNodeReaders != null) {
+            clusterNodeReaders.stop();
+        }
+        adapter.shutdown();
+    }
+
+    /**
+     * Create arguments for reading from the consumer group.
+     * @param config Spout configuration.
+     * @param shouldBlock Block server side waiting for new messages, if configured.
+     * @return XReadArgs instance.
+     */
+    static XReadArgs createXReadArgs(final RedisStreamSpoutConfig config, final boolean shouldBlock) {
+        final XReadArgs xreadArgs = XReadArgs.Builder.noack()
+            // Define limit on number of messages to read per request
+            .count(config.getMaxConsumePerRead())
+            // Require Acks, unless delivering at most once
+            .noack(config.isAtMostOnce());
+
+        // Block server side waiting for new messages, if configured.
+        if (shouldBlock && config.getConsumerBlockMillis() > 0) {
+            xreadArgs.block(config.getConsumerBlockMillis());
+        }
+        return xreadArgs;
+    }
+
+    /**
+     * Retrieve entries from the consumer's pending entries list using XPENDING.
+     * @param adapter Connected adapter instance.
+     * @param consumerFrom Consumer to retrieve pending entries for.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @return Pending entries.
+     */
+    static List<PendingEntry> readPendingEntries(
+        final LettuceAdapter adapter,
+        final Consumer<String> consumerFrom,
+        final String streamKey,
+        final String startId,
+        final int limit
+    ) {
+        final List<Object> result = getCommands(adapter).xpending(
+            streamKey,
+            consumerFrom,
+            Range.create(startId, "+"),
+            Limit.from(limit)
+        );
+        return parsePendingEntries(adapter, result);
+    }
+
+    /**
+     * Retrieve entries from the pending entries lists of every consumer in the group.
+     * @param adapter Adapter to issue the request with.
+     * @param config Configuration.
+     * @param streamKey Key of the stream.
+     * @param startId Id of the first entry to retrieve, inclusive.
+     * @param limit Maximum number of entries to retrieve.
+     * @return Pending entries.
+     */
+    static List<PendingEntry> readGroupPendingEntries(
+        final LettuceAdapter adapter,
+        final RedisStreamSpoutConfig config,
+        final String streamKey,
+        final String startId,
+        final int limit
+    ) {
+        final List<Object> result = getCommands(adapter).xpending(
+            streamKey,
+            config.getGroupName(),
+            Range.create(startId, "+"),
+            Limit.from(limit)
+        );
+        return parsePendingEntries(adapter, result);
+    }
+
+    /**
+     * Retrieve details about every consumer in the group.
+     * @param adapter Adapter to issue the request with.
+     * @param config Configuration.
+     * @param streamKey Key of the stream.
+     * @return Consumers in the group.
+     */
+    static List<GroupConsumer> readGroupConsumers(
+        final LettuceAdapter adapter,
+        final RedisStreamSpoutConfig config,
+        final String streamKey
+    ) {
+        return GroupConsumer.parseXinfoConsumers(
+            getCommands(adapter).xinfoConsumers(streamKey, config.getGroupName())
+        );
+    }
+
+    /**
+     * Remove a consumer from the group.
+     * @param adapter Adapter to issue the request with.
+     * @param config Configuration.
+     * @param streamKey Key of the stream.
+     * @param consumerId Name of the consumer to remove.
+     */
+    static void deleteGroupConsumer(
+        final LettuceAdapter adapter,
+        final RedisStreamSpoutConfig config,
+        final String streamKey,
+        final String consumerId
+    ) {
+        getCommands(adapter).xgroupDelconsumer(
+            streamKey,
+            Consumer.from(config.getGroupName(), consumerId)
+        );
+    }
+
+    private static List<PendingEntry> parsePendingEntries(final LettuceAdapter adapter, final List<Object> result) {
+        // Ids and consumer names are returned as values, so are left as raw bytes by binary connections.
+        return PendingParser.parseRange(adapter.hasBinaryValues() ? decodeRawValues(result) : result)
+            .stream()
+            .map((entry) -> new PendingEntry(
+                entry.getId(), entry.getConsumer(), entry.getMsSinceLastDelivery(), entry.getRedeliveryCount()
+            ))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Decode each raw byte[] value within a reply into a String.
+     * @param values Reply, possibly with nested replies.
+     * @return Copy of the reply, with raw values decoded.
+     */
+    private static List<Object> decodeRawValues(final List<?> values) {
+        final List<Object> decoded = new ArrayList<>(values.size());
+        for (final Object value : values) {
+            if (value instanceof byte[]) {
+                decoded.add(new String((byte[]) value, StandardCharsets.UTF_8));
+            } else if (value instanceof List) {
+                decoded.add(decodeRawValues((List<?>) value));
+            } else {
+                decoded.add(value);
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Get sync Redis Stream Commands instance for commands whose replies don't depend on how values are decoded,
+     * from the adapter's only connection.
+     * @param adapter Connected adapter instance.
+     * @return Available synchronous stream commands.
+     */
+    private static RedisStreamCommands<String, ?> getCommands(final LettuceAdapter adapter) {
+        return adapter.hasBinaryValues() ? adapter.getBinarySyncCommands() : adapter.getSyncCommands();
+    }
 
+    /**
+     * Claim pending messages for the consumer using XCLAIM.
+     * @param adapter Connected adapter instance.
+     * @param consumerFrom Consumer to claim messages for.
+     * @param messageIds Maps stream entries to messageIds.
+     * @param streamKey Key of the stream.
+     * @param minIdleMillis Minimum idle time in milliseconds a message must have to be claimed.
+     * @param entryIds Ids of the entries to claim.
+     * @return Messages claimed.
+     */
+    static List<Message> claimPendingMessages(
+        final LettuceAdapter adapter,
+        final Consumer<String> consumerFrom,
+        final StreamMessageIds messageIds,
+        final String streamKey,
+        final long minIdleMillis,
+        final List<String> entryIds
+    ) {
+        if (entryIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final String[] ids = entryIds.toArray(new String[0]);
+        if (adapter.hasBinaryValues()) {
+            return toClaimedMessages(
+                adapter.getBinarySyncCommands().xclaim(streamKey, consumerFrom, minIdleMillis, ids),
+                (streamMsg) -> messageIds.createRawMessage(streamKey, streamMsg.getId(), streamMsg.getBody())
+            );
+        }
+        return toClaimedMessages(
+            adapter.getSyncCommands().xclaim(streamKey, consumerFrom, minIdleMillis, ids),
+            (streamMsg) -> messageIds.createMessage(streamKey, streamMsg.getId(), streamMsg.getBody())
+        );
+    }
+
+    private static <V> List<Message> toClaimedMessages(
+        final List<StreamMessage<String, V>> entries,
+        final Function<StreamMessage<String, V>, Message> messageFactory
+    ) {
+        return entries
+            .stream()
+            // Entries deleted from the stream while pending have no body.
+            .filter((streamMsg) -> streamMsg != null && streamMsg.getBody() != null)
+            .map(messageFactory)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Create the configured consumer group on each stream, and the streams themselves if they don't already exist.
+     * @param adapter Connected adapter instance.
+     * @param config Spout configuration.
+     */
+    static void createConsumerGroup(final LettuceAdapter adapter, final RedisStreamSpoutConfig config) {
+        for (final String streamKey : config.getStreamKeys()) {
+            createConsumerGroup(adapter, config, streamKey);
+        }
+    }
+
+    /**
+     * Create the configured consumer group, and the stream itself if it doesn't already exist.
+     * @param adapter Connected adapter instance.
+     * @param config Spout configuration.
+     * @param streamKey Key of the stream.
+     */
+    private static void createConsumerGroup(
+        final LettuceAdapter adapter,
+        final RedisStreamSpoutConfig config,
+        final String streamKey
+    ) {
         try {
             // Attempt to create consumer group
-            adapter.getSyncCommands().xgroupCreate(
+            getCommands(adapter).xgroupCreate(
                 // Start the group at first offset for our key.
-                XReadArgs.StreamOffset.from(config.getStreamKey(), "0-0"),
+                XReadArgs.StreamOffset.from(streamKey, "0-0"),
                 // Define the group name
                 config.getGroupName(),
                 // Create the stream if it doesn't already exist.
@@ -117,12 +499,12 @@ public class LettuceClient implements Client {
         }
         catch (final RedisBusyException redisBusyException) {
             // Consumer group already exists, that's ok. Just swallow this.
-            logger.debug("Group {} for key {} already exists.", config.getGroupName(), config.getStreamKey());
+            logger.debug("Group {} for key {} already exists.", config.getGroupName(), streamKey);
         }
         catch (final RedisCommandExecutionException exception) {
             logger.error(
                 "Key {} does not exist or is invalid! {}",
-                config.getStreamKey(), exception.getMessage(), exception
+                streamKey, exception.getMessage(), exception
             );
 
             // Re-throw exception
@@ -130,53 +512,32 @@ public class LettuceClient implements Client {
         }
     }
 
-    @Override
-    public List<Message> nextMessages() {
-        // Get next batch of messages.
-        final List<StreamMessage<String, String>> entries = adapter.getSyncCommands().xreadgroup(
-            consumerFrom,
-            xreadArgs,
-            lastConsumed
-        );
-
-        // Loop over each message
-        final List<Message> messages = entries.stream()
-            // Map into Message Object
-            .map((streamMsg) -> new Message(streamMsg.getId(), streamMsg.getBody()))
-            .collect(Collectors.toList());
-
-        if (!hasFinishedPpl) {
-            if (messages.isEmpty()) {
-                logger.info("Personal Pending List appears empty, switching to consuming from new messages.");
-
-                hasFinishedPpl = true;
-                lastConsumed = XReadArgs.StreamOffset.lastConsumed(config.getStreamKey());
-
-                // Re-attempt consuming
-                return nextMessages();
-            } else {
-                // Advance last index consumed from PPL so we don't continue to replay old messages.
-                final String lastId = messages.get(messages.size() - 1).getId();
-                lastConsumed = XReadArgs.StreamOffset.from(config.getStreamKey(), lastId);
-            }
+    /**
+     * Start reading each cluster node's streams concurrently, if configured and the streams span more than one slot.
+     * @param adapter Connected adapter instance.
+     * @param config Spout configuration.
+     * @param consumerFrom Consumer to read as.
+     * @param messageIds Maps stream entries to messageIds.
+     * @param readState Read positions of each stream.
+     * @return Started readers, or null if not used.
+     */
+    static ClusterNodeReaders startClusterNodeReaders(
+        final LettuceAdapter adapter,
+        final RedisStreamSpoutConfig config,
+        final Consumer<String> consumerFrom,
+        final StreamMessageIds messageIds,
+        final StreamReadState readState
+    ) {
+        if (!config.isClusterNodeReadersEnabled()
+            || !(adapter instanceof LettuceClusterAdapter)
+            || readState.getReadGroups().size() < 2) {
+            return null;
         }
-
-        return messages;
-    }
-
-    @Override
-    public void commitMessage(final String msgId) {
-        // Confirm that the message has been processed using XACK
-        adapter.getSyncCommands().xack(
-            config.getStreamKey(),
-            config.getGroupName(),
-            msgId
+        final ClusterNodeReaders readers = new ClusterNodeReaders(
+            config, (LettuceClusterAdapter) adapter, consumerFrom, messageIds, readState
         );
-    }
-
-    @Override
-    public void disconnect() {
-        adapter.shutdown();
+        readers.start();
+        return readers;
     }
 
     /**
@@ -184,13 +545,49 @@ public class LettuceClient implements Client {
      * @param config Spout configuration.
      * @return Appropriate Adapter.
      */
-    private static LettuceAdapter createAdapter(final RedisStreamSpoutConfig config) {
+    static LettuceAdapter createAdapter(final RedisStreamSpoutConfig config) {
         if (config.isConnectingToCluster()) {
             logger.info("Connecting to RedisCluster at {}", config.getConnectStringMasked());
-            return new LettuceClusterAdapter(RedisClusterClient.create(config.getConnectString()));
         } else {
             logger.info("Connecting to Redis server at {}", config.getConnectStringMasked());
-            return new LettuceRedisAdapter(RedisClient.create(config.getConnectString()));
         }
+
+        // Share clients and their thread pools with the worker's other tasks, if configured.
+        final boolean isShared = config.isSharedClientResourcesEnabled();
+        final AbstractRedisClient redisClient = isShared
+            ? SharedLettuceClients.acquire(config)
+            : createRedisClient(config, null);
+
+        if (config.isConnectingToCluster()) {
+            return new LettuceClusterAdapter((RedisClusterClient) redisClient, isShared, config.isBinaryBodiesEnabled());
+        }
+        return new LettuceRedisAdapter((RedisClient) redisClient, isShared, config.isBinaryBodiesEnabled());
+    }
+
+    /**
+     * Factory method for creating the appropriate client based on configuration.
+     * @param config Spout configuration.
+     * @param clientResources Resources for the client to use, or NULL to create its own.
+     * @return RedisClusterClient if connecting to a RedisCluster, otherwise a RedisClient.
+     */
+    static AbstractRedisClient createRedisClient(final RedisStreamSpoutConfig config, final ClientResources clientResources) {
+        if (!config.isConnectingToCluster()) {
+            return clientResources == null
+                ? RedisClient.create(config.getConnectString())
+                : RedisClient.create(clientResources, config.getConnectString());
+        }
+
+        final RedisClusterClient redisClusterClient = clientResources == null
+            ? RedisClusterClient.create(config.getConnectString())
+            : RedisClusterClient.create(clientResources, config.getConnectString());
+
+        // Keep track of slots moving between nodes, on top of following MOVED and ASK redirects.
+        redisClusterClient.setOptions(ClusterClientOptions.builder()
+            .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                .enablePeriodicRefresh(Duration.ofMillis(TOPOLOGY_REFRESH_PERIOD_MILLIS))
+                .enableAllAdaptiveRefreshTriggers()
+                .build())
+            .build());
+        return redisClusterClient;
     }
 }
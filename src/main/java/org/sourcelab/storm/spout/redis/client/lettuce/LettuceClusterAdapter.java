@@ -1,5 +1,6 @@
 package org.sourcelab.storm.spout.redis.client.lettuce;
 
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
 import io.lettuce.core.api.sync.RedisStreamCommands;
 import io.lettuce.core.cluster.RedisClusterClient;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
@@ -16,19 +17,65 @@ public class LettuceClusterAdapter implements LettuceAdapter {
      */
     private final RedisClusterClient redisClient;
 
+    /**
+     * If the client is shared with other tasks.
+     */
+    private final boolean isShared;
+
+    /**
+     * If the connection leaves values as raw bytes.
+     */
+    private final boolean binaryValues;
+
     /**
      * Underlying connection objects.
      */
     private StatefulRedisClusterConnection<String, String> connection;
     private RedisStreamCommands<String, String> syncCommands;
+    private RedisStreamAsyncCommands<String, String> asyncCommands;
+
+    /**
+     * Connection leaving values as raw bytes, opened instead of the above if configured.
+     */
+    private StatefulRedisClusterConnection<String, byte[]> binaryConnection;
+    private RedisStreamCommands<String, byte[]> binarySyncCommands;
 
     public LettuceClusterAdapter(final RedisClusterClient redisClient) {
+        this(redisClient, false);
+    }
+
+    /**
+     * Constructor.
+     * @param redisClient The underlying Redis Client.
+     * @param isShared If the client was acquired from {@link SharedLettuceClients}, and should be released rather
+     *                 than shut down.
+     */
+    public LettuceClusterAdapter(final RedisClusterClient redisClient, final boolean isShared) {
+        this(redisClient, isShared, false);
+    }
+
+    /**
+     * Constructor.
+     * @param redisClient The underlying Redis Client.
+     * @param isShared If the client was acquired from {@link SharedLettuceClients}, and should be released rather
+     *                 than shut down.
+     * @param binaryValues If the connection should leave values as raw bytes, using {@link LettuceAdapter#BINARY_VALUE_CODEC}
+     *                     for every command.  Only {@link LettuceAdapter#getBinarySyncCommands()} is then available.
+     */
+    public LettuceClusterAdapter(final RedisClusterClient redisClient, final boolean isShared, final boolean binaryValues) {
         this.redisClient = Objects.requireNonNull(redisClient);
+        this.isShared = isShared;
+        this.binaryValues = binaryValues;
+    }
+
+    @Override
+    public boolean hasBinaryValues() {
+        return binaryValues;
     }
 
     @Override
     public boolean isConnected() {
-        return connection != null;
+        return connection != null || binaryConnection != null;
     }
 
     @Override
@@ -36,25 +83,73 @@ public class LettuceClusterAdapter implements LettuceAdapter {
         if (isConnected()) {
             throw new IllegalStateException("Cannot call connect more than once!");
         }
-        connection = redisClient.connect();
+        if (binaryValues) {
+            binaryConnection = redisClient.connect(BINARY_VALUE_CODEC);
+        } else {
+            connection = redisClient.connect();
+        }
+    }
+
+    /**
+     * Open an additional connection to the cluster, independent of the adapter's own.
+     * @return New connection, to be closed by the caller.
+     */
+    public StatefulRedisClusterConnection<String, String> connectReader() {
+        return redisClient.connect();
     }
 
     @Override
     public RedisStreamCommands<String, String> getSyncCommands() {
         if (syncCommands == null) {
-            syncCommands = connection.sync();
+            syncCommands = getConnection().sync();
         }
         return syncCommands;
     }
 
+    @Override
+    public RedisStreamAsyncCommands<String, String> getAsyncCommands() {
+        if (asyncCommands == null) {
+            asyncCommands = getConnection().async();
+        }
+        return asyncCommands;
+    }
+
+    @Override
+    public RedisStreamCommands<String, byte[]> getBinarySyncCommands() {
+        if (binarySyncCommands == null) {
+            if (!binaryValues) {
+                throw new IllegalStateException("Connection decodes values into Strings, use getSyncCommands().");
+            }
+            binarySyncCommands = binaryConnection.sync();
+        }
+        return binarySyncCommands;
+    }
+
+    private StatefulRedisClusterConnection<String, String> getConnection() {
+        if (binaryValues) {
+            throw new IllegalStateException("Connection leaves values as raw bytes, use getBinarySyncCommands().");
+        }
+        return connection;
+    }
+
     @Override
     public void shutdown() {
-        // Close our connection and shutdown.
+        // Close our connections and shutdown.
+        if (binaryConnection != null) {
+            binarySyncCommands = null;
+            binaryConnection.close();
+            binaryConnection = null;
+        }
         if (connection != null) {
             syncCommands = null;
+            asyncCommands = null;
             connection.close();
             connection = null;
         }
-        redisClient.shutdown();
+        if (isShared) {
+            SharedLettuceClients.release(redisClient);
+        } else {
+            redisClient.shutdown();
+        }
     }
 }
@@ -0,0 +1,131 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Worker scoped, reference counted Lettuce clients, shared by every spout task in the worker.
+ *
+ * Each Lettuce client otherwise builds its own ClientResources, with their own event loop and computation thread
+ * pools.  Tasks connecting to the same Redis instance or RedisCluster with the same thread pool sizes share a single
+ * client, and every client with the same thread pool sizes shares a single ClientResources.  Each is shut down once
+ * the last task using it has released it.
+ */
+final class SharedLettuceClients {
+    private static final Logger logger = LoggerFactory.getLogger(SharedLettuceClients.class);
+
+    /**
+     * Shared ClientResources, keyed by thread pool sizes.
+     */
+    private static final Map<String, RefCounted<ClientResources>> resourcesByKey = new HashMap<>();
+
+    /**
+     * Shared clients, keyed by connect string and thread pool sizes.
+     */
+    private static final Map<String, RefCounted<AbstractRedisClient>> clientsByKey = new HashMap<>();
+
+    /**
+     * Key each shared client was created under.
+     */
+    private static final Map<AbstractRedisClient, String> keysByClient = new IdentityHashMap<>();
+
+    private SharedLettuceClients() {
+    }
+
+    /**
+     * Acquire the shared client for the configured Redis instance or RedisCluster, creating it if needed.
+     * Must be released using {@link SharedLettuceClients#release(AbstractRedisClient)} once no longer used.
+     * @param config Spout configuration.
+     * @return Shared client, a RedisClusterClient if connecting to a RedisCluster, otherwise a RedisClient.
+     */
+    static synchronized AbstractRedisClient acquire(final RedisStreamSpoutConfig config) {
+        final String resourcesKey = config.getIoThreadPoolSize() + "/" + config.getComputationThreadPoolSize();
+        final String clientKey = config.getConnectString() + "#" + resourcesKey;
+
+        RefCounted<AbstractRedisClient> client = clientsByKey.get(clientKey);
+        if (client == null) {
+            final ClientResources resources = acquireResources(resourcesKey, config);
+            client = new RefCounted<>(LettuceClient.createRedisClient(config, resources));
+            clientsByKey.put(clientKey, client);
+            keysByClient.put(client.value, clientKey);
+            logger.info("Created shared client for {}", config.getConnectStringMasked());
+        }
+        client.references++;
+        return client.value;
+    }
+
+    /**
+     * Release a shared client, shutting it down once every task using it has released it.
+     * @param redisClient Client previously acquired.
+     */
+    static synchronized void release(final AbstractRedisClient redisClient) {
+        final String clientKey = keysByClient.get(Objects.requireNonNull(redisClient));
+        if (clientKey == null) {
+            throw new IllegalStateException("Client was not acquired from the shared clients");
+        }
+
+        final RefCounted<AbstractRedisClient> client = clientsByKey.get(clientKey);
+        if (--client.references > 0) {
+            return;
+        }
+        clientsByKey.remove(clientKey);
+        keysByClient.remove(redisClient);
+        redisClient.shutdown();
+
+        // Release the client's resources.
+        final String resourcesKey = clientKey.substring(clientKey.lastIndexOf('#') + 1);
+        final RefCounted<ClientResources> resources = resourcesByKey.get(resourcesKey);
+        if (--resources.references == 0) {
+            resourcesByKey.remove(resourcesKey);
+            resources.value.shutdown();
+        }
+    }
+
+    /**
+     * Number of tasks holding the shared client.
+     * @param redisClient Client previously acquired.
+     * @return Number of references, 0 if shut down.
+     */
+    static synchronized int getReferenceCount(final AbstractRedisClient redisClient) {
+        final String clientKey = keysByClient.get(redisClient);
+        return clientKey == null ? 0 : clientsByKey.get(clientKey).references;
+    }
+
+    private static ClientResources acquireResources(final String resourcesKey, final RedisStreamSpoutConfig config) {
+        RefCounted<ClientResources> resources = resourcesByKey.get(resourcesKey);
+        if (resources == null) {
+            final DefaultClientResources.Builder builder = DefaultClientResources.builder();
+            if (config.getIoThreadPoolSize() > 0) {
+                builder.ioThreadPoolSize(config.getIoThreadPoolSize());
+            }
+            if (config.getComputationThreadPoolSize() > 0) {
+                builder.computationThreadPoolSize(config.getComputationThreadPoolSize());
+            }
+            resources = new RefCounted<>(builder.build());
+            resourcesByKey.put(resourcesKey, resources);
+        }
+        resources.references++;
+        return resources.value;
+    }
+
+    /**
+     * A shared value along with the number of references held to it.
+     */
+    private static class RefCounted<T> {
+        private final T value;
+        private int references = 0;
+
+        RefCounted(final T value) {
+            this.value = value;
+        }
+    }
+}
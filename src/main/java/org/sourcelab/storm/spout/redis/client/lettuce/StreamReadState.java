@@ -0,0 +1,144 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.cluster.SlotHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks where to read each stream from, consuming first from the consumer's personal pending list,
+ * then switching to reading from consumer group messages.
+ *
+ * Each stream is expected to be read and advanced from only one thread at a time, either the consumer thread,
+ * or the cluster node reader its key is assigned to.
+ */
+class StreamReadState {
+    private static final Logger logger = LoggerFactory.getLogger(StreamReadState.class);
+
+    /**
+     * Stream keys grouped so each group can be read using a single XREADGROUP request.  When talking to
+     * a RedisCluster a request may only read keys which hash to the same slot, so keys are grouped by slot.
+     */
+    private final List<List<String>> readGroups;
+
+    /**
+     * Keys of every stream being read.
+     */
+    private final List<String> streamKeys;
+
+    /**
+     * Should streams start out consuming from their PPL.
+     */
+    private final boolean replayPendingList;
+
+    /**
+     * Position to read each stream from.
+     */
+    private final Map<String, XReadArgs.StreamOffset<String>> offsets = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param config Spout configuration.
+     */
+    StreamReadState(final RedisStreamSpoutConfig config) {
+        streamKeys = config.getStreamKeys();
+        replayPendingList = !config.isAtMostOnce();
+        if (config.isConnectingToCluster()) {
+            readGroups = new ArrayList<>(
+                config.getStreamKeys()
+                    .stream()
+                    .collect(Collectors.groupingBy(SlotHash::getSlot, LinkedHashMap::new, Collectors.toList()))
+                    .values()
+            );
+        } else {
+            readGroups = Collections.singletonList(config.getStreamKeys());
+        }
+        reset();
+    }
+
+    /**
+     * Reset every stream to consuming from the start of its PPL.  When delivering at most once, straight to
+     * consuming new messages, as anything left in the PPL may already have been delivered.
+     */
+    void reset() {
+        offsets.clear();
+        for (final String streamKey : streamKeys) {
+            offsets.put(
+                streamKey,
+                replayPendingList ? XReadArgs.StreamOffset.from(streamKey, "0-0") : XReadArgs.StreamOffset.lastConsumed(streamKey)
+            );
+        }
+    }
+
+    List<List<String>> getReadGroups() {
+        return readGroups;
+    }
+
+    /**
+     * Positions to read the group of streams from.
+     * @param streamKeys Keys of the streams to read.
+     * @return Offsets for each stream.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    XReadArgs.StreamOffset<String>[] getOffsets(final List<String> streamKeys) {
+        // Generic arrays can't be created directly, the array only ever holds StreamOffset<String> instances.
+        final XReadArgs.StreamOffset<String>[] streamOffsets =
+            (XReadArgs.StreamOffset<String>[]) new XReadArgs.StreamOffset[streamKeys.size()];
+        for (int index = 0; index < streamOffsets.length; index++) {
+            streamOffsets[index] = offsets.get(streamKeys.get(index));
+        }
+        return streamOffsets;
+    }
+
+    /**
+     * Update the read positions after reading every stream.
+     * @param entries Entries read.
+     * @return true if any stream switched from consuming its PPL.
+     */
+    boolean advance(final List<? extends StreamMessage<String, ?>> entries) {
+        return advance(streamKeys, entries);
+    }
+
+    /**
+     * Update the read positions after reading the given streams.  Streams still consuming from their PPL advance past
+     * the last entry read, or switch to consuming new messages once their PPL appears empty.
+     * @param readStreamKeys Keys of the streams which were read.
+     * @param entries Entries read.
+     * @return true if any stream switched from consuming its PPL.
+     */
+    boolean advance(final List<String> readStreamKeys, final List<? extends StreamMessage<String, ?>> entries) {
+        // Find the last entry read from each stream.
+        final Map<String, String> lastIds = new HashMap<>();
+        for (final StreamMessage<String, ?> entry : entries) {
+            lastIds.put(entry.getStream(), entry.getId());
+        }
+
+        boolean hasSwitched = false;
+        for (final String streamKey : readStreamKeys) {
+            if (">".equals(offsets.get(streamKey).getOffset())) {
+                continue;
+            }
+            final String lastId = lastIds.get(streamKey);
+            if (lastId == null) {
+                logger.info("Personal Pending List of {} appears empty, switching to consuming from new messages.", streamKey);
+                offsets.put(streamKey, XReadArgs.StreamOffset.lastConsumed(streamKey));
+                hasSwitched = true;
+            } else {
+                // Advance last index consumed from PPL so we don't continue to replay old messages.
+                offsets.put(streamKey, XReadArgs.StreamOffset.from(streamKey, lastId));
+            }
+        }
+        return hasSwitched;
+    }
+}
@@ -6,19 +6,20 @@ import org.sourcelab.storm.spout.redis.FailureHandler;
 import org.sourcelab.storm.spout.redis.Message;
 
 import java.time.Clock;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
-import java.util.TreeMap;
 
 /**
  * Will re-attempt playing previously failed messages after an exponential back off period.
  */
 public class ExponentialBackoffFailureHandler implements FailureHandler {
+    /**
+     * Number of one millisecond slots in the retry timing wheel.
+     */
+    private static final int TIMING_WHEEL_SIZE = 4096;
+
     /**
      * Configuration properties.
      */
@@ -36,10 +37,9 @@ public class ExponentialBackoffFailureHandler implements FailureHandler {
     private transient Map<String, Integer> numberOfTimesFailed;
 
     /**
-     * This is a sorted Tree of timestamps, where each timestamp points to a queue of
-     * failed messages.
+     * Schedules failed messages, keyed by messageId, to be replayed at their retry timestamp.
      */
-    private transient TreeMap<Long, Queue<Message>> failedMessages;
+    private transient HashedTimingWheel<String, Message> failedMessages;
 
     /**
      * Handles recording metrics.
@@ -65,7 +65,7 @@ public class ExponentialBackoffFailureHandler implements FailureHandler {
     @Override
     public void open(final Map<String, Object> stormConfig, final TopologyContext topologyContext) {
         numberOfTimesFailed = new HashMap<>();
-        failedMessages = new TreeMap<>();
+        failedMessages = new HashedTimingWheel<>(TIMING_WHEEL_SIZE);
         if (clock == null) {
             clock = Clock.systemUTC();
         }
@@ -108,20 +108,11 @@ public class ExponentialBackoffFailureHandler implements FailureHandler {
         additionalTime = Long.min(additionalTime, config.getRetryDelayMaxMs());
 
         // Calculate the timestamp for the retry.
-        final long retryTimestamp = clock.millis() + additionalTime;
-
-        // Clear queues of previous fails.
-        if (failCount > 1) {
-            for (final Queue queue : failedMessages.values()) {
-                if (queue.remove(message)) {
-                    break;
-                }
-            }
-        }
+        final long now = clock.millis();
+        final long retryTimestamp = now + additionalTime;
 
-        // Get / Create the queue for this timestamp and append our message.
-        final Queue<Message> queue = failedMessages.computeIfAbsent(retryTimestamp, k -> new LinkedList<>());
-        queue.add(message);
+        // Schedule the retry, replacing any previous schedule for this message.
+        failedMessages.schedule(messageId, message, retryTimestamp, now);
 
          // Return value of true
         return true;
@@ -138,39 +129,14 @@ public class ExponentialBackoffFailureHandler implements FailureHandler {
 
     @Override
     public Message getMessage() {
-        // If we have no queues
-        if (failedMessages.isEmpty()) {
+        // If we have nothing scheduled
+        if (failedMessages.size() == 0) {
             // Then nothing to return
             return null;
         }
 
-        // Grab current timestamp
-        final long now = clock.millis();
-
-        // Grab the lowest key from the sorted map.
-        final Map.Entry<Long, Queue<Message>> entry = failedMessages.firstEntry();
-        if (entry == null) {
-            return null;
-        }
-
-        final long lowestTimestampKey = entry.getKey();
-        final Queue<Message> queue = entry.getValue();
-
-        // Determine if the key (timestamp) has expired or not
-        // Here we define 'expired' as having a timestamp less than or equal to now.
-        if (lowestTimestampKey > now) {
-            // Nothing has expired.
-            return null;
-        }
-
-        // Grab next message from the queue.
-        final Message message = queue.poll();
-
-        // If our queue is empty after popping this message
-        if (queue.isEmpty()) {
-            // Lets cleanup and remove the queue.
-            failedMessages.remove(lowestTimestampKey);
-        }
+        // Grab next message whose retry timestamp is less than or equal to now.
+        final Message message = failedMessages.poll(clock.millis());
 
         // Return the message, which may be null
         if (message != null) {
@@ -218,7 +184,7 @@ public class ExponentialBackoffFailureHandler implements FailureHandler {
     /**
      * Protected accessor for validation within tests.
      */
-    TreeMap<Long, Queue<Message>> getFailedMessages() {
+    HashedTimingWheel<String, Message> getFailedMessages() {
         return failedMessages;
     }
 
@@ -252,15 +218,11 @@ public class ExponentialBackoffFailureHandler implements FailureHandler {
          * @param topologyContext to register metrics.
          * @param retryQueue Our internal retry queue to collect size data.
          */
-        public MetricHandler(final TopologyContext topologyContext, final TreeMap<Long, Queue<Message>> retryQueue) {
+        public MetricHandler(final TopologyContext topologyContext, final HashedTimingWheel<String, Message> retryQueue) {
             metricExceededRetryLimitCount = topologyContext.registerCounter("failureHandler_exceededRetryLimit");
             metricRetriedMessagesCount = topologyContext.registerCounter("failureHandler_retriedMessages");
             metricSuccessfulRetriedMessagesCounter = topologyContext.registerCounter("failureHandler_successfulRetriedMessages");
-            topologyContext.registerGauge("failureHandler_queuedForRetry", () ->
-                retryQueue.values().stream()
-                .mapToLong(Collection::size)
-                .sum()
-            );
+            topologyContext.registerGauge("failureHandler_queuedForRetry", retryQueue::size);
         }
 
         public void incrExceededRetryLimitCounter() {
@@ -0,0 +1,263 @@
+package org.sourcelab.storm.spout.redis.failhandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Schedules values to become available once their deadline has passed, using a hashed timing wheel.
+ *
+ * The wheel is a fixed ring of one millisecond slots, each holding a linked list of entries whose deadline
+ * falls on that slot in this or a later rotation.  As time advances the slots passed over are swept, moving
+ * entries whose deadline has passed onto a ready list in deadline order.  An index of key to entry allows
+ * entries to be rescheduled or removed without searching.
+ *
+ * Scheduling, rescheduling, removing and polling are O(1), aside from sweeping the slots time has passed over,
+ * which is bounded by the size of the wheel.  Memory is the fixed ring plus one node per scheduled entry.
+ *
+ * Not thread safe, expected to be accessed only from a single thread.
+ *
+ * @param <K> Type of key identifying each entry.
+ * @param <V> Type of value scheduled.
+ */
+class HashedTimingWheel<K, V> {
+    /**
+     * Slot value for entries on the ready list.
+     */
+    private static final int READY = -1;
+
+    /**
+     * Head and tail of the entry list for each slot.
+     */
+    private final Node<K, V>[] heads;
+    private final Node<K, V>[] tails;
+    private final int mask;
+
+    /**
+     * Entries whose deadline has passed, in the order they expired.
+     */
+    private Node<K, V> readyHead;
+    private Node<K, V> readyTail;
+
+    /**
+     * Index of every scheduled or ready entry by key.
+     */
+    private final Map<K, Node<K, V>> index = new HashMap<>();
+
+    /**
+     * The next tick (millisecond timestamp) to be swept.
+     */
+    private long cursor = 0L;
+
+    /**
+     * Constructor.
+     * @param wheelSize Number of one millisecond slots in the wheel, rounded up to a power of two.
+     */
+    HashedTimingWheel(final int wheelSize) {
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("Wheel size must be at least 1.");
+        }
+        final int size = 1 << (32 - Integer.numberOfLeadingZeros(wheelSize - 1));
+        this.heads = newSlots(size);
+        this.tails = newSlots(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedule a value to become available once the deadline has passed.
+     * If the key is already scheduled, it is rescheduled with the new value and deadline.
+     * @param key Key identifying the entry.
+     * @param value Value to make available.
+     * @param deadlineMillis Timestamp in milliseconds at which the value becomes available.
+     * @param nowMillis Current timestamp in milliseconds.
+     */
+    void schedule(final K key, final V value, final long deadlineMillis, final long nowMillis) {
+        Node<K, V> node = index.get(key);
+        if (node != null) {
+            unlink(node);
+        } else {
+            // Nothing scheduled, so there is nothing to sweep before now.
+            if (index.isEmpty()) {
+                cursor = nowMillis;
+            }
+            node = new Node<>(key);
+            index.put(key, node);
+        }
+        node.value = value;
+        node.deadline = deadlineMillis;
+
+        if (deadlineMillis < cursor) {
+            // Its slot has already been swept, so it is ready now.
+            append(node, READY);
+        } else {
+            append(node, (int) (deadlineMillis & mask));
+        }
+    }
+
+    /**
+     * Remove the next value whose deadline has passed.
+     * @param nowMillis Current timestamp in milliseconds.
+     * @return Value, or NULL if none have passed their deadline.
+     */
+    V poll(final long nowMillis) {
+        if (readyHead == null) {
+            if (index.isEmpty()) {
+                return null;
+            }
+            advance(nowMillis);
+        }
+
+        final Node<K, V> node = readyHead;
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        index.remove(node.key);
+        return node.value;
+    }
+
+    /**
+     * Remove a scheduled entry.
+     * @param key Key identifying the entry.
+     * @return true if an entry was removed.
+     */
+    boolean remove(final K key) {
+        final Node<K, V> node = index.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Determine if an entry is scheduled or ready.
+     * @param key Key identifying the entry.
+     * @return true if an entry exists for the key.
+     */
+    boolean contains(final K key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Deadline of a scheduled entry.
+     * @param key Key identifying the entry.
+     * @return Deadline in milliseconds, or NULL if no entry exists for the key.
+     */
+    Long getDeadline(final K key) {
+        final Node<K, V> node = index.get(key);
+        if (node == null) {
+            return null;
+        }
+        return node.deadline;
+    }
+
+    /**
+     * Number of entries scheduled or ready.
+     * @return Number of entries.
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Sweep the slots for each tick from the cursor up to now, moving entries whose deadline has passed
+     * onto the ready list.  If more than a full rotation has passed, each slot is swept once in the order of
+     * the most recent rotation, so entries overdue by more than a rotation are only approximately ordered.
+     * @param nowMillis Current timestamp in milliseconds.
+     */
+    private void advance(final long nowMillis) {
+        if (nowMillis < cursor) {
+            return;
+        }
+        final long start = Math.max(cursor, nowMillis - heads.length + 1);
+        for (long tick = start; tick <= nowMillis; tick++) {
+            final int slot = (int) (tick & mask);
+
+            Node<K, V> node = heads[slot];
+            while (node != null) {
+                final Node<K, V> next = node.next;
+                if (node.deadline <= nowMillis) {
+                    unlink(node);
+                    append(node, READY);
+                }
+                node = next;
+            }
+        }
+        cursor = nowMillis + 1;
+    }
+
+    /**
+     * Append the node to the end of a slot's list, or the ready list.
+     */
+    private void append(final Node<K, V> node, final int slot) {
+        node.slot = slot;
+        node.next = null;
+        if (slot == READY) {
+            node.prev = readyTail;
+            if (readyTail == null) {
+                readyHead = node;
+            } else {
+                readyTail.next = node;
+            }
+            readyTail = node;
+        } else {
+            node.prev = tails[slot];
+            if (tails[slot] == null) {
+                heads[slot] = node;
+            } else {
+                tails[slot].next = node;
+            }
+            tails[slot] = node;
+        }
+    }
+
+    /**
+     * Unlink the node from whichever list it is on.
+     */
+    private void unlink(final Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else if (node.slot == READY) {
+            readyHead = node.next;
+        } else {
+            heads[node.slot] = node.next;
+        }
+
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else if (node.slot == READY) {
+            readyTail = node.prev;
+        } else {
+            tails[node.slot] = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * Create an array of slots.
+     * @param size Number of slots.
+     * @return Empty slots.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static <K, V> Node<K, V>[] newSlots(final int size) {
+        // Generic arrays can't be created directly, the array only ever holds Node<K, V> instances.
+        return (Node<K, V>[]) new Node[size];
+    }
+
+    /**
+     * Entry in the wheel.
+     */
+    private static final class Node<K, V> {
+        private final K key;
+        private V value;
+        private long deadline;
+        private int slot;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(final K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.sourcelab.storm.spout.redis.failhandler;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for {@link PendingListFailureHandler}.
+ */
+public class PendingListConfig implements Serializable {
+    /**
+     * Define our retry limit.
+     * A value of less than 0 will mean we'll retry forever
+     * A value of 0 means we'll never retry.
+     * A value of greater than 0 sets an upper bound of number of retries.
+     */
+    private final int retryLimit;
+
+    /**
+     * How long a message must sit unacknowledged after its first delivery before being retried, in milliseconds.
+     */
+    private final long initialRetryDelayMs;
+
+    /**
+     * Each time a message is redelivered, multiply the delay by this amount.
+     */
+    private final double retryDelayMultiplier;
+
+    /**
+     * Maximum delay between successive retries.
+     */
+    private final long retryDelayMaxMs;
+
+    /**
+     * Longest a message may wait within the spout after being read, before it is emitted, in milliseconds.
+     */
+    private final long maxQueueingDelayMs;
+
+    /**
+     * How often to check the pending entries list for messages to retry, in milliseconds.
+     */
+    private final long reclaimIntervalMs;
+
+    /**
+     * Maximum number of pending entries to inspect on each check.
+     */
+    private final int reclaimBatchSize;
+
+    /**
+     * Enable/Disable flag for collecting metrics.
+     * Defaults to enabled.
+     */
+    private final boolean metricsEnabled;
+
+    /**
+     * Constructor.
+     * See {@link Builder} instance.
+     *
+     * @param retryLimit How many times to attempt to retry a failed message. Defaults to 10.
+     * @param initialRetryDelayMs Idle time before the first retry, in milliseconds. Defaults to 60000.
+     * @param retryDelayMultiplier At what rate to delay messages that continue to fail.  Defaults to 2.0.
+     * @param retryDelayMaxMs Maximum cap on time delay for failed messages.  Defaults to 15 minutes.
+     * @param maxQueueingDelayMs Longest a message may wait within the spout before being emitted.  Defaults to 10000.
+     * @param reclaimIntervalMs How often to check for messages to retry, in milliseconds.  Defaults to 1000.
+     * @param reclaimBatchSize Maximum number of pending entries to inspect on each check.  Defaults to 512.
+     * @param metricsEnabled If true, metrics will be published about failed messages.
+     */
+    public PendingListConfig(
+        final int retryLimit,
+        final long initialRetryDelayMs,
+        final double retryDelayMultiplier,
+        final long retryDelayMaxMs,
+        final long maxQueueingDelayMs,
+        final long reclaimIntervalMs,
+        final int reclaimBatchSize,
+        final boolean metricsEnabled
+    ) {
+        this.retryLimit = retryLimit;
+        this.initialRetryDelayMs = initialRetryDelayMs;
+        this.retryDelayMultiplier = retryDelayMultiplier;
+        this.retryDelayMaxMs = retryDelayMaxMs;
+        this.maxQueueingDelayMs = maxQueueingDelayMs;
+        this.reclaimIntervalMs = reclaimIntervalMs;
+        this.reclaimBatchSize = reclaimBatchSize;
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * New Builder instance for PendingListConfig.
+     * @return New Builder instance for PendingListConfig.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Create a new default configuration.
+     * @return Default configuration.
+     */
+    public static PendingListConfig defaultConfig() {
+        return new Builder().build();
+    }
+
+    public int getRetryLimit() {
+        return retryLimit;
+    }
+
+    public long getInitialRetryDelayMs() {
+        return initialRetryDelayMs;
+    }
+
+    public double getRetryDelayMultiplier() {
+        return retryDelayMultiplier;
+    }
+
+    public long getRetryDelayMaxMs() {
+        return retryDelayMaxMs;
+    }
+
+    public long getMaxQueueingDelayMs() {
+        return maxQueueingDelayMs;
+    }
+
+    public long getReclaimIntervalMs() {
+        return reclaimIntervalMs;
+    }
+
+    public int getReclaimBatchSize() {
+        return reclaimBatchSize;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * How long a message which has been delivered the given number of times must sit idle before being retried.
+     * @param deliveryCount Number of times the message has been delivered.
+     * @return Delay in milliseconds.
+     */
+    public long getRetryDelayMs(final long deliveryCount) {
+        final long delay = (long) (initialRetryDelayMs * Math.pow(retryDelayMultiplier, Math.max(0, deliveryCount - 1)));
+        return Long.min(delay, retryDelayMaxMs);
+    }
+
+    @Override
+    public String toString() {
+        return "PendingListConfig{"
+            + "retryLimit=" + retryLimit
+            + ", initialRetryDelayMs=" + initialRetryDelayMs
+            + ", retryDelayMultiplier=" + retryDelayMultiplier
+            + ", retryDelayMaxMs=" + retryDelayMaxMs
+            + ", maxQueueingDelayMs=" + maxQueueingDelayMs
+            + ", reclaimIntervalMs=" + reclaimIntervalMs
+            + ", reclaimBatchSize=" + reclaimBatchSize
+            + ", metricsEnabled=" + metricsEnabled
+            + '}';
+    }
+
+    /**
+     * Builder for {@link PendingListConfig}.
+     */
+    public static final class Builder {
+        /**
+         * Default retry limit is 10 attempts.
+         */
+        private int retryLimit = 10;
+
+        /**
+         * The first time a message has failed, defines the minimum delay.
+         * Default initial delay is 60 seconds, twice Storm's default message timeout.
+         */
+        private long initialRetryDelayMs = TimeUnit.SECONDS.toMillis(60);
+
+        /**
+         * Default multiplier to 2.0.
+         * This default value gives us an exponential backoff rate.
+         */
+        private double retryDelayMultiplier = 2.0;
+
+        /**
+         * Upperbound that we'll limit retries within.
+         * Defaults to a max of 15 minutes.
+         */
+        private long retryDelayMaxMs = TimeUnit.MINUTES.toMillis(15);
+
+        /**
+         * Messages are assumed to wait at most 10 seconds within the spout before being emitted.
+         */
+        private long maxQueueingDelayMs = TimeUnit.SECONDS.toMillis(10);
+
+        /**
+         * Check for messages to retry every second.
+         */
+        private long reclaimIntervalMs = TimeUnit.SECONDS.toMillis(1);
+
+        /**
+         * Inspect up to 512 pending entries per check.
+         */
+        private int reclaimBatchSize = 512;
+
+        /**
+         * Enable/Disable flag for collecting metrics.
+         * Defaults to enabled.
+         */
+        private boolean metricsEnabled = true;
+
+        private Builder() {
+        }
+
+        public Builder withRetryForever() {
+            return withRetryLimit(-1);
+        }
+
+        public Builder withRetryNever() {
+            return withRetryLimit(0);
+        }
+
+        public Builder withRetryLimit(int retryLimit) {
+            this.retryLimit = retryLimit;
+            return this;
+        }
+
+        public Builder withInitialRetryDelay(final Duration duration) {
+            Objects.requireNonNull(duration);
+            return withInitialRetryDelayMs(duration.toMillis());
+        }
+
+        /**
+         * Define how long a message must sit unacknowledged after its first delivery before it is retried.
+         *
+         * Redis can't tell failed messages apart from those still waiting in the spout or being processed by the
+         * topology, as neither has been acked.  Any message idle for longer than this delay is claimed and emitted
+         * again under the same messageId, so a message still in flight would be delivered twice.  To prevent this,
+         * the delay must be longer than the topology's message timeout (topology.message.timeout.secs), plus the
+         * longest time messages may wait within the spout, see {@link #withMaxQueueingDelayMs(long)}.
+         * This is validated when the spout is opened.
+         * @param initialRetryDelayMs Delay in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withInitialRetryDelayMs(long initialRetryDelayMs) {
+            this.initialRetryDelayMs = initialRetryDelayMs;
+            return this;
+        }
+
+        public Builder withRetryDelayMultiplier(double retryDelayMultiplier) {
+            this.retryDelayMultiplier = retryDelayMultiplier;
+            return this;
+        }
+
+        public Builder withRetryDelayMax(final Duration duration) {
+            Objects.requireNonNull(duration);
+            return withRetryDelayMaxMs(duration.toMillis());
+        }
+
+        public Builder withRetryDelayMaxMs(long retryDelayMaxMs) {
+            this.retryDelayMaxMs = retryDelayMaxMs;
+            return this;
+        }
+
+        /**
+         * Define the longest a message may wait within the spout after being read, in its tuple queue or
+         * behind retries, before it is emitted.  Used to validate the initial retry delay leaves
+         * enough time for messages to be emitted and processed before being considered failed.
+         * @param maxQueueingDelayMs Delay in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withMaxQueueingDelayMs(long maxQueueingDelayMs) {
+            this.maxQueueingDelayMs = maxQueueingDelayMs;
+            return this;
+        }
+
+        public Builder withReclaimIntervalMs(long reclaimIntervalMs) {
+            this.reclaimIntervalMs = reclaimIntervalMs;
+            return this;
+        }
+
+        public Builder withReclaimBatchSize(int reclaimBatchSize) {
+            this.reclaimBatchSize = reclaimBatchSize;
+            return this;
+        }
+
+        public Builder withMetricsDisabled() {
+            return withMetricsEnabled(false);
+        }
+
+        public Builder withMetricsEnabled() {
+            return withMetricsEnabled(true);
+        }
+
+        public Builder withMetricsEnabled(final boolean enabled) {
+            this.metricsEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Create new PendingListConfig instance.
+         * @return PendingListConfig.
+         */
+        public PendingListConfig build() {
+            return new PendingListConfig(
+                retryLimit, initialRetryDelayMs, retryDelayMultiplier, retryDelayMaxMs,
+                maxQueueingDelayMs, reclaimIntervalMs, reclaimBatchSize, metricsEnabled
+            );
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.sourcelab.storm.spout.redis.failhandler;
+
+import com.codahale.metrics.Counter;
+import org.apache.storm.Config;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.utils.ObjectReader;
+import org.sourcelab.storm.spout.redis.FailureHandler;
+import org.sourcelab.storm.spout.redis.Message;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaves failed messages in the consumer's Redis pending entries list rather than buffering them.
+ *
+ * Failed messages are never acked, so they remain pending in Redis.  The spout's consumer thread
+ * periodically inspects its pending entries list using XPENDING, and re-claims messages which have sat idle
+ * longer than an exponentially increasing delay using XCLAIM, replaying them.  The retry limit is enforced
+ * against Redis' own delivery counter, messages which have exhausted it are acked and dropped.
+ *
+ * Nothing is held on the heap per failed message, so memory use is constant regardless of failure volume.
+ *
+ * Messages which have not failed, but are still waiting in the spout or being processed, are also pending.
+ * To avoid claiming and delivering them a second time, the initial retry delay must be longer than the topology's
+ * message timeout plus the longest time messages wait within the spout, which is validated when opened.
+ */
+public class PendingListFailureHandler implements FailureHandler {
+    /**
+     * Storm's default topology.message.timeout.secs.
+     */
+    private static final int DEFAULT_MESSAGE_TIMEOUT_SECS = 30;
+
+    /**
+     * Configuration properties.
+     */
+    private final PendingListConfig config;
+
+    /**
+     * Metrics, updated from the consumer thread.  Null if metrics are disabled.
+     */
+    private transient Counter metricExceededRetryLimitCount;
+    private transient Counter metricRetriedMessagesCount;
+
+    /**
+     * Constructor.
+     * @param config Defines configuration properties.
+     */
+    public PendingListFailureHandler(final PendingListConfig config) {
+        this.config = Objects.requireNonNull(config);
+    }
+
+    /**
+     * Constructor.
+     * @param config Defines configuration properties.
+     */
+    public PendingListFailureHandler(final PendingListConfig.Builder config) {
+        this(Objects.requireNonNull(config).build());
+    }
+
+    @Override
+    public void open(final Map<String, Object> stormConfig, final TopologyContext topologyContext) {
+        // Messages still in flight must not be mistaken for failed messages.
+        final long messageTimeoutMs = TimeUnit.SECONDS.toMillis(
+            ObjectReader.getInt(stormConfig.get(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS), DEFAULT_MESSAGE_TIMEOUT_SECS)
+        );
+        if (config.getInitialRetryDelayMs() <= messageTimeoutMs + config.getMaxQueueingDelayMs()) {
+            throw new IllegalStateException(
+                "Initial retry delay of " + config.getInitialRetryDelayMs() + "ms must be longer than "
+                + Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS + " (" + messageTimeoutMs + "ms) plus the max queueing delay ("
+                + config.getMaxQueueingDelayMs() + "ms), otherwise messages still in flight are delivered twice"
+            );
+        }
+
+        // Initialize metrics.
+        if (config.isMetricsEnabled()) {
+            metricExceededRetryLimitCount = topologyContext.registerCounter("failureHandler_exceededRetryLimit");
+            metricRetriedMessagesCount = topologyContext.registerCounter("failureHandler_retriedMessages");
+        }
+    }
+
+    @Override
+    public boolean fail(final Message message) {
+        // Validate input.
+        if (message == null) {
+            return false;
+        }
+
+        // Never retry if configured with a value of 0, the spout will ack the message.
+        if (config.getRetryLimit() == 0) {
+            recordExceededRetryLimit(1);
+            return false;
+        }
+
+        // Leave it pending in Redis to be reclaimed later.
+        return true;
+    }
+
+    @Override
+    public void ack(final String msgId) {
+        // Nothing tracked.
+    }
+
+    @Override
+    public Message getMessage() {
+        // Failed messages are replayed by the consumer thread.
+        return null;
+    }
+
+    public PendingListConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Record messages reclaimed from the pending entries list to be replayed.
+     * @param count Number of messages.
+     */
+    public void recordRetried(final int count) {
+        if (metricRetriedMessagesCount == null) {
+            return;
+        }
+        metricRetriedMessagesCount.inc(count);
+    }
+
+    /**
+     * Record messages dropped after exceeding the retry limit.
+     * @param count Number of messages.
+     */
+    public void recordExceededRetryLimit(final int count) {
+        if (metricExceededRetryLimitCount == null) {
+            return;
+        }
+        metricExceededRetryLimitCount.inc(count);
+    }
+}
@@ -0,0 +1,365 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import org.apache.storm.task.TopologyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.FailureHandler;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Funnels tuples and acks between the Spout thread and the Consumer thread in a
+ * thread safe manner.
+ *
+ * Tracks in flight tuples, failure handling, and run state.  Implementations provide the
+ * underlying queues used to pass tuples and acks between the two threads.
+ */
+public abstract class AbstractFunnel implements SpoutFunnel, ConsumerFunnel {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractFunnel.class);
+
+    /**
+     * Tracks Tuples in Flight.
+     * Needs to be concurrent because of metrics collection.
+     */
+    private final Map<String, Message> inFlightTuples;
+
+    /**
+     * Should tuples be tracked in flight.  Not when delivering at most once, as tuples are emitted unanchored,
+     * or when tuples are anchored to the message itself, as Storm hands back the message on failure.
+     */
+    private final boolean trackInFlight;
+
+    /**
+     * How to handle failures.
+     */
+    private final FailureHandler failureHandler;
+
+    /**
+     * Maximum number of messages held in the tuple queue.
+     */
+    private final int maxTupleQueueSize;
+
+    /**
+     * Stop flags.
+     */
+    private final AtomicBoolean shouldStop = new AtomicBoolean(false);
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+
+    /**
+     * Error which stopped the consumer thread, rethrown on the spout thread.  NULL if none.
+     */
+    private volatile Throwable consumerError = null;
+
+    /**
+     * Constructor.
+     * @param config Configuration properties.
+     * @param stormConfig Configuration map passed from the spout.
+     * @param topologyContext Storm TopologyContext instance.
+     */
+    protected AbstractFunnel(
+        final RedisStreamSpoutConfig config,
+        final Map<String, Object> stormConfig,
+        final TopologyContext topologyContext
+    ) {
+        Objects.requireNonNull(config);
+        Objects.requireNonNull(topologyContext);
+
+        // These DO need to be concurrent.
+        inFlightTuples = new ConcurrentHashMap<>(config.getMaxTupleQueueSize());
+        maxTupleQueueSize = config.getMaxTupleQueueSize();
+        trackInFlight = !config.isAtMostOnce() && !config.isMessageReferenceIdsEnabled();
+
+        // Create failure handler instance
+        failureHandler = config.getFailureHandler();
+        failureHandler.open(stormConfig, topologyContext);
+
+        // Initialize Metrics
+        if (config.isMetricsEnabled()) {
+            topologyContext.registerGauge("tupleQueueSize", this::getTupleQueueSize);
+            topologyContext.registerGauge("ackQueueSize", this::getAckQueueSize);
+            topologyContext.registerGauge("inFlightTuples", inFlightTuples::size);
+        }
+    }
+
+    /**
+     * Remove the next message from the tuple queue, without waiting.
+     * @return Message, or NULL if the queue is empty.
+     */
+    protected abstract Message pollMessage();
+
+    /**
+     * Add a message to the tuple queue, waiting for space to become available if the queue is full.
+     * @param message The message to add.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    protected abstract void putMessage(final Message message) throws InterruptedException;
+
+    /**
+     * Add as many of the messages to the tuple queue as there is room for, waiting for room
+     * for at least one if the queue is full.
+     * @param messages The messages to add.
+     * @return Number of messages added, from the start of the list.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    protected abstract int putMessages(final List<Message> messages) throws InterruptedException;
+
+    /**
+     * Remove the next messageId from the ack queue, without waiting.
+     * @return MessageId, or NULL if the queue is empty.
+     */
+    protected abstract String pollAck();
+
+    /**
+     * Remove the next messageId from the ack queue, waiting up to the specified time for one to become available.
+     * @param timeoutMillis Maximum time to wait in milliseconds.
+     * @return MessageId, or NULL if none became available.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    protected abstract String pollAck(final long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Move up to maxAcks messageIds from the ack queue into the target collection, without waiting.
+     * @param target Collection to add messageIds to.
+     * @param maxAcks Maximum number of messageIds to move.
+     * @return Number of messageIds moved.
+     */
+    protected abstract int drainAcksTo(final Collection<String> target, final int maxAcks);
+
+    /**
+     * Add a messageId to the ack queue, waiting for space to become available if the queue is full.
+     * @param msgId The messageId to add.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    protected abstract void putAck(final String msgId) throws InterruptedException;
+
+    /**
+     * Number of messages currently waiting in the tuple queue.
+     * @return Size of the tuple queue.
+     */
+    protected abstract int getTupleQueueSize();
+
+    /**
+     * Number of messageIds currently waiting in the ack queue.
+     * @return Size of the ack queue.
+     */
+    protected abstract int getAckQueueSize();
+
+    @Override
+    public Message nextMessage() {
+        // Surface consumer thread failures, rather than silently emitting nothing.
+        final Throwable error = consumerError;
+        if (error != null) {
+            throw new IllegalStateException("Consumer thread stopped after an error: " + error.getMessage(), error);
+        }
+
+        // Should replay a failed tuple?
+        Message nextMessage = failureHandler.getMessage();
+
+        // If the failureHandler has nothing to emit
+        if (nextMessage == null) {
+            // Pop off of tuple queue
+            nextMessage = pollMessage();
+        }
+
+        // If nothing pop'd from the queue
+        // then the queue is empty.
+        if (nextMessage == null) {
+            return null;
+        }
+
+        // Add to inflight tuples map, unless emitted unanchored.
+        if (trackInFlight) {
+            inFlightTuples.put(nextMessage.getId(), nextMessage);
+        }
+
+        // return message
+        return nextMessage;
+    }
+
+    @Override
+    public boolean ackMessage(final String msgId) {
+        if (msgId == null) {
+            return false;
+        }
+
+        // Add to acked tuples queue,
+        // If the queue is full, this will block.
+        try {
+            // Notify the failure handler that this msgId was acked.
+            failureHandler.ack(msgId);
+
+            // Add to the ackQueue
+            putAck(msgId);
+        } catch (final InterruptedException exception) {
+            logger.error("Interrupted while attempting to add to Ack Queue: {}", exception.getMessage(), exception);
+        }
+
+        // remove from inflight tuples map.
+        if (trackInFlight) {
+            inFlightTuples.remove(msgId);
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean failMessage(final String msgId) {
+        if (msgId == null) {
+            return false;
+        }
+
+        // remove from inflight tuples map.
+        final Message failedTuple = inFlightTuples.remove(msgId);
+
+        // Unable to find a tuple with that msgId
+        if (failedTuple == null) {
+            return false;
+        }
+        return handleFailure(failedTuple);
+    }
+
+    @Override
+    public boolean failMessage(final Message message) {
+        if (message == null) {
+            return false;
+        }
+
+        // remove from inflight tuples map.
+        if (trackInFlight) {
+            inFlightTuples.remove(message.getId());
+        }
+        return handleFailure(message);
+    }
+
+    /**
+     * Pass a failed message to the failure handler.
+     * @param failedTuple The message which failed.
+     * @return true if accepted by the failure handler, false if acked instead.
+     */
+    private boolean handleFailure(final Message failedTuple) {
+        // Add to failed tuples thing
+        final boolean result = failureHandler.fail(failedTuple);
+
+        // If the result is false, we should ack the message
+        if (result == false) {
+            ackMessage(failedTuple.getId());
+        }
+
+        // And return the result
+        return result;
+    }
+
+    @Override
+    public void requestStop() {
+        shouldStop.set(true);
+
+        // Wait until stopped.
+        final long limit = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (isRunning.get()) {
+            try {
+                Thread.sleep(250L);
+                if (System.currentTimeMillis() >= limit) {
+                    throw new RuntimeException("Timed out waiting for thread to complete.");
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Add a message to the queue.
+     * By design this will block once the buffer becomes full to apply backpressure to
+     * the consumer thread.
+     */
+    @Override
+    public boolean addMessage(final Message message) {
+        // This may block.
+        try {
+            putMessage(message);
+            return true;
+        } catch (final InterruptedException exception) {
+            logger.error("Interrupted while attempting to add to Message Queue: {}", exception.getMessage(), exception);
+        }
+        return false;
+    }
+
+    @Override
+    public int addMessages(final List<Message> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        // This may block.
+        try {
+            return putMessages(messages);
+        } catch (final InterruptedException exception) {
+            logger.error("Interrupted while attempting to add to Message Queue: {}", exception.getMessage(), exception);
+        }
+        return 0;
+    }
+
+    @Override
+    public int getRemainingMessageCapacity() {
+        return Math.max(0, maxTupleQueueSize - getTupleQueueSize());
+    }
+
+    /**
+     * Get the next MessageId that has been marked as successfully completed.
+     * @return Id of the message, or NULL if buffer is empty.
+     */
+    @Override
+    public String nextAck() {
+        return pollAck();
+    }
+
+    @Override
+    public String nextAck(final long timeoutMillis) {
+        try {
+            return pollAck(timeoutMillis);
+        } catch (final InterruptedException exception) {
+            logger.error("Interrupted while waiting on Ack Queue: {}", exception.getMessage(), exception);
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public int drainAcks(final Collection<String> target, final int maxAcks) {
+        if (maxAcks <= 0) {
+            return 0;
+        }
+        return drainAcksTo(target, maxAcks);
+    }
+
+    @Override
+    public boolean shouldStop() {
+        return shouldStop.get();
+    }
+
+    @Override
+    public void reportError(final Throwable error) {
+        consumerError = Objects.requireNonNull(error);
+    }
+
+    @Override
+    public void setIsRunning(boolean state) {
+        isRunning.set(state);
+    }
+
+    /**
+     * Accessor for running state.
+     * @return true if the client thread is processing, false if not.
+     */
+    public boolean isRunning() {
+        return isRunning.get();
+    }
+}
@@ -0,0 +1,125 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue, guarded by a single lock, which accepts a whole batch of entries in one operation.
+ *
+ * Unlike a LinkedBlockingQueue, adding a batch takes the lock once and allocates no node per entry.
+ * Removing entries never waits, so only producers waiting for room are ever signalled, and only once
+ * the queue stops being full.
+ *
+ * @param <E> Type of entry held.
+ */
+final class BoundedBatchQueue<E> {
+    private final ArrayDeque<E> entries;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Number of entries held, readable without taking the lock.
+     */
+    private volatile int size = 0;
+
+    /**
+     * Constructor.
+     * @param capacity Maximum number of entries held at once.
+     */
+    BoundedBatchQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Add an entry, waiting for room if the queue is full.
+     * @param entry Entry to add, must not be null.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void put(final E entry) throws InterruptedException {
+        Objects.requireNonNull(entry);
+        lock.lockInterruptibly();
+        try {
+            awaitNotFull();
+            entries.addLast(entry);
+        } finally {
+            size = entries.size();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add as many entries as there is room for, in order, under a single acquisition of the lock.
+     * Waits for room for at least one entry if the queue is full.
+     * @param batch Entries to add, must not be empty or contain nulls.
+     * @return Number of entries added, from the start of the list.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    int putAll(final List<E> batch) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitNotFull();
+            final int count = Math.min(batch.size(), capacity - entries.size());
+            for (int index = 0; index < count; index++) {
+                entries.addLast(Objects.requireNonNull(batch.get(index)));
+            }
+            return count;
+        } finally {
+            size = entries.size();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the next entry, without waiting.
+     * @return Next entry, or NULL if the queue is empty.
+     */
+    E poll() {
+        // Nothing to take, skip the lock.
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            final boolean wasFull = entries.size() == capacity;
+            final E entry = entries.pollFirst();
+            size = entries.size();
+            if (wasFull) {
+                notFull.signalAll();
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of entries currently held.
+     * @return Size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Maximum number of entries held at once.
+     * @return Capacity.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    private void awaitNotFull() throws InterruptedException {
+        while (entries.size() >= capacity) {
+            notFull.await();
+        }
+    }
+}
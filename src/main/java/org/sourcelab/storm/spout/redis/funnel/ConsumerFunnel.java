@@ -2,6 +2,9 @@ package org.sourcelab.storm.spout.redis.funnel;
 
 import org.sourcelab.storm.spout.redis.Message;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Funnel from the point of the Redis Consumer.
  *
@@ -18,12 +21,43 @@ public interface ConsumerFunnel {
      */
     boolean addMessage(final Message message);
 
+    /**
+     * Pushes as many of the messages down to the Spout thread as there is room for, in order,
+     * handing them over in a single operation where the underlying queue supports it.
+     * If there is no room for any, waits until there is room for at least one.
+     * @param messages The messages to emit.
+     * @return Number of messages accepted, from the start of the list.
+     */
+    int addMessages(final List<Message> messages);
+
+    /**
+     * Number of messages which can currently be pushed down to the Spout thread without waiting.
+     * @return Remaining capacity of the tuple queue.
+     */
+    int getRemainingMessageCapacity();
+
     /**
      * Get the next messageId that should be recorded as processed.
      * @return MessageId of message to record as having been processed.
      */
     String nextAck();
 
+    /**
+     * Get the next messageId that should be recorded as processed, waiting up to the
+     * specified time for one to become available.
+     * @param timeoutMillis Maximum time to wait in milliseconds.
+     * @return MessageId of message to record as having been processed, or NULL if none became available.
+     */
+    String nextAck(final long timeoutMillis);
+
+    /**
+     * Move up to maxAcks messageIds that should be recorded as processed into the target collection, without waiting.
+     * @param target Collection to add messageIds to.
+     * @param maxAcks Maximum number of messageIds to move.
+     * @return Number of messageIds moved.
+     */
+    int drainAcks(final Collection<String> target, final int maxAcks);
+
     /**
      * Used to determine if the background consuming thread should stop processing and shut down.
      *
@@ -31,6 +65,13 @@ public interface ConsumerFunnel {
      */
     boolean shouldStop();
 
+    /**
+     * Hand an error which stopped the background processing thread over to the Spout thread, to be rethrown
+     * from the Spout's next call to {@link SpoutFunnel#nextMessage()}.
+     * @param error The error.
+     */
+    void reportError(final Throwable error);
+
     /**
      * Used to set the state of the background processing thread.
      *
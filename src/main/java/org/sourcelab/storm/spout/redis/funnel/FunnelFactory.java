@@ -0,0 +1,41 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import org.apache.storm.task.TopologyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Factory for creating the appropriate Funnel instance based on config.
+ */
+public class FunnelFactory {
+    private static final Logger logger = LoggerFactory.getLogger(FunnelFactory.class);
+
+    /**
+     * Create the appropriate funnel instance based on configuration.
+     * @param config Spout configuration.
+     * @param stormConfig Configuration map passed from the spout.
+     * @param topologyContext Storm TopologyContext instance.
+     * @return Funnel.
+     */
+    public AbstractFunnel createFunnel(
+        final RedisStreamSpoutConfig config,
+        final Map<String, Object> stormConfig,
+        final TopologyContext topologyContext
+    ) {
+        Objects.requireNonNull(config);
+
+        switch (config.getFunnelType()) {
+            case MEMORY:
+                return new MemoryFunnel(config, stormConfig, topologyContext);
+            case RING_BUFFER:
+                logger.info("Using ring buffer funnel with {} wait strategy.", config.getFunnelWaitStrategy());
+                return new RingBufferFunnel(config, stormConfig, topologyContext);
+            default:
+                throw new IllegalStateException("Unknown/Unhandled Funnel Type");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+/**
+ * Defines which funnel implementation passes messages between the Spout and Consumer threads.
+ */
+public enum FunnelType {
+    /**
+     * Uses lock based queues, {@link MemoryFunnel}.
+     */
+    MEMORY,
+
+    /**
+     * Uses preallocated lock-free ring buffers, {@link RingBufferFunnel}.
+     */
+    RING_BUFFER;
+}
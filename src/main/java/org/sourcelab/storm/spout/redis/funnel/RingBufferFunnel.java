@@ -0,0 +1,134 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import org.apache.storm.task.TopologyContext;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Funnels tuples and acks between the Spout thread and the Consumer thread using preallocated
+ * lock-free single-producer/single-consumer ring buffers.  Unlike {@link MemoryFunnel}, passing
+ * a tuple or ack neither allocates nor takes a lock.
+ *
+ * Relies on there being exactly one thread on each side: the Consumer thread adding messages and
+ * taking acks (or the dedicated ack committer thread, if enabled), and the Spout thread taking messages
+ * and adding acks.  Threads that need to wait on a full or empty buffer do so using the configured
+ * {@link WaitStrategy}.
+ */
+public class RingBufferFunnel extends AbstractFunnel {
+    /**
+     * Ring buffer for tuples, produced by the Consumer thread and consumed by the Spout thread.
+     */
+    private final SpscRingBuffer<Message> tupleQueue;
+
+    /**
+     * Ring buffer for acks, produced by the Spout thread and consumed by the Consumer thread.
+     */
+    private final SpscRingBuffer<String> ackQueue;
+
+    /**
+     * How to wait on a full or empty buffer.
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Constructor.
+     * @param config Configuration properties.
+     * @param stormConfig Configuration map passed from the spout.
+     * @param topologyContext Storm TopologyContext instance.
+     */
+    public RingBufferFunnel(
+        final RedisStreamSpoutConfig config,
+        final Map<String, Object> stormConfig,
+        final TopologyContext topologyContext
+    ) {
+        super(config, stormConfig, topologyContext);
+
+        tupleQueue = new SpscRingBuffer<>(config.getMaxTupleQueueSize());
+        ackQueue = new SpscRingBuffer<>(config.getMaxAckQueueSize());
+        waitStrategy = Objects.requireNonNull(config.getFunnelWaitStrategy());
+    }
+
+    @Override
+    protected Message pollMessage() {
+        return tupleQueue.poll();
+    }
+
+    @Override
+    protected void putMessage(final Message message) throws InterruptedException {
+        Objects.requireNonNull(message);
+        while (!tupleQueue.offer(message)) {
+            idle();
+        }
+    }
+
+    @Override
+    protected int putMessages(final List<Message> messages) throws InterruptedException {
+        int added = tupleQueue.offer(messages);
+        while (added == 0) {
+            idle();
+            added = tupleQueue.offer(messages);
+        }
+        return added;
+    }
+
+    @Override
+    protected String pollAck() {
+        return ackQueue.poll();
+    }
+
+    @Override
+    protected String pollAck(final long timeoutMillis) throws InterruptedException {
+        String msgId = ackQueue.poll();
+        if (msgId != null) {
+            return msgId;
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        do {
+            idle();
+            msgId = ackQueue.poll();
+        } while (msgId == null && System.nanoTime() - deadline < 0);
+
+        return msgId;
+    }
+
+    @Override
+    protected int drainAcksTo(final Collection<String> target, final int maxAcks) {
+        return ackQueue.drainTo(target, maxAcks);
+    }
+
+    @Override
+    protected void putAck(final String msgId) throws InterruptedException {
+        Objects.requireNonNull(msgId);
+        while (!ackQueue.offer(msgId)) {
+            idle();
+        }
+    }
+
+    @Override
+    protected int getTupleQueueSize() {
+        return tupleQueue.size();
+    }
+
+    @Override
+    protected int getAckQueueSize() {
+        return ackQueue.size();
+    }
+
+    /**
+     * Wait using the configured strategy, bailing out if interrupted.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void idle() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        waitStrategy.idle();
+    }
+}
@@ -15,6 +15,7 @@ public interface SpoutFunnel {
     /**
      * Ask for the next message which should be emitted by the spout.
      * @return Message to be emitted.  A value of NULL means no message is ready to be emitted.
+     * @throws IllegalStateException if the background processing thread stopped after an error.
      */
     Message nextMessage();
 
@@ -32,6 +33,13 @@ public interface SpoutFunnel {
      */
     boolean failMessage(final String msgId);
 
+    /**
+     * Called to notify that a message has failed to process, when the message itself is at hand.
+     * @param message The message.
+     * @return true if accepted.
+     */
+    boolean failMessage(final Message message);
+
     /**
      * Called to request the background consuming thread to shutdown.
      */
@@ -0,0 +1,199 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue supporting exactly one producer thread and one consumer thread.
+ *
+ * Slots are preallocated up front so adding and removing entries creates no garbage.  The producer
+ * and consumer positions each live on their own padded cache line, alongside a locally cached copy
+ * of the other side's position so each thread only reads the other's line when it appears full/empty.
+ *
+ * @param <E> Type of entry held.
+ */
+final class SpscRingBuffer<E> {
+    /**
+     * Preallocated slots, sized to a power of two so positions can be masked into an index.
+     */
+    private final Object[] buffer;
+    private final int mask;
+
+    /**
+     * Maximum number of entries held at once.
+     */
+    private final int capacity;
+
+    /**
+     * Next position to read from, written only by the consumer.
+     * Caches the last observed producer position.
+     */
+    private final Sequence head = new Sequence();
+
+    /**
+     * Next position to write to, written only by the producer.
+     * Caches the last observed consumer position.
+     */
+    private final Sequence tail = new Sequence();
+
+    /**
+     * Constructor.
+     * @param capacity Maximum number of entries held at once.
+     */
+    SpscRingBuffer(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        this.capacity = capacity;
+
+        // Round up to the next power of two.
+        final int size = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an entry to the buffer.  Must only be called from the producer thread.
+     * @param entry Entry to add, must not be null.
+     * @return true if added, false if the buffer is full.
+     */
+    boolean offer(final E entry) {
+        final long position = tail.get();
+
+        // Only re-read the consumer's position when our cached copy says we are full.
+        if (position - tail.cached >= capacity) {
+            tail.cached = head.get();
+            if (position - tail.cached >= capacity) {
+                return false;
+            }
+        }
+
+        buffer[(int) position & mask] = entry;
+
+        // Ordered store publishes the entry to the consumer.
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Add as many of the entries as there is room for, publishing them to the consumer at once.
+     * Must only be called from the producer thread.
+     * @param entries Entries to add, must not contain nulls.
+     * @return Number of entries added, from the start of the list.
+     */
+    int offer(final List<? extends E> entries) {
+        final long position = tail.get();
+
+        // Only re-read the consumer's position when our cached copy says there isn't room for all of them.
+        long available = capacity - (position - tail.cached);
+        if (available < entries.size()) {
+            tail.cached = head.get();
+            available = capacity - (position - tail.cached);
+        }
+
+        final int count = (int) Math.min(available, entries.size());
+        for (int offset = 0; offset < count; offset++) {
+            buffer[(int) (position + offset) & mask] = Objects.requireNonNull(entries.get(offset));
+        }
+
+        if (count > 0) {
+            // Ordered store publishes all of the entries to the consumer.
+            tail.lazySet(position + count);
+        }
+        return count;
+    }
+
+    /**
+     * Remove the next entry from the buffer.  Must only be called from the consumer thread.
+     * @return Next entry, or NULL if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        final long position = head.get();
+
+        // Only re-read the producer's position when our cached copy says we are empty.
+        if (position >= head.cached) {
+            head.cached = tail.get();
+            if (position >= head.cached) {
+                return null;
+            }
+        }
+
+        final int index = (int) position & mask;
+        final E entry = (E) buffer[index];
+        buffer[index] = null;
+
+        // Ordered store releases the slot back to the producer.
+        head.lazySet(position + 1);
+        return entry;
+    }
+
+    /**
+     * Move up to maxEntries entries into the target collection, releasing their slots to the producer at once.
+     * Must only be called from the consumer thread.
+     * @param target Collection to add entries to.
+     * @param maxEntries Maximum number of entries to move.
+     * @return Number of entries moved.
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(final Collection<? super E> target, final int maxEntries) {
+        final long position = head.get();
+
+        // Only re-read the producer's position when our cached copy says there aren't enough.
+        long available = head.cached - position;
+        if (available < maxEntries) {
+            head.cached = tail.get();
+            available = head.cached - position;
+        }
+
+        final int count = (int) Math.min(available, maxEntries);
+        for (int offset = 0; offset < count; offset++) {
+            final int index = (int) (position + offset) & mask;
+            target.add((E) buffer[index]);
+            buffer[index] = null;
+        }
+
+        if (count > 0) {
+            // Ordered store releases all of the slots back to the producer.
+            head.lazySet(position + count);
+        }
+        return count;
+    }
+
+    /**
+     * Approximate number of entries in the buffer, safe to call from any thread.
+     * @return Number of entries.
+     */
+    int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    /**
+     * Maximum number of entries held at once.
+     * @return Capacity of the buffer.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * A position padded out to its own cache line, to avoid false sharing between the producer and consumer.
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends AtomicLong {
+        /**
+         * Last observed position of the other side, only accessed by the owning thread.
+         */
+        private long cached = 0L;
+
+        private long p1;
+        private long p2;
+        private long p3;
+        private long p4;
+        private long p5;
+        private long p6;
+    }
+}
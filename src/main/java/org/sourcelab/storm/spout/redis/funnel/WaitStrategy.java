@@ -0,0 +1,50 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Defines how a thread waits on a {@link RingBufferFunnel} that is full, or empty when waiting for acks.
+ */
+public enum WaitStrategy {
+    /**
+     * Busy spin, re-checking immediately.  Lowest latency, but occupies a full CPU core while waiting,
+     * so only suitable when the spout's threads each have a core to themselves.
+     */
+    SPIN {
+        @Override
+        void idle() {
+            // Busy spin.
+        }
+    },
+
+    /**
+     * Yield the CPU to other threads between checks.
+     */
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * Park the thread briefly between checks.  Lowest CPU usage, at the cost of latency.
+     */
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    /**
+     * How long to park for between checks.
+     */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Called each time a waiting thread finds it cannot make progress.
+     */
+    abstract void idle();
+}
@@ -1,5 +1,6 @@
 package org.sourcelab.storm.spout.redis;
 
+import org.apache.storm.Config;
 import org.apache.storm.generated.StreamInfo;
 import org.apache.storm.spout.SpoutOutputCollector;
 import org.apache.storm.task.TopologyContext;
@@ -27,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -648,6 +650,180 @@ abstract class AbstractRedisStreamSpoutIntegrationTest {
         verify(mockTopologyContext, times(1)).getThisTaskIndex();
     }
 
+    /**
+     * Verifies multiple tuples are emitted per call to nextTuple(), without exceeding topology.max.spout.pending.
+     */
+    @ParameterizedTest
+    @EnumSource(ClientType.class)
+    void test_emitBudgetHonoursMaxSpoutPending(final ClientType clientType) throws InterruptedException {
+        // Inject client type and emit budget into config
+        configBuilder
+            .withClientType(clientType)
+            .withEmitBudget(10);
+        final Map<String, Object> pendingConfig = Collections.singletonMap(Config.TOPOLOGY_MAX_SPOUT_PENDING, 4);
+
+        // Create spout
+        try (final RedisStreamSpout spout = new RedisStreamSpout(configBuilder.build())) {
+            final StubSpoutCollector collector = new StubSpoutCollector();
+
+            // Open spout and activate
+            spout.open(pendingConfig, mockTopologyContext, new SpoutOutputCollector(collector));
+            spout.activate();
+
+            // Publish 10 records to redis.
+            redisTestHelper.produceMessages(streamKey, 10);
+
+            // Only 4 may be pending at a time.
+            for (int batch = 1; batch <= 3; batch++) {
+                final int expected = Math.min(10, batch * 4);
+                await()
+                    .atMost(Duration.ofSeconds(10))
+                    .until(() -> {
+                        spout.nextTuple();
+                        return collector.getEmittedTuples().size() == expected;
+                    });
+
+                // Nothing further emitted until acked.
+                for (int counter = 0; counter < 5; counter++) {
+                    Thread.sleep(50L);
+                    spout.nextTuple();
+                }
+                assertEquals(expected, collector.getEmittedTuples().size());
+
+                // Ack what was emitted.
+                collector.getEmittedTuples().subList((batch - 1) * 4, expected).stream()
+                    .map(EmittedTuple::getMessageId)
+                    .forEach(spout::ack);
+            }
+
+            // Deactivate and close via Autocloseable
+            spout.deactivate();
+        }
+
+        // Verify mocks
+        verify(mockTopologyContext, times(1)).getThisTaskIndex();
+    }
+
+    /**
+     * Verifies messages are emitted in batches, each as a single tuple, and acking a batch acks all of its messages.
+     */
+    @ParameterizedTest
+    @EnumSource(ClientType.class)
+    void test_batchEmit(final ClientType clientType) {
+        // Inject client type, converter and batching into config
+        configBuilder
+            .withClientType(clientType)
+            .withTupleConverter(new MessageIdsBatchConverter())
+            .withBatchEmit(5, 100L);
+
+        // Create spout
+        try (final RedisStreamSpout spout = new RedisStreamSpout(configBuilder.build())) {
+            final StubSpoutCollector collector = new StubSpoutCollector();
+
+            // Open spout and activate
+            spout.open(stormConfig, mockTopologyContext, new SpoutOutputCollector(collector));
+            spout.activate();
+
+            // Publish 12 records to redis, expect two full batches and one lingering batch.
+            final List<String> producedMsgIds = redisTestHelper.produceMessages(streamKey, 12);
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> {
+                    spout.nextTuple();
+                    return collector.getEmittedTuples().size() == 3;
+                });
+
+            final List<String> emittedMsgIds = new ArrayList<>();
+            for (final EmittedTuple emittedTuple : collector.getEmittedTuples()) {
+                final MessageBatch batch = (MessageBatch) emittedTuple.getMessageId();
+                assertEquals(batch.getMessageIds(), emittedTuple.getTuple().get(0));
+                emittedMsgIds.addAll(batch.getMessageIds());
+            }
+            assertEquals(producedMsgIds, emittedMsgIds);
+
+            // Ack every batch
+            collector.getEmittedTuples().stream()
+                .map(EmittedTuple::getMessageId)
+                .forEach(spout::ack);
+
+            // We should see the number of pending messages for our consumer drop to 0
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> {
+                    final StreamConsumerInfo consumerInfo = redisTestHelper.getConsumerInfo(streamKey, GROUP_NAME, CONSUMER_ID);
+                    assertNotNull(consumerInfo, "Failed to find consumer info!");
+                    return consumerInfo.getPending() == 0;
+                });
+
+            // Deactivate and close via Autocloseable
+            spout.deactivate();
+        }
+
+        // Verify mocks
+        verify(mockTopologyContext, times(1)).getThisTaskIndex();
+    }
+
+    /**
+     * Verifies messages converted on the consumer thread are emitted as-is, and those converted into NULL
+     * are acked without ever reaching the spout.
+     */
+    @ParameterizedTest
+    @EnumSource(ClientType.class)
+    void test_consumerThreadConversion(final ClientType clientType) {
+        // Inject client type and conversion into config, converting every other message into NULL.
+        configBuilder
+            .withClientType(clientType)
+            .withTupleConverter(new EveryOtherTupleConverter())
+            .withConsumerThreadConversion();
+
+        // Create spout
+        try (final RedisStreamSpout spout = new RedisStreamSpout(configBuilder.build())) {
+            final StubSpoutCollector collector = new StubSpoutCollector();
+
+            // Open spout and activate
+            spout.open(stormConfig, mockTopologyContext, new SpoutOutputCollector(collector));
+            spout.activate();
+
+            // Publish 10 records to redis, expect every other one emitted.
+            final List<String> producedMsgIds = redisTestHelper.produceMessages(streamKey, 10);
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> {
+                    spout.nextTuple();
+                    return collector.getEmittedTuples().size() == 5;
+                });
+
+            final List<String> expectedMsgIds = new ArrayList<>();
+            for (int index = 0; index < producedMsgIds.size(); index += 2) {
+                expectedMsgIds.add(producedMsgIds.get(index));
+            }
+            assertEquals(expectedMsgIds, collector.getEmittedTuples().stream()
+                .map(EmittedTuple::getMessageId)
+                .collect(Collectors.toList())
+            );
+
+            // Ack every tuple
+            collector.getEmittedTuples().stream()
+                .map(EmittedTuple::getMessageId)
+                .forEach(spout::ack);
+
+            // We should see the number of pending messages for our consumer drop to 0
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> {
+                    final StreamConsumerInfo consumerInfo = redisTestHelper.getConsumerInfo(streamKey, GROUP_NAME, CONSUMER_ID);
+                    assertNotNull(consumerInfo, "Failed to find consumer info!");
+                    return consumerInfo.getPending() == 0;
+                });
+
+            // Deactivate and close via Autocloseable
+            spout.deactivate();
+        }
+
+        // Verify mocks
+        verify(mockTopologyContext, times(1)).getThisTaskIndex();
+    }
+
     /**
      * Dummy Implementation for tests.
      */
@@ -699,6 +875,18 @@ abstract class AbstractRedisStreamSpoutIntegrationTest {
         }
     }
 
+    /**
+     * Implementation that returns null for every other message.
+     */
+    private static class EveryOtherTupleConverter extends TestTupleConverter {
+        private int counter = 0;
+
+        @Override
+        public TupleValue createTuple(final Message message) {
+            return counter++ % 2 == 0 ? super.createTuple(message) : null;
+        }
+    }
+
     /**
      * Implementation that always returns null.
      */
@@ -714,4 +902,27 @@ abstract class AbstractRedisStreamSpoutIntegrationTest {
             return new Fields("value");
         }
     }
+
+    /**
+     * Converts each batch into a single tuple holding the ids of its messages.
+     */
+    private static class MessageIdsBatchConverter implements BatchTupleConverter {
+
+        @Override
+        public TupleValue createTuple(final Message message) {
+            throw new UnsupportedOperationException("Expected to be called with batches");
+        }
+
+        @Override
+        public TupleValue createBatchTuple(final List<Message> messages) {
+            final List<String> messageIds = new ArrayList<>();
+            messages.forEach((message) -> messageIds.add(message.getId()));
+            return new TupleValue(Collections.singletonList(messageIds));
+        }
+
+        @Override
+        public Fields getFieldsFor(final String stream) {
+            return new Fields("messageIds");
+        }
+    }
 }
@@ -0,0 +1,127 @@
+package org.sourcelab.storm.spout.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactMapTest {
+
+    /**
+     * Verify a copy behaves like the Map it was copied from, preserving its iteration order.
+     */
+    @Test
+    void test_copyOf() {
+        final Map<String, String> source = new LinkedHashMap<>();
+        source.put("Key3", "Value3");
+        source.put("Key1", "Value1");
+        source.put("Key2", null);
+
+        final CompactMap map = CompactMap.copyOf(source);
+        assertEquals(source, map);
+        assertEquals(map, source);
+        assertEquals(source.hashCode(), map.hashCode());
+        assertEquals(3, map.size());
+        assertEquals("Value1", map.get("Key1"));
+        assertNull(map.get("Key2"));
+        assertTrue(map.containsKey("Key2"));
+        assertFalse(map.containsKey("Key4"));
+        assertNull(map.get(null));
+        assertEquals(Arrays.asList("Key3", "Key1", "Key2"), new ArrayList<>(map.keySet()));
+
+        // Copying a CompactMap returns it as-is.
+        assertSame(map, CompactMap.copyOf(map));
+    }
+
+    /**
+     * Verify the copy can't be modified.
+     */
+    @Test
+    void test_immutable() {
+        final Map<String, String> source = new HashMap<>();
+        source.put("Key1", "Value1");
+        final CompactMap map = CompactMap.copyOf(source);
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put("Key2", "Value2"));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("Key1"));
+        assertThrows(UnsupportedOperationException.class, map::clear);
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("Value2"));
+
+        // Changes to the source aren't reflected.
+        source.put("Key2", "Value2");
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Verify raw values are decoded once accessed, and available as-is.
+     */
+    @Test
+    void test_rawValues() {
+        final byte[] value1 = "Value1".getBytes(StandardCharsets.UTF_8);
+        final byte[] value2 = "V\u00e4lue2".getBytes(StandardCharsets.UTF_8);
+        final CompactMap map = CompactMap.ofRaw(Arrays.asList(
+            "Key1".getBytes(StandardCharsets.UTF_8), value1,
+            "Key2".getBytes(StandardCharsets.UTF_8), value2
+        ));
+
+        // Not decoded.
+        final ByteBuffer raw = map.getRawValue("Key2");
+        assertEquals(ByteBuffer.wrap(value2), raw);
+        assertTrue(raw.isReadOnly());
+        assertNull(map.getRawValue("Key3"));
+
+        // Decoded once.
+        assertEquals("V\u00e4lue2", map.get("Key2"));
+        assertSame(map.get("Key2"), map.get("Key2"));
+        assertEquals(Arrays.asList("Value1", "V\u00e4lue2"), new ArrayList<>(map.values()));
+
+        // Copying with the same keys returns it as-is, otherwise shares its values.
+        assertSame(map, CompactMap.copyOf(map, UnaryOperator.identity()));
+        final CompactMap copy = CompactMap.copyOf(map, String::new);
+        assertEquals(map, copy);
+        assertEquals(ByteBuffer.wrap(value1), copy.getRawValue("Key1"));
+
+        // String values are encoded.
+        assertEquals(
+            ByteBuffer.wrap(value1),
+            CompactMap.copyOf(Collections.singletonMap("Key1", "Value1")).getRawValue("Key1")
+        );
+    }
+
+    /**
+     * Verify the copy survives serialization, as Messages may be used as Storm messageIds.
+     */
+    @Test
+    void test_serializable() throws Exception {
+        final Map<String, String> source = new LinkedHashMap<>();
+        source.put("Key1", "Value1");
+        source.put("Key2", "Value2");
+        final CompactMap map = CompactMap.copyOf(source);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(map);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(source, input.readObject());
+        }
+    }
+}
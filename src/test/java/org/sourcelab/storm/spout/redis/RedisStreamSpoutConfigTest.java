@@ -1,8 +1,16 @@
 package org.sourcelab.storm.spout.redis;
 
 import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RedisStreamSpoutConfigTest {
 
@@ -28,4 +36,210 @@ class RedisStreamSpoutConfigTest {
             .withClusterNode("clusterhost", 323);
         assertThrows(IllegalStateException.class, () -> builder.withServer("host", 123));
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies duplicate stream keys are rejected.
+     */
+    @Test
+    void verify_cannotAddDuplicateStreamKeys() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withStreamKeys(Arrays.asList("StreamKey1", "StreamKey2", "StreamKey1"));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Verifies partition keys are generated and assigned round-robin across tasks.
+     */
+    @Test
+    void verify_partitionAssignment() {
+        final RedisStreamSpoutConfig config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withPartitionedStreamKey("events:", 5)
+            .build();
+
+        assertTrue(config.isPartitioned());
+        assertEquals(
+            Arrays.asList("events:{0}", "events:{1}", "events:{2}", "events:{3}", "events:{4}"),
+            config.getStreamKeys()
+        );
+
+        // Each partition assigned to exactly one of 2 tasks.
+        assertEquals(Arrays.asList("events:{0}", "events:{2}", "events:{4}"), config.getPartitionsForTask(0, 2));
+        assertEquals(Arrays.asList("events:{1}", "events:{3}"), config.getPartitionsForTask(1, 2));
+
+        // More tasks than partitions leaves some tasks with none.
+        assertEquals(Collections.singletonList("events:{4}"), config.getPartitionsForTask(4, 8));
+        assertTrue(config.getPartitionsForTask(5, 8).isEmpty());
+
+        // Task's config only consumes from its partitions.
+        final RedisStreamSpoutConfig taskConfig = config.withAssignedStreamKeys(config.getPartitionsForTask(1, 2));
+        assertFalse(taskConfig.isPartitioned());
+        assertEquals(Arrays.asList("events:{1}", "events:{3}"), taskConfig.getStreamKeys());
+        assertEquals(config.getGroupName(), taskConfig.getGroupName());
+    }
+
+    /**
+     * Verifies read ack pipelining is rejected unless the consumer reads through the same pooled client it acks with.
+     */
+    @Test
+    void verify_readAckPipeliningRequirements() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withJedisClientLibrary()
+            .withJedisReadAckPipelining();
+
+        // Requires a pool.
+        assertThrows(IllegalStateException.class, builder::build);
+        assertTrue(builder.withJedisPool(4, 2).build().isJedisReadAckPipeliningEnabled());
+
+        // Cannot ack from another client.
+        builder.withAckCommitterThread();
+        assertThrows(IllegalStateException.class, builder::build);
+        builder.withAckCommitterThreadEnabled(false).withPrefetchBatches(2);
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Verifies adaptive read sizing is rejected in combination with prefetching, which sizes its own reads.
+     */
+    @Test
+    void verify_adaptiveConsumePerReadCannotPrefetch() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withAdaptiveConsumePerRead(10, 100);
+        assertTrue(builder.build().isAdaptiveConsumePerReadEnabled());
+
+        builder.withPrefetchBatches(2);
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Verifies adaptive read sizing is rejected in combination with cluster node readers, which size their own reads.
+     */
+    @Test
+    void verify_adaptiveConsumePerReadCannotUseClusterNodeReaders() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withClusterNode("host", 123)
+            .withStreamKeys(Arrays.asList("Stream{a}", "Stream{b}"))
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withClusterNodeReaders();
+        assertTrue(builder.build().isClusterNodeReadersEnabled());
+
+        builder.withAdaptiveConsumePerRead(10, 100);
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Verifies binary bodies are rejected by the clients which don't support them.
+     */
+    @Test
+    void verify_binaryBodiesRequirements() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withBinaryBodies();
+        assertTrue(builder.build().isBinaryBodiesEnabled());
+
+        builder.withLettuceAsyncClientLibrary();
+        assertThrows(IllegalStateException.class, builder::build);
+
+        // Jedis requires a pool.
+        builder.withJedisClientLibrary();
+        assertThrows(IllegalStateException.class, builder::build);
+        assertTrue(builder.withJedisPool(4, 2).build().isBinaryBodiesEnabled());
+    }
+
+    /**
+     * Verifies converting on the consumer thread is rejected in combination with batch emit.
+     */
+    @Test
+    void verify_consumerThreadConversionCannotBatchEmit() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestBatchTupleConverter())
+            .withConsumerThreadConversion();
+        assertTrue(builder.build().isConsumerThreadConversionEnabled());
+
+        builder.withBatchEmit(10, 100L);
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Verifies at most once delivery is rejected in combination with reclaiming pending messages.
+     */
+    @Test
+    void verify_atMostOnceCannotReclaimPendingMessages() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withAtMostOnceDelivery();
+        assertTrue(builder.build().isAtMostOnce());
+
+        builder.withAbandonedMessageReclaim(60_000L);
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Verifies batch emit is rejected unless the TupleConverter can convert batches.
+     */
+    @Test
+    void verify_batchEmitRequiresBatchTupleConverter() {
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withBatchEmit(10, 5L);
+        assertThrows(IllegalStateException.class, builder::build);
+
+        // Inheriting createBatchTuple() from a base class is enough.
+        builder.withTupleConverter(new TestBatchTupleConverter() { });
+        assertTrue(builder.build().isBatchEmitEnabled());
+    }
+
+    /**
+     * Converts each batch into a single tuple holding its messages.
+     */
+    private static class TestBatchTupleConverter extends TestTupleConverter implements BatchTupleConverter {
+        @Override
+        public TupleValue createBatchTuple(final List<Message> messages) {
+            return new TupleValue(Collections.singletonList(messages));
+        }
+    }
+}
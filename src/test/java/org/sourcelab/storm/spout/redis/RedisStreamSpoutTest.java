@@ -0,0 +1,41 @@
+package org.sourcelab.storm.spout.redis;
+
+import org.apache.storm.Config;
+import org.apache.storm.spout.SpoutOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class RedisStreamSpoutTest {
+
+    /**
+     * Verifies opening fails when messages in flight in other tasks could be claimed as abandoned.
+     */
+    @Test
+    void testAbandonedMessageMinIdleMustOutlastMessageTimeout() {
+        final Map<String, Object> stormConfig = new HashMap<>();
+        stormConfig.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 30);
+
+        final RedisStreamSpout spout = new RedisStreamSpout(RedisStreamSpoutConfig.newBuilder()
+            .withServer("localhost", 6379)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withAbandonedMessageReclaim(35_000L)
+            .withAbandonedMessageMaxQueueingDelayMillis(5_000L)
+        );
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> spout.open(stormConfig, mock(TopologyContext.class), mock(SpoutOutputCollector.class))
+        );
+    }
+}
@@ -0,0 +1,63 @@
+package org.sourcelab.storm.spout.redis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamIdTest {
+
+    /**
+     * Verify ids are parsed from, and formatted back to, the form Redis uses.
+     */
+    @Test
+    void test_parseAndFormat() {
+        final StreamId streamId = StreamId.parse("1526919030474-55");
+        assertEquals(1526919030474L, streamId.getMillis());
+        assertEquals(55L, streamId.getSequence());
+        assertEquals("1526919030474-55", streamId.toString());
+
+        // Parts are unsigned.
+        assertEquals("1-18446744073709551615", StreamId.parse("1-18446744073709551615").toString());
+
+        // Part of a qualified messageId.
+        assertEquals(StreamId.of(2L, 3L), StreamId.parse("StreamKey/2-3", 10, 13));
+    }
+
+    /**
+     * Verify malformed ids are rejected.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1", "1-", "-1", "a-1", "1-1-1", "18446744073709551616-0", "0-99999999999999999999"})
+    void test_parseInvalid(final String id) {
+        assertThrows(IllegalArgumentException.class, () -> StreamId.parse(id));
+    }
+
+    /**
+     * Verify ids compare and hash by value, treating both parts as unsigned.
+     */
+    @Test
+    void test_compareAndEquals() {
+        assertEquals(StreamId.parse("1-2"), StreamId.of(1L, 2L));
+        assertEquals(StreamId.parse("1-2").hashCode(), StreamId.of(1L, 2L).hashCode());
+        assertNotEquals(StreamId.of(1L, 2L), StreamId.of(2L, 1L));
+
+        assertTrue(StreamId.of(1L, 2L).compareTo(StreamId.of(1L, 3L)) < 0);
+        assertTrue(StreamId.of(2L, 0L).compareTo(StreamId.of(1L, 3L)) > 0);
+        assertTrue(StreamId.of(1L, -1L).compareTo(StreamId.of(1L, 3L)) > 0);
+        assertEquals(0, StreamId.of(1L, 2L).compareTo(StreamId.parse("1-2")));
+    }
+
+    /**
+     * Verify next() returns the smallest greater id.
+     */
+    @Test
+    void test_next() {
+        assertEquals(StreamId.of(0L, 1L), StreamId.MIN.next());
+        assertEquals(StreamId.of(2L, 0L), StreamId.of(1L, -1L).next());
+    }
+}
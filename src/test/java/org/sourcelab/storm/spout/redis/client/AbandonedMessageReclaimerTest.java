@@ -0,0 +1,121 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class AbandonedMessageReclaimerTest {
+
+    private Client mockClient;
+    private RedisStreamSpoutConfig config;
+
+    @BeforeEach
+    void setup() {
+        mockClient = mock(Client.class);
+        when(mockClient.getConsumerId()).thenReturn("ConsumerId1");
+
+        config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("localhost", 6379)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withMaxConsumePerRead(3)
+            .withAbandonedMessageReclaim(1000L)
+            .withAbandonedMessageReclaimIntervalMillis(0L)
+            .withIdleConsumerRemoval(5000L)
+            .build();
+    }
+
+    @AfterEach
+    void cleanup() {
+        // Ensure all interactions accounted for.
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    /**
+     * Verifies only idle entries belonging to other idle consumers are claimed, paging resumes after the last
+     * entry inspected, and idle consumers with nothing pending are removed after a full pass.
+     */
+    @Test
+    void testReclaim() {
+        final AbandonedMessageReclaimer reclaimer = new AbandonedMessageReclaimer(config, mockClient);
+        final List<Message> claimedMessages = Collections.singletonList(new Message("2-0", new HashMap<>()));
+        when(mockClient.groupConsumers("StreamKey")).thenReturn(Arrays.asList(
+            // Ourselves
+            new GroupConsumer("ConsumerId1", 1L, 10000L),
+            // Idle, but still has pending entries
+            new GroupConsumer("ConsumerId2", 1L, 10000L),
+            // Not idle long enough
+            new GroupConsumer("ConsumerId3", 1L, 100L),
+            // Idle with nothing pending
+            new GroupConsumer("ConsumerId4", 0L, 10000L)
+        ));
+
+        when(mockClient.groupPendingMessages("StreamKey", "-", 3)).thenReturn(Arrays.asList(
+            // Our own entry
+            new PendingEntry("1-0", "ConsumerId1", 5000L, 1L),
+            // Abandoned by another consumer
+            new PendingEntry("2-0", "ConsumerId2", 1500L, 1L),
+            // Still being processed by another consumer
+            new PendingEntry("3-0", "ConsumerId3", 500L, 1L)
+        ));
+        when(mockClient.claimMessages(eq("StreamKey"), eq(1000L), eq(Collections.singletonList("2-0")))).thenReturn(claimedMessages);
+
+        assertEquals(claimedMessages, reclaimer.reclaim());
+        verify(mockClient, times(1)).groupPendingMessages("StreamKey", "-", 3);
+        verify(mockClient, times(1)).claimMessages(eq("StreamKey"), eq(1000L), eq(Collections.singletonList("2-0")));
+
+        // Full page, so the next call resumes after the last entry, and wraps around after a partial page.
+        when(mockClient.groupPendingMessages("StreamKey", "3-1", 3)).thenReturn(Collections.emptyList());
+
+        assertTrue(reclaimer.reclaim().isEmpty());
+        verify(mockClient, times(1)).groupPendingMessages("StreamKey", "3-1", 3);
+        verify(mockClient, times(2)).groupConsumers("StreamKey");
+        verify(mockClient, times(1)).removeConsumer("StreamKey", "ConsumerId4");
+        verify(mockClient, atLeastOnce()).getConsumerId();
+    }
+
+    /**
+     * Verifies entries of a consumer which is still reading are left alone, however long they have been idle,
+     * such as those in flight or held for retry by its failure handler.
+     */
+    @Test
+    void testLeavesLiveConsumersEntries() {
+        final AbandonedMessageReclaimer reclaimer = new AbandonedMessageReclaimer(config, mockClient);
+        when(mockClient.groupPendingMessages("StreamKey", "-", 3)).thenReturn(Collections.singletonList(
+            // In flight for longer than the min idle time.
+            new PendingEntry("1-0", "ConsumerId2", 5000L, 1L)
+        ));
+        when(mockClient.groupConsumers("StreamKey")).thenReturn(Collections.singletonList(
+            // Still reading.
+            new GroupConsumer("ConsumerId2", 1L, 50L)
+        ));
+
+        assertTrue(reclaimer.reclaim().isEmpty());
+        verify(mockClient, times(1)).groupPendingMessages("StreamKey", "-", 3);
+
+        // Consumers retrieved once, for both claiming and removal.
+        verify(mockClient, times(1)).groupConsumers("StreamKey");
+        verify(mockClient, atLeastOnce()).getConsumerId();
+    }
+}
@@ -10,6 +10,7 @@ import org.sourcelab.storm.spout.redis.util.test.RedisTestContainer;
 import org.sourcelab.storm.spout.redis.util.test.RedisTestHelper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -38,6 +39,15 @@ public abstract class AbstractClientIntegrationTest {
     public abstract RedisTestContainer getTestContainer();
     public abstract Client createClient(final RedisStreamSpoutConfig config, final int instanceId);
 
+    /**
+     * Apply any implementation specific configuration.
+     * @param builder Configuration builder.
+     * @return Configuration builder.
+     */
+    protected RedisStreamSpoutConfig.Builder configure(final RedisStreamSpoutConfig.Builder builder) {
+        return builder;
+    }
+
     @BeforeEach
     void setUp(){
         // Generate a random stream key
@@ -122,6 +132,46 @@ public abstract class AbstractClientIntegrationTest {
         assertEquals(0, messages.size(), "Should be empty");
     }
 
+    /**
+     * Simple connect, consume, commit as a single batch, and disconnect smoke test.
+     */
+    @Test
+    void testSimpleConsumeMultipleMessages_batchCommit() {
+        // Connect
+        client.connect();
+
+        // Ask for messages.
+        List<Message> messages = client.nextMessages();
+        assertNotNull(messages, "Should be non-null");
+        assertTrue(messages.isEmpty(), "Should be empty");
+
+        // Now Submit more messages to the stream
+        final List<String> expectedMessageIds = redisTestHelper.produceMessages(streamKey, MAX_CONSUMED_PER_READ);
+
+        // Ask for the next messages
+        messages = client.nextMessages();
+
+        // Validate
+        verifyConsumedMessagesInOrder(expectedMessageIds, messages);
+
+        // Commit all of them in a single request
+        client.commitMessages(messages.stream()
+            .map(Message::getId)
+            .collect(Collectors.toList())
+        );
+
+        // Disconnect client.
+        client.disconnect();
+
+        // Create new client using the same config, nothing should be replayed from the pending list.
+        final Client client2 = createClient(config, 1);
+        client2.connect();
+        messages = client2.nextMessages();
+        assertTrue(messages.isEmpty(), "Should be empty list of messages");
+
+        client2.disconnect();
+    }
+
     /**
      * This sets up the client such that there are
      * multiple consumers on the same group.
@@ -359,6 +409,136 @@ public abstract class AbstractClientIntegrationTest {
         client2.disconnect();
     }
 
+    /**
+     * Consume messages without committing them, then inspect and claim them from the pending entries list.
+     */
+    @Test
+    void testPendingMessagesAndClaim() {
+        // Connect
+        client.connect();
+
+        // Ask for messages.
+        List<Message> messages = client.nextMessages();
+        assertTrue(messages.isEmpty(), "Should be empty");
+
+        // Now Submit more messages to the stream, and consume them without committing.
+        final List<String> expectedMessageIds = redisTestHelper.produceMessages(streamKey, MAX_CONSUMED_PER_READ);
+        messages = client.nextMessages();
+        verifyConsumedMessagesInOrder(expectedMessageIds, messages);
+
+        // Commit the first one
+        client.commitMessage(expectedMessageIds.get(0));
+        final List<String> pendingMessageIds = expectedMessageIds.subList(1, expectedMessageIds.size());
+
+        // All others should be pending, delivered once.
+        List<PendingEntry> pendingEntries = client.pendingMessages(streamKey, "-", 100);
+        assertEquals(
+            pendingMessageIds,
+            pendingEntries.stream().map(PendingEntry::getId).collect(Collectors.toList())
+        );
+        pendingEntries.forEach((entry) -> assertEquals(1, entry.getDeliveryCount()));
+
+        // Page from the 3rd entry, limited to 2.
+        pendingEntries = client.pendingMessages(streamKey, pendingMessageIds.get(2), 2);
+        assertEquals(
+            pendingMessageIds.subList(2, 4),
+            pendingEntries.stream().map(PendingEntry::getId).collect(Collectors.toList())
+        );
+
+        // Claiming with a large min idle time should claim nothing.
+        assertTrue(client.claimMessages(streamKey, 60_000L, pendingMessageIds).isEmpty(), "Should claim nothing");
+
+        // Claim them all
+        messages = client.claimMessages(streamKey, 0L, pendingMessageIds);
+        verifyConsumedMessagesInOrder(pendingMessageIds, messages);
+
+        // Should now have been delivered twice.
+        client.pendingMessages(streamKey, "-", 100)
+            .forEach((entry) -> assertEquals(2, entry.getDeliveryCount()));
+    }
+
+    /**
+     * Verifies inspecting the group's pending entries and consumers, and removing a consumer from the group.
+     */
+    @Test
+    void testGroupPendingMessagesAndConsumers() {
+        // Connect
+        client.connect();
+
+        // Ask for messages.
+        List<Message> messages = client.nextMessages();
+        assertTrue(messages.isEmpty(), "Should be empty");
+
+        // Submit messages to the stream, and consume them without committing.
+        final List<String> expectedMessageIds = redisTestHelper.produceMessages(streamKey, MAX_CONSUMED_PER_READ);
+        messages = client.nextMessages();
+        verifyConsumedMessagesInOrder(expectedMessageIds, messages);
+
+        // All should be pending for this consumer.
+        final List<PendingEntry> pendingEntries = client.groupPendingMessages(streamKey, "-", 100);
+        assertEquals(
+            expectedMessageIds,
+            pendingEntries.stream().map(PendingEntry::getId).collect(Collectors.toList())
+        );
+        pendingEntries.forEach((entry) -> assertEquals(client.getConsumerId(), entry.getConsumerName()));
+
+        // This consumer should be the only one in the group.
+        final List<GroupConsumer> consumers = client.groupConsumers(streamKey);
+        assertEquals(1, consumers.size());
+        assertEquals(client.getConsumerId(), consumers.get(0).getName());
+        assertEquals(expectedMessageIds.size(), consumers.get(0).getPendingCount());
+
+        // Removing the consumer discards its pending entries.
+        client.removeConsumer(streamKey, client.getConsumerId());
+        assertTrue(client.groupConsumers(streamKey).isEmpty(), "Should have no consumers");
+        assertTrue(client.groupPendingMessages(streamKey, "-", 100).isEmpty(), "Should have no pending entries");
+    }
+
+    /**
+     * Verifies consuming from multiple streams using a single client, with messageIds qualified by stream key.
+     */
+    @Test
+    void testConsumeMultipleStreams() {
+        final List<String> streamKeys = Arrays.asList(streamKey + "A", streamKey + "B");
+        final RedisStreamSpoutConfig.Builder builder = RedisStreamSpoutConfig.newBuilder()
+            .withGroupName("DefaultGroupName")
+            .withStreamKeys(streamKeys)
+            .withConsumerIdPrefix(CONSUMER_ID_PREFIX)
+            .withMaxConsumePerRead(MAX_CONSUMED_PER_READ)
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter());
+        final Client multiClient = createClient(getTestContainer().addConnectionDetailsToConfig(configure(builder)).build(), 1);
+
+        try {
+            multiClient.connect();
+            assertTrue(multiClient.nextMessages().isEmpty(), "Should be empty");
+
+            // Submit messages to each stream.
+            final List<String> expectedMessageIds = new ArrayList<>();
+            for (final String key : streamKeys) {
+                redisTestHelper.produceMessages(key, MAX_CONSUMED_PER_READ / 2)
+                    .forEach((entryId) -> expectedMessageIds.add(key + StreamMessageIds.SEPARATOR + entryId));
+            }
+
+            // Should consume from both streams.
+            final List<Message> messages = multiClient.nextMessages();
+            assertEquals(
+                expectedMessageIds.stream().sorted().collect(Collectors.toList()),
+                messages.stream().map(Message::getId).sorted().collect(Collectors.toList())
+            );
+            messages.forEach((message) -> assertTrue(message.getId().startsWith(message.getStreamKey() + "/")));
+
+            // Commit them all, nothing should remain pending.
+            multiClient.commitMessages(messages.stream().map(Message::getId).collect(Collectors.toList()));
+            for (final String key : streamKeys) {
+                assertTrue(multiClient.pendingMessages(key, "-", 100).isEmpty(), "Should have no pending entries");
+            }
+            assertTrue(multiClient.nextMessages().isEmpty(), "Should be empty");
+        } finally {
+            multiClient.disconnect();
+        }
+    }
+
     private void verifyConsumedMessagesInOrder(final List<String> expectedMessageIds, final List<Message> foundMessages) {
         // Validate
         assertNotNull(foundMessages, "Should never be null");
@@ -420,7 +600,7 @@ public abstract class AbstractClientIntegrationTest {
             .withTupleConverter(new TestTupleConverter());
 
         return getTestContainer()
-            .addConnectionDetailsToConfig(builder)
+            .addConnectionDetailsToConfig(configure(builder))
             .build();
     }
 }
@@ -0,0 +1,113 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class AckBatcherTest {
+
+    private Client mockClient;
+
+    @BeforeEach
+    void setup() {
+        mockClient = mock(Client.class);
+    }
+
+    @AfterEach
+    void cleanup() {
+        // Ensure all interactions accounted for.
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    /**
+     * Verifies that a batch is committed as soon as it reaches the max batch size.
+     */
+    @Test
+    void testCommitsWhenBatchIsFull() {
+        final AckBatcher ackBatcher = new AckBatcher(mockClient, 3, 60_000L);
+
+        ackBatcher.add("Id1");
+        ackBatcher.add("Id2");
+        assertEquals(2, ackBatcher.size());
+
+        // Linger has not expired, so nothing should be committed.
+        ackBatcher.flushIfExpired();
+
+        // Filling the batch should commit it.
+        ackBatcher.add("Id3");
+        assertEquals(0, ackBatcher.size());
+        verify(mockClient, times(1)).commitMessages(eq(Arrays.asList("Id1", "Id2", "Id3")));
+
+        // Next batch should start empty
+        ackBatcher.add("Id4");
+        assertEquals(1, ackBatcher.size());
+
+        // Explicit flush commits the remaining.
+        ackBatcher.flush();
+        assertEquals(0, ackBatcher.size());
+        verify(mockClient, times(1)).commitMessages(eq(Arrays.asList("Id4")));
+
+        // Flushing an empty batch is a no-op.
+        ackBatcher.flush();
+        ackBatcher.flushIfExpired();
+    }
+
+    /**
+     * Verifies that with a linger of 0, all buffered acks are committed on the next flushIfExpired call.
+     */
+    @Test
+    void testCommitsWhenLingerExpired() {
+        final AckBatcher ackBatcher = new AckBatcher(mockClient, 100, 0L);
+
+        ackBatcher.add("Id1");
+        ackBatcher.add("Id2");
+
+        ackBatcher.flushIfExpired();
+        assertEquals(0, ackBatcher.size());
+        verify(mockClient, times(1)).commitMessages(eq(Arrays.asList("Id1", "Id2")));
+    }
+
+    /**
+     * Verifies draining from the funnel never requests more than fits in the batch,
+     * committing each batch as it fills.
+     */
+    @Test
+    void testDrainFromFunnel() {
+        final AckBatcher ackBatcher = new AckBatcher(mockClient, 2, 60_000L);
+        final ConsumerFunnel mockFunnel = mock(ConsumerFunnel.class);
+
+        // Funnel hands out up to the requested number of acks from 5 available.
+        final int[] remaining = {5};
+        when(mockFunnel.drainAcks(any(), anyInt())).thenAnswer((invocation) -> {
+            final Collection<String> target = invocation.getArgument(0);
+            final int count = Math.min(remaining[0], invocation.getArgument(1));
+            for (int index = 0; index < count; index++) {
+                target.add("Id" + (6 - remaining[0]--));
+            }
+            return count;
+        });
+
+        assertEquals(5, ackBatcher.drainFrom(mockFunnel));
+        verify(mockClient, times(1)).commitMessages(eq(Arrays.asList("Id1", "Id2")));
+        verify(mockClient, times(1)).commitMessages(eq(Arrays.asList("Id3", "Id4")));
+        assertEquals(1, ackBatcher.size());
+
+        // Nothing left to drain
+        assertEquals(0, ackBatcher.drainFrom(mockFunnel));
+        assertEquals(1, ackBatcher.size());
+    }
+}
@@ -0,0 +1,64 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveReadSizerTest {
+
+    /**
+     * Verifies reads grow while they come back full, shrink once they come back mostly empty,
+     * and stay within the configured bounds.
+     */
+    @Test
+    void testAdaptsToBatchFill() {
+        final AdaptiveReadSizer sizer = new AdaptiveReadSizer(8, 64);
+
+        // Starts out at the maximum.
+        assertEquals(64, sizer.nextCount(1000));
+
+        // A single empty read is not enough to shrink.
+        sizer.recordRead(64, 0);
+        assertEquals(64, sizer.getTargetCount());
+
+        // Keeps coming back empty, halving down to the minimum.
+        sizer.recordRead(64, 0);
+        sizer.recordRead(64, 0);
+        assertEquals(32, sizer.getTargetCount());
+        for (int count = 0; count < 10; count++) {
+            sizer.recordRead(sizer.nextCount(1000), 0);
+        }
+        assertEquals(8, sizer.nextCount(1000));
+
+        // Full reads double up to the maximum.
+        sizer.recordRead(8, 8);
+        assertEquals(16, sizer.nextCount(1000));
+        sizer.recordRead(16, 16);
+        sizer.recordRead(32, 32);
+        sizer.recordRead(64, 64);
+        assertEquals(64, sizer.nextCount(1000));
+
+        // Partially full reads leave the size unchanged.
+        sizer.recordRead(64, 40);
+        assertEquals(64, sizer.nextCount(1000));
+    }
+
+    /**
+     * Verifies reads never ask for more than the tuple queue has room for, unless below the minimum.
+     */
+    @Test
+    void testLimitedByRemainingCapacity() {
+        final AdaptiveReadSizer sizer = new AdaptiveReadSizer(8, 64);
+
+        assertEquals(20, sizer.nextCount(20));
+        assertEquals(8, sizer.nextCount(3));
+        assertEquals(8, sizer.nextCount(0));
+    }
+
+    @Test
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveReadSizer(0, 64));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveReadSizer(65, 64));
+    }
+}
@@ -0,0 +1,50 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConsumerPacerTest {
+
+    /**
+     * Verifies a fixed delay is always slept, regardless of how full the batch was.
+     */
+    @Test
+    void testFixedDelay() {
+        final ConsumerPacer pacer = new ConsumerPacer(10L, 0L);
+
+        assertEquals(10L, pacer.nextDelayMillis(100, 100));
+        assertEquals(10L, pacer.nextDelayMillis(100, 50));
+        assertEquals(10L, pacer.nextDelayMillis(100, 0));
+        assertEquals(10L, pacer.getCurrentDelayMillis());
+    }
+
+    /**
+     * Verifies no delay after full batches, the minimum after partial batches,
+     * and exponential backoff up to the maximum after empty reads.
+     */
+    @Test
+    void testAdaptiveDelay() {
+        final ConsumerPacer pacer = new ConsumerPacer(10L, 50L);
+
+        // Full batch
+        assertEquals(0L, pacer.nextDelayMillis(100, 100));
+        assertEquals(0L, pacer.getCurrentDelayMillis());
+
+        // Empty reads back off.
+        assertEquals(10L, pacer.nextDelayMillis(100, 0));
+        assertEquals(20L, pacer.nextDelayMillis(100, 0));
+        assertEquals(40L, pacer.nextDelayMillis(100, 0));
+        assertEquals(50L, pacer.nextDelayMillis(100, 0));
+        assertEquals(50L, pacer.nextDelayMillis(100, 0));
+        assertEquals(50L, pacer.getCurrentDelayMillis());
+
+        // Partial batch resets to the minimum.
+        assertEquals(10L, pacer.nextDelayMillis(100, 1));
+        assertEquals(20L, pacer.nextDelayMillis(100, 0));
+
+        // Full batch resets to none.
+        assertEquals(0L, pacer.nextDelayMillis(100, 120));
+        assertEquals(10L, pacer.nextDelayMillis(100, 0));
+    }
+}
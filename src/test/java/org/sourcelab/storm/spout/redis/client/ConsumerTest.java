@@ -5,23 +5,28 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
 import org.sourcelab.storm.spout.redis.Message;
 import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.TupleValue;
 import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
 import org.sourcelab.storm.spout.redis.funnel.MemoryFunnel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static java.time.Duration.ofSeconds;
 import static org.junit.Assert.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -147,10 +152,16 @@ class ConsumerTest {
             // Received call to nextMessage at least 4 times
             verify(mockClient, atLeast(4)).nextMessages();
 
-            // Received ack for each msg once
-            receivedMessages.forEach((msg) -> {
-                verify(mockClient, times(1)).commitMessage(eq(msg.getId()));
-            });
+            // Received ack for each msg once, via batched commits
+            final ArgumentCaptor<List<String>> commitCaptor = ArgumentCaptor.forClass(List.class);
+            verify(mockClient, atLeast(1)).commitMessages(commitCaptor.capture());
+            final List<String> committedIds = commitCaptor.getAllValues().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+            final List<String> expectedIds = receivedMessages.stream()
+                .map(Message::getId)
+                .collect(Collectors.toList());
+            assertEquals(expectedIds, committedIds, "Each msg should be committed exactly once");
 
             // Verify shutdown call
             verify(mockClient, times(1)).disconnect();
@@ -166,6 +177,194 @@ class ConsumerTest {
         }
     }
 
+    /**
+     * Verifies that when configured with a dedicated committer client, acks are committed
+     * using that client rather than the client used for reading.
+     */
+    @Test
+    void testCommitsAcksUsingDedicatedCommitterClient() throws InterruptedException {
+        final Client mockCommitterClient = mock(Client.class);
+        consumer = new Consumer(config, mockClient, mockCommitterClient, funnel);
+
+        // Setup Mocks
+        when(mockClient.nextMessages()).thenReturn(
+            createMessageBatch(10, 0), Collections.emptyList()
+        );
+
+        // Create a thread to run the Consumer
+        final Thread consumerThread = new Thread(consumer);
+        try {
+            consumerThread.start();
+
+            // Wait for messages to show up in the funnel
+            final List<Message> receivedMessages = new ArrayList<>();
+            assertTimeout(ofSeconds(10), () -> {
+                while (receivedMessages.size() < 10) {
+                    final Message nextMessage = funnel.nextMessage();
+                    if (nextMessage != null) {
+                        receivedMessages.add(nextMessage);
+                    }
+                }
+            }, "Timed out waiting to receive messages");
+
+            // Ack each message, then request shutdown
+            receivedMessages.forEach((msg) -> funnel.ackMessage(msg.getId()));
+            funnel.requestStop();
+
+            // Wait for thread to stop.
+            assertTimeout(ofSeconds(10), (Executable) consumerThread::join, "Thread never stopped!");
+
+            // Read client connected, read and disconnected, but never committed.
+            verify(mockClient, times(1)).connect();
+            verify(mockClient, atLeast(1)).nextMessages();
+            verify(mockClient, times(1)).disconnect();
+
+            // Committer client committed each msg exactly once.
+            final ArgumentCaptor<List<String>> commitCaptor = ArgumentCaptor.forClass(List.class);
+            verify(mockCommitterClient, times(1)).connect();
+            verify(mockCommitterClient, atLeast(1)).commitMessages(commitCaptor.capture());
+            verify(mockCommitterClient, times(1)).disconnect();
+            verifyNoMoreInteractions(mockCommitterClient);
+
+            final List<String> committedIds = commitCaptor.getAllValues().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+            final List<String> expectedIds = receivedMessages.stream()
+                .map(Message::getId)
+                .collect(Collectors.toList());
+            assertEquals(expectedIds, committedIds, "Each msg should be committed exactly once");
+
+            // Verify funnel updated with status
+            assertFalse(funnel.isRunning());
+        } finally {
+            if (consumerThread.isAlive()) {
+                funnel.requestStop();
+                consumerThread.interrupt();
+                consumerThread.join(3000L);
+            }
+        }
+    }
+
+    /**
+     * Verifies that when configured to convert on the consumer thread, messages reach the funnel already converted,
+     * and messages converted into NULL are committed in bulk without ever reaching the funnel.
+     */
+    @Test
+    void testConvertsMessagesOnConsumerThread() throws InterruptedException {
+        final RedisStreamSpoutConfig conversionConfig = RedisStreamSpoutConfig.newBuilder()
+            .withServer(HOSTNAME, PORT)
+            .withStreamKey(STREAM_KEY)
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter("Key"))
+            .withConsumerDelayMillis(10L)
+            .withConsumerThreadConversion()
+            .build();
+        funnel = new MemoryFunnel(conversionConfig, new HashMap<>(), mockTopologyContext);
+        consumer = new Consumer(conversionConfig, mockClient, funnel);
+
+        // Every other message is missing the field, and converted into NULL.
+        final List<Message> messages = createMessageBatch(10, 0);
+        for (int index = 1; index < messages.size(); index += 2) {
+            messages.set(index, new Message(messages.get(index).getId(), Collections.emptyMap()));
+        }
+        when(mockClient.nextMessages()).thenReturn(messages, Collections.emptyList());
+
+        // Create a thread to run the Consumer
+        final Thread consumerThread = new Thread(consumer);
+        try {
+            consumerThread.start();
+
+            // Wait for messages to show up in the funnel
+            final List<Message> receivedMessages = new ArrayList<>();
+            assertTimeout(ofSeconds(10), () -> {
+                while (receivedMessages.size() < 5) {
+                    final Message nextMessage = funnel.nextMessage();
+                    if (nextMessage != null) {
+                        receivedMessages.add(nextMessage);
+                    }
+                }
+            }, "Timed out waiting to receive messages");
+
+            // Each arrived converted.
+            for (int index = 0; index < receivedMessages.size(); index++) {
+                final Message message = receivedMessages.get(index);
+                assertEquals("Id" + (index * 2), message.getId());
+                assertEquals(Arrays.asList(message.getId(), "Value" + (index * 2)), message.getTupleValue().getTuple());
+            }
+
+            funnel.requestStop();
+            assertTimeout(ofSeconds(10), (Executable) consumerThread::join, "Thread never stopped!");
+
+            // Messages converted into NULL were committed using a single commit.
+            verify(mockClient, times(1)).connect();
+            verify(mockClient, atLeast(1)).nextMessages();
+            verify(mockClient, times(1)).commitMessages(Arrays.asList("Id1", "Id3", "Id5", "Id7", "Id9"));
+            verify(mockClient, times(1)).disconnect();
+            assertNull(funnel.nextMessage(), "No more messages should be available");
+        } finally {
+            if (consumerThread.isAlive()) {
+                funnel.requestStop();
+                consumerThread.interrupt();
+                consumerThread.join(3000L);
+            }
+        }
+    }
+
+    /**
+     * Verifies a TupleConverter throwing on the consumer thread stops the consumer cleanly, and is rethrown
+     * on the spout thread rather than silently stalling the spout.
+     */
+    @Test
+    void testConverterErrorIsRethrownBySpout() throws InterruptedException {
+        final RuntimeException conversionError = new RuntimeException("Bad message");
+        final RedisStreamSpoutConfig conversionConfig = RedisStreamSpoutConfig.newBuilder()
+            .withServer(HOSTNAME, PORT)
+            .withStreamKey(STREAM_KEY)
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter() {
+                @Override
+                public TupleValue createTuple(final Message message) {
+                    throw conversionError;
+                }
+            })
+            .withConsumerDelayMillis(10L)
+            .withConsumerThreadConversion()
+            .build();
+        funnel = new MemoryFunnel(conversionConfig, new HashMap<>(), mockTopologyContext);
+        consumer = new Consumer(conversionConfig, mockClient, funnel);
+        when(mockClient.nextMessages()).thenReturn(createMessageBatch(3, 0), Collections.emptyList());
+
+        // Create a thread to run the Consumer
+        final Thread consumerThread = new Thread(consumer);
+        try {
+            consumerThread.start();
+
+            // Stops by itself, disconnecting and flagging it is no longer running.
+            assertTimeout(ofSeconds(10), (Executable) consumerThread::join, "Thread never stopped!");
+            assertFalse(funnel.isRunning());
+            verify(mockClient, times(1)).connect();
+            verify(mockClient, times(1)).nextMessages();
+            verify(mockClient, times(1)).disconnect();
+
+            // Nothing was emitted, and the error surfaces on the spout thread.
+            final IllegalStateException exception = assertThrows(IllegalStateException.class, funnel::nextMessage);
+            assertSame(conversionError, exception.getCause());
+
+            // Stops straight away.
+            assertTimeout(ofSeconds(10), funnel::requestStop);
+        } finally {
+            if (consumerThread.isAlive()) {
+                funnel.requestStop();
+                consumerThread.interrupt();
+                consumerThread.join(3000L);
+            }
+        }
+    }
+
     private List<Message> createMessageBatch(final int count, int startingValue) {
         final List<Message> messages = new ArrayList<>();
         for (int index = 0; index < count; index++) {
@@ -0,0 +1,36 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GroupConsumerTest {
+
+    /**
+     * Verifies parsing the raw XINFO CONSUMERS reply, as returned by either client library.
+     */
+    @Test
+    void testParseXinfoConsumers() {
+        final List<Object> reply = Arrays.asList(
+            Arrays.asList("name", "ConsumerId1", "pending", 2L, "idle", 300L),
+            Arrays.asList(
+                "name".getBytes(StandardCharsets.UTF_8), "ConsumerId2".getBytes(StandardCharsets.UTF_8),
+                "pending".getBytes(StandardCharsets.UTF_8), 0L,
+                "idle".getBytes(StandardCharsets.UTF_8), 400L
+            )
+        );
+
+        final List<GroupConsumer> consumers = GroupConsumer.parseXinfoConsumers(reply);
+        assertEquals(2, consumers.size());
+        assertEquals("ConsumerId1", consumers.get(0).getName());
+        assertEquals(2L, consumers.get(0).getPendingCount());
+        assertEquals(300L, consumers.get(0).getIdleMillis());
+        assertEquals("ConsumerId2", consumers.get(1).getName());
+        assertEquals(0L, consumers.get(1).getPendingCount());
+        assertEquals(400L, consumers.get(1).getIdleMillis());
+    }
+}
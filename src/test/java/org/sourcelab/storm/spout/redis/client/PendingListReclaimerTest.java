@@ -0,0 +1,110 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.apache.storm.Config;
+import org.apache.storm.task.TopologyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+import org.sourcelab.storm.spout.redis.failhandler.PendingListConfig;
+import org.sourcelab.storm.spout.redis.failhandler.PendingListFailureHandler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class PendingListReclaimerTest {
+    private static final String STREAM_KEY = "StreamKey";
+
+    private final RedisStreamSpoutConfig spoutConfig = RedisStreamSpoutConfig.newBuilder()
+        .withServer("localhost", 6379)
+        .withStreamKey(STREAM_KEY)
+        .withGroupName("GroupName")
+        .withConsumerIdPrefix("ConsumerId")
+        .withNoRetryFailureHandler()
+        .withTupleConverter(new TestTupleConverter())
+        .build();
+
+    private Client mockClient;
+    private PendingListFailureHandler failureHandler;
+
+    @BeforeEach
+    void setup() {
+        mockClient = mock(Client.class);
+
+        failureHandler = new PendingListFailureHandler(PendingListConfig.newBuilder()
+            .withRetryLimit(2)
+            .withInitialRetryDelayMs(1000L)
+            .withRetryDelayMultiplier(2.0)
+            .withMaxQueueingDelayMs(0L)
+            .withReclaimIntervalMs(0L)
+            .withReclaimBatchSize(4)
+            .withMetricsDisabled()
+        );
+        final Map<String, Object> stormConfig = new HashMap<>();
+        stormConfig.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 0);
+        failureHandler.open(stormConfig, mock(TopologyContext.class));
+    }
+
+    @AfterEach
+    void cleanup() {
+        // Ensure all interactions accounted for.
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    /**
+     * Verifies entries are claimed or dropped based on their idle time and delivery count,
+     * and that paging resumes after the last entry inspected.
+     */
+    @Test
+    void testReclaim() {
+        final PendingListReclaimer reclaimer = new PendingListReclaimer(spoutConfig, mockClient, failureHandler);
+        final List<Message> claimedMessages = Collections.singletonList(new Message("2-0", new HashMap<>()));
+
+        when(mockClient.pendingMessages(STREAM_KEY, "-", 4)).thenReturn(Arrays.asList(
+            // Not yet idle long enough
+            new PendingEntry("1-0", "ConsumerId1", 500L, 1L),
+            // Delivered once, idle longer than 1000ms
+            new PendingEntry("2-0", "ConsumerId1", 1500L, 1L),
+            // Delivered twice, idle longer than 2000ms
+            new PendingEntry("3-0", "ConsumerId1", 2500L, 2L),
+            // Delivered three times, exceeding the retry limit of 2
+            new PendingEntry("4-0", "ConsumerId1", 5000L, 3L)
+        ));
+        when(mockClient.claimMessages(eq(STREAM_KEY), eq(1000L), eq(Arrays.asList("2-0", "3-0")))).thenReturn(claimedMessages);
+
+        assertEquals(claimedMessages, reclaimer.reclaim());
+        verify(mockClient, times(1)).pendingMessages(STREAM_KEY, "-", 4);
+        verify(mockClient, times(1)).commitMessages(eq(Collections.singletonList("4-0")));
+        verify(mockClient, times(1)).claimMessages(eq(STREAM_KEY), eq(1000L), eq(Arrays.asList("2-0", "3-0")));
+
+        // Full page, so the next call should resume after the last entry, and wrap around after a partial page.
+        when(mockClient.pendingMessages(STREAM_KEY, "4-1", 4)).thenReturn(Collections.emptyList());
+        assertTrue(reclaimer.reclaim().isEmpty());
+        verify(mockClient, times(1)).pendingMessages(STREAM_KEY, "4-1", 4);
+
+        when(mockClient.pendingMessages(STREAM_KEY, "-", 4)).thenReturn(Collections.emptyList());
+        assertTrue(reclaimer.reclaim().isEmpty());
+        verify(mockClient, times(2)).pendingMessages(STREAM_KEY, "-", 4);
+    }
+
+    @Test
+    void testNextId() {
+        assertEquals("1526919030474-56", PendingListReclaimer.nextId("1526919030474-55"));
+        assertEquals("0-1", PendingListReclaimer.nextId("0-0"));
+        assertEquals("2-0", PendingListReclaimer.nextId("1-18446744073709551615"));
+    }
+}
@@ -0,0 +1,110 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+import org.sourcelab.storm.spout.redis.funnel.ConsumerFunnel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class PrefetcherTest {
+
+    private Client mockClient;
+    private RedisStreamSpoutConfig config;
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("localhost", 6379)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withMaxConsumePerRead(3)
+            .withMaxTupleQueueSize(5)
+            .withPrefetchBatches(2)
+            .build();
+
+        // Every read returns as many messages as asked for.
+        mockClient = mock(Client.class);
+        when(mockClient.nextMessages(anyInt())).thenAnswer((invocation) -> {
+            final List<Message> messages = new ArrayList<>();
+            for (int count = 0; count < (int) invocation.getArgument(0); count++) {
+                messages.add(new Message("Id" + nextId.getAndIncrement(), Collections.emptyMap()));
+            }
+            return messages;
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        // Ensure all interactions accounted for.
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    /**
+     * Verifies reading ahead stops once what is held, plus what is in the funnel, fills the tuple queue's capacity,
+     * and resumes only as the funnel is drained.
+     */
+    @Test
+    void testReadAheadBoundedByFunnelCapacity() throws InterruptedException {
+        final AtomicInteger remainingCapacity = new AtomicInteger(5);
+        final ConsumerFunnel mockFunnel = mock(ConsumerFunnel.class);
+        when(mockFunnel.getRemainingMessageCapacity()).thenAnswer((invocation) -> remainingCapacity.get());
+
+        final Prefetcher prefetcher = new Prefetcher(config, mockClient, mockFunnel);
+        final Thread thread = new Thread(prefetcher);
+        thread.start();
+        try {
+            // Reads a full batch, then only what is left of the funnel's capacity.
+            verify(mockClient, timeout(5000L)).nextMessages(3);
+            verify(mockClient, timeout(5000L)).nextMessages(2);
+            Thread.sleep(300L);
+            verify(mockClient, times(1)).connect();
+            verify(mockClient, times(1)).nextMessages(3);
+            verify(mockClient, times(1)).nextMessages(2);
+
+            // Handing a batch over to the funnel moves it from one to the other, so frees up no room.
+            assertEquals(3, prefetcher.nextBatch(1000L).size());
+            remainingCapacity.set(2);
+            prefetcher.handedOff(3);
+            Thread.sleep(300L);
+            verify(mockClient, times(1)).nextMessages(3);
+
+            // Draining the funnel frees up room for another read.
+            remainingCapacity.set(5);
+            verify(mockClient, timeout(5000L).times(2)).nextMessages(3);
+            assertEquals(2, prefetcher.nextBatch(1000L).size());
+            assertEquals(3, prefetcher.nextBatch(1000L).size());
+        } finally {
+            prefetcher.requestStop();
+            thread.join(5000L);
+        }
+        assertFalse(thread.isAlive(), "Should have stopped");
+        verify(mockClient, times(1)).disconnect();
+
+        // Any further reads happened after the last batch was taken.
+        verify(mockClient, atLeast(0)).nextMessages(anyInt());
+        assertTrue(nextId.get() >= 8);
+    }
+}
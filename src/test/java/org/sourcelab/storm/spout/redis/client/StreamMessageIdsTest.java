@@ -0,0 +1,110 @@
+package org.sourcelab.storm.spout.redis.client;
+
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.CompactMap;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamMessageIdsTest {
+
+    /**
+     * Verifies that when consuming from a single stream, messageIds are the entry ids as-is.
+     */
+    @Test
+    void testSingleStream() {
+        final StreamMessageIds messageIds = new StreamMessageIds(createConfig(Collections.singletonList("Stream1")));
+
+        final Message message = messageIds.createMessage("Stream1", "1-0", Collections.emptyMap());
+        assertEquals("1-0", message.getId());
+        assertEquals("Stream1", message.getStreamKey());
+        assertEquals("Stream1", messageIds.getStreamKey("1-0"));
+        assertEquals("1-0", messageIds.getEntryId("1-0"));
+        assertEquals(
+            Collections.singletonMap("Stream1", Arrays.asList("1-0", "2-0")),
+            messageIds.groupByStreamKey(Arrays.asList("1-0", "2-0"))
+        );
+    }
+
+    /**
+     * Verifies that when consuming from multiple streams, messageIds are qualified with the stream key,
+     * including stream keys which themselves contain the separator.
+     */
+    @Test
+    void testMultipleStreams() {
+        final StreamMessageIds messageIds = new StreamMessageIds(createConfig(Arrays.asList("Stream1", "events/{1}")));
+
+        final Message message = messageIds.createMessage("events/{1}", "1-0", Collections.emptyMap());
+        assertEquals("events/{1}/1-0", message.getId());
+        assertEquals("events/{1}", message.getStreamKey());
+        assertEquals("events/{1}", messageIds.getStreamKey(message.getId()));
+        assertEquals("1-0", messageIds.getEntryId(message.getId()));
+
+        final Map<String, List<String>> expected = new LinkedHashMap<>();
+        expected.put("Stream1", Arrays.asList("1-0", "3-0"));
+        expected.put("events/{1}", Collections.singletonList("2-0"));
+        assertEquals(
+            expected,
+            messageIds.groupByStreamKey(Arrays.asList("Stream1/1-0", "events/{1}/2-0", "Stream1/3-0"))
+        );
+    }
+
+    /**
+     * Verifies that message bodies are copied into a CompactMap, sharing field names across messages.
+     */
+    @Test
+    void testBodiesShareFieldNames() {
+        final StreamMessageIds messageIds = new StreamMessageIds(createConfig(Collections.singletonList("Stream1")));
+
+        final Map<String, String> body1 = new LinkedHashMap<>();
+        body1.put(new String("Field1"), "Value1");
+        body1.put(new String("Field2"), "Value2");
+        final Map<String, String> body2 = new LinkedHashMap<>();
+        body2.put(new String("Field1"), "Value3");
+
+        final Message message1 = messageIds.createMessage("Stream1", "1-0", body1);
+        final Message message2 = messageIds.createMessage("Stream1", "2-0", body2);
+        assertTrue(message1.getBody() instanceof CompactMap);
+        assertEquals(body1, message1.getBody());
+        assertEquals(body2, message2.getBody());
+        assertSame(
+            message1.getBody().keySet().iterator().next(),
+            message2.getBody().keySet().iterator().next()
+        );
+    }
+
+    /**
+     * Verifies that once full, the field name interner returns names as-is.
+     */
+    @Test
+    void testFieldNameInternerMaxSize() {
+        final FieldNameInterner interner = new FieldNameInterner(1);
+        final String name = interner.apply("Field1");
+        assertSame(name, interner.apply(new String("Field1")));
+
+        final String other = new String("Field2");
+        assertSame(other, interner.apply(other));
+        assertEquals(1, interner.size());
+    }
+
+    private RedisStreamSpoutConfig createConfig(final List<String> streamKeys) {
+        return RedisStreamSpoutConfig.newBuilder()
+            .withServer("localhost", 6379)
+            .withStreamKeys(streamKeys)
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .build();
+    }
+}
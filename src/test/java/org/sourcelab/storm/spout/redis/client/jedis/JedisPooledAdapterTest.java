@@ -0,0 +1,169 @@
+package org.sourcelab.storm.spout.redis.client.jedis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.sourcelab.storm.spout.redis.CompactMap;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JedisPooledAdapterTest {
+    private static final String STREAM_KEY = "StreamKey";
+    private static final String GROUP_NAME = "GroupName";
+
+    private JedisPool mockPool;
+    private Jedis mockJedis;
+    private Client mockClient;
+    private Pipeline mockPipeline;
+    private Response<Object> mockResponse;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        mockPool = mock(JedisPool.class);
+        mockJedis = mock(Jedis.class);
+        mockClient = mock(Client.class);
+        mockPipeline = mock(Pipeline.class);
+        mockResponse = mock(Response.class);
+
+        when(mockPool.getResource()).thenReturn(mockJedis);
+        when(mockJedis.pipelined()).thenReturn(mockPipeline);
+        when(mockJedis.getClient()).thenReturn(mockClient);
+        when(mockPipeline.sendCommand(eq(Protocol.Command.XREADGROUP), (String[]) any())).thenReturn(mockResponse);
+    }
+
+    /**
+     * Verifies acks are sent in a single pipeline straight away when read ack pipelining is disabled.
+     */
+    @Test
+    void testCommitSendsAcksImmediately() {
+        final JedisPooledAdapter adapter = new JedisPooledAdapter(mockPool, createConfig(false, false), 1);
+
+        adapter.commit(STREAM_KEY, Arrays.asList("1-0", "2-0"));
+
+        assertEquals(0, adapter.getHeldAckCount());
+        verify(mockPipeline).xack(STREAM_KEY, GROUP_NAME, new StreamEntryID("1-0"), new StreamEntryID("2-0"));
+        verify(mockPipeline).sync();
+        verify(mockJedis).close();
+    }
+
+    /**
+     * Verifies acks are held back and sent ahead of the next read in the same pipeline.
+     */
+    @Test
+    void testAcksSentWithNextRead() {
+        final JedisPooledAdapter adapter = new JedisPooledAdapter(mockPool, createConfig(true, false), 1);
+        adapter.advancePplOffset(STREAM_KEY, "0-0");
+
+        adapter.commit(STREAM_KEY, Arrays.asList("1-0", "2-0"));
+        adapter.commit(STREAM_KEY, "3-0");
+        assertEquals(3, adapter.getHeldAckCount());
+        verify(mockPool, never()).getResource();
+
+        // No messages read.
+        when(mockResponse.get()).thenReturn(null);
+        assertTrue(adapter.consume(10).isEmpty());
+
+        final InOrder inOrder = inOrder(mockPipeline, mockClient);
+        inOrder.verify(mockPipeline).xack(
+            STREAM_KEY, GROUP_NAME, new StreamEntryID("1-0"), new StreamEntryID("2-0"), new StreamEntryID("3-0")
+        );
+        inOrder.verify(mockPipeline).sendCommand(
+            Protocol.Command.XREADGROUP,
+            "GROUP", GROUP_NAME, "ConsumerId1", "COUNT", "10", "BLOCK", "1000", "STREAMS", STREAM_KEY, "0-0"
+        );
+        inOrder.verify(mockClient).setTimeoutInfinite();
+        inOrder.verify(mockPipeline).sync();
+        inOrder.verify(mockClient).rollbackTimeout();
+        assertEquals(0, adapter.getHeldAckCount());
+    }
+
+    /**
+     * Verifies acks still held back are sent on close.
+     */
+    @Test
+    void testHeldAcksSentOnClose() {
+        final JedisPooledAdapter adapter = new JedisPooledAdapter(mockPool, createConfig(true, false), 1);
+        adapter.commit(Collections.singletonMap(STREAM_KEY, Collections.singletonList("1-0")));
+
+        adapter.close();
+
+        verify(mockPipeline).xack(STREAM_KEY, GROUP_NAME, new StreamEntryID("1-0"));
+        verify(mockPipeline).sync();
+        verify(mockPool).close();
+        assertEquals(0, adapter.getHeldAckCount());
+    }
+
+    /**
+     * Verifies that when reading binary bodies, values are left as raw bytes until accessed.
+     */
+    @Test
+    void testConsumeBinaryBodies() {
+        final JedisPooledAdapter adapter = new JedisPooledAdapter(mockPool, createConfig(false, true), 1);
+        adapter.advancePplOffset(STREAM_KEY, "0-0");
+
+        final byte[] value = "Value1".getBytes(StandardCharsets.UTF_8);
+        when(mockResponse.get()).thenReturn(Collections.singletonList(Arrays.asList(
+            SafeEncoder.encode(STREAM_KEY),
+            Arrays.asList(
+                Arrays.asList(SafeEncoder.encode("1-0"), Arrays.asList(SafeEncoder.encode("Field1"), value)),
+                // Deleted while pending.
+                Arrays.asList(SafeEncoder.encode("2-0"), null)
+            )
+        )));
+
+        final List<Map.Entry<String, List<StreamEntry>>> entries = adapter.consume(10);
+        assertEquals(1, entries.size());
+        assertEquals(STREAM_KEY, entries.get(0).getKey());
+
+        final List<StreamEntry> streamEntries = entries.get(0).getValue();
+        assertEquals(2, streamEntries.size());
+        assertEquals(new StreamEntryID("1-0"), streamEntries.get(0).getID());
+        final CompactMap fields = (CompactMap) streamEntries.get(0).getFields();
+        assertEquals(ByteBuffer.wrap(value), fields.getRawValue("Field1"));
+        assertEquals(Collections.singletonMap("Field1", "Value1"), fields);
+        assertEquals(new StreamEntryID("2-0"), streamEntries.get(1).getID());
+        assertTrue(streamEntries.get(1).getFields().isEmpty());
+    }
+
+    private RedisStreamSpoutConfig createConfig(final boolean readAckPipelining, final boolean binaryBodies) {
+        return RedisStreamSpoutConfig.newBuilder()
+            .withServer("localhost", 6379)
+            .withStreamKey(STREAM_KEY)
+            .withGroupName(GROUP_NAME)
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withJedisClientLibrary()
+            .withJedisPool(1, 1)
+            .withJedisReadAckPipeliningEnabled(readAckPipelining)
+            .withBinaryBodiesEnabled(binaryBodies)
+            .build();
+    }
+}
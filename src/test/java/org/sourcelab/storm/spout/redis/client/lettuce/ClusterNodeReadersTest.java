@@ -0,0 +1,214 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
+import io.lettuce.core.cluster.models.partitions.Partitions;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.client.StreamMessageIds;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClusterNodeReadersTest {
+    private static final String STREAM_KEY_1 = "Stream{a}";
+    private static final String STREAM_KEY_2 = "Stream{b}";
+
+    private RedisStreamSpoutConfig config;
+    private LettuceClusterAdapter mockAdapter;
+    private StatefulRedisClusterConnection<String, String> mockConnection;
+    private Partitions mockPartitions;
+    private RedisClusterNode node1;
+    private RedisClusterNode node2;
+
+    /**
+     * Stream entries not yet read, by stream key.
+     */
+    private final ConcurrentHashMap<String, List<String>> unreadEntryIds = new ConcurrentHashMap<>();
+
+    /**
+     * Reads of these streams are held until the latch is released, counting down heldReadStarted once held.
+     */
+    private final ConcurrentHashMap<String, CountDownLatch> heldReads = new ConcurrentHashMap<>();
+    private final CountDownLatch heldReadStarted = new CountDownLatch(1);
+
+    private ClusterNodeReaders readers;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        config = RedisStreamSpoutConfig.newBuilder()
+            .withClusterNode("localhost", 7000)
+            .withStreamKeys(Arrays.asList(STREAM_KEY_1, STREAM_KEY_2))
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withConsumerBlockMillis(10L)
+            .withClusterNodeReaders()
+            .build();
+
+        node1 = new RedisClusterNode();
+        node1.setNodeId("node1");
+        node2 = new RedisClusterNode();
+        node2.setNodeId("node2");
+
+        mockPartitions = mock(Partitions.class);
+        when(mockPartitions.getPartitionBySlot(SlotHash.getSlot(STREAM_KEY_1))).thenReturn(node1);
+        when(mockPartitions.getPartitionBySlot(SlotHash.getSlot(STREAM_KEY_2))).thenReturn(node2);
+
+        // Each read returns whatever is unread on the stream, or blocks briefly if there is nothing.
+        final RedisAdvancedClusterCommands<String, String> mockCommands = mock(RedisAdvancedClusterCommands.class);
+        when(mockCommands.xreadgroup(any(Consumer.class), any(XReadArgs.class), any())).thenAnswer((invocation) -> {
+            final XReadArgs.StreamOffset<String> offset = invocation.getArgument(2);
+            final String streamKey = offset.getName();
+            final CountDownLatch release = heldReads.remove(streamKey);
+            if (release != null) {
+                heldReadStarted.countDown();
+                release.await();
+            }
+            final List<String> entryIds = unreadEntryIds.replace(streamKey, Collections.emptyList());
+            if (entryIds == null || entryIds.isEmpty()) {
+                Thread.sleep(config.getConsumerBlockMillis());
+                return Collections.emptyList();
+            }
+            return entryIds.stream()
+                .map((entryId) -> new StreamMessage<>(streamKey, entryId, Collections.singletonMap("key", "value")))
+                .collect(Collectors.toList());
+        });
+
+        mockConnection = mock(StatefulRedisClusterConnection.class);
+        when(mockConnection.getPartitions()).thenReturn(mockPartitions);
+        when(mockConnection.sync()).thenReturn(mockCommands);
+
+        mockAdapter = mock(LettuceClusterAdapter.class);
+        when(mockAdapter.connectReader()).thenReturn(mockConnection);
+
+        readers = new ClusterNodeReaders(
+            config,
+            mockAdapter,
+            Consumer.from("GroupName", "ConsumerId1"),
+            new StreamMessageIds(config),
+            new StreamReadState(config)
+        );
+    }
+
+    @AfterEach
+    void cleanup() {
+        readers.stop();
+    }
+
+    /**
+     * Verifies a reader is started for each node, and what each of them reads is handed over.
+     */
+    @Test
+    void testReadsFromEachNode() {
+        unreadEntryIds.put(STREAM_KEY_1, Arrays.asList("1-0", "2-0"));
+        unreadEntryIds.put(STREAM_KEY_2, Collections.singletonList("1-0"));
+
+        readers.start();
+        assertEquals(2, readers.getReaderCount());
+
+        final Set<String> expected = new HashSet<>(Arrays.asList(
+            STREAM_KEY_1 + "/1-0", STREAM_KEY_1 + "/2-0", STREAM_KEY_2 + "/1-0"
+        ));
+        assertEquals(expected, readUntil(expected.size()));
+
+        // Closes the readers' connection once stopped.
+        readers.stop();
+        assertEquals(0, readers.getReaderCount());
+        verify(mockConnection).close();
+    }
+
+    /**
+     * Verifies readers are re-assigned once a slot moves to another node.
+     */
+    @Test
+    void testReassignsReadersWhenSlotsMove() throws InterruptedException {
+        readers.start();
+        assertEquals(2, readers.getReaderCount());
+
+        // Move the second stream's slot to the first node.
+        when(mockPartitions.getPartitionBySlot(SlotHash.getSlot(STREAM_KEY_2))).thenReturn(node1);
+        Thread.sleep(1100L);
+        awaitReaderCount(1);
+
+        // Keeps reading from both streams.
+        unreadEntryIds.put(STREAM_KEY_1, Collections.singletonList("3-0"));
+        unreadEntryIds.put(STREAM_KEY_2, Collections.singletonList("3-0"));
+        final Set<String> expected = new HashSet<>(Arrays.asList(STREAM_KEY_1 + "/3-0", STREAM_KEY_2 + "/3-0"));
+        assertEquals(expected, readUntil(expected.size()));
+    }
+
+    /**
+     * Verifies re-assigning doesn't wait on a reader's read in flight, and what it reads once asked to stop is
+     * still handed over before new readers start.
+     */
+    @Test
+    void testCollectsWhatStoppingReadersRead() throws InterruptedException {
+        readers.start();
+        assertEquals(2, readers.getReaderCount());
+
+        // Hold the second stream's next read in flight.
+        final CountDownLatch release = new CountDownLatch(1);
+        heldReads.put(STREAM_KEY_2, release);
+        assertTrue(heldReadStarted.await(5, TimeUnit.SECONDS));
+        unreadEntryIds.put(STREAM_KEY_2, Collections.singletonList("5-0"));
+
+        // Move the second stream's slot to the first node, the readers are asked to stop without waiting on them.
+        when(mockPartitions.getPartitionBySlot(SlotHash.getSlot(STREAM_KEY_2))).thenReturn(node1);
+        Thread.sleep(1100L);
+        final long start = System.currentTimeMillis();
+        readers.nextMessages();
+        assertTrue(System.currentTimeMillis() - start < 1000L, "Should not wait on the read in flight");
+        assertEquals(0, readers.getReaderCount());
+
+        // Once the read completes, what it read is handed over, and new readers started.
+        release.countDown();
+        assertEquals(Collections.singleton(STREAM_KEY_2 + "/5-0"), readUntil(1));
+        awaitReaderCount(1);
+    }
+
+    private void awaitReaderCount(final int expectedCount) {
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (readers.getReaderCount() != expectedCount && System.currentTimeMillis() < deadline) {
+            readers.nextMessages();
+        }
+        assertEquals(expectedCount, readers.getReaderCount());
+    }
+
+    private Set<String> readUntil(final int expectedCount) {
+        final List<Message> messages = new ArrayList<>();
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (messages.size() < expectedCount && System.currentTimeMillis() < deadline) {
+            messages.addAll(readers.nextMessages());
+        }
+        return messages.stream()
+            .map(Message::getId)
+            .collect(Collectors.toSet());
+    }
+}
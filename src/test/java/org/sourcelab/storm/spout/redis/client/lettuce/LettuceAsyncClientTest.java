@@ -0,0 +1,107 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LettuceAsyncClientTest {
+    private static final String STREAM_KEY = "StreamKey";
+
+    private RedisStreamAsyncCommands<String, String> mockCommands;
+    private LettuceAsyncClient client;
+
+    /**
+     * Replies returned by each read, in order.
+     */
+    private final List<RedisFuture<List<StreamMessage<String, String>>>> replies = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        final RedisStreamSpoutConfig config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("localhost", 6379)
+            .withStreamKey(STREAM_KEY)
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withLettuceAsyncClientLibrary()
+            .build();
+
+        mockCommands = mock(RedisStreamAsyncCommands.class);
+        when(mockCommands.xreadgroup(any(Consumer.class), any(XReadArgs.class), any())).thenAnswer(
+            (invocation) -> replies.remove(0)
+        );
+
+        final LettuceAdapter mockAdapter = mock(LettuceAdapter.class);
+        when(mockAdapter.getAsyncCommands()).thenReturn(mockCommands);
+
+        client = new LettuceAsyncClient(config, 1, mockAdapter);
+    }
+
+    /**
+     * Verifies the next read is issued as soon as a full batch is returned, and collected by the following call.
+     */
+    @Test
+    void testReadsAheadAfterFullBatch() throws Exception {
+        replies.add(reply("1-0", "2-0"));
+        replies.add(reply("3-0"));
+
+        assertEquals(Arrays.asList("1-0", "2-0"), ids(client.nextMessages(2)));
+
+        // Full batch, so the next read is already in flight.
+        verify(mockCommands, times(2)).xreadgroup(any(Consumer.class), any(XReadArgs.class), any());
+
+        // Collects the read issued ahead, and only reads ahead again after another full batch.
+        assertEquals(Collections.singletonList("3-0"), ids(client.nextMessages(2)));
+        verify(mockCommands, times(2)).xreadgroup(any(Consumer.class), any(XReadArgs.class), any());
+    }
+
+    /**
+     * Verifies nothing is read ahead after a partial batch, as the next read would likely just block.
+     */
+    @Test
+    void testNoReadAheadAfterPartialBatch() throws Exception {
+        replies.add(reply("1-0"));
+
+        assertEquals(Collections.singletonList("1-0"), ids(client.nextMessages(2)));
+        verify(mockCommands, times(1)).xreadgroup(any(Consumer.class), any(XReadArgs.class), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisFuture<List<StreamMessage<String, String>>> reply(final String... entryIds) throws Exception {
+        final List<StreamMessage<String, String>> entries = Arrays.stream(entryIds)
+            .map((entryId) -> new StreamMessage<>(STREAM_KEY, entryId, Collections.singletonMap("key", "value")))
+            .collect(Collectors.toList());
+        final RedisFuture<List<StreamMessage<String, String>>> future = mock(RedisFuture.class);
+        when(future.await(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(future.get()).thenReturn(entries);
+        return future;
+    }
+
+    private static List<String> ids(final List<Message> messages) {
+        return messages.stream().map(Message::getId).collect(Collectors.toList());
+    }
+}
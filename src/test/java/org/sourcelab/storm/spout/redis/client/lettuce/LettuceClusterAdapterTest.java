@@ -2,6 +2,7 @@ package org.sourcelab.storm.spout.redis.client.lettuce;
 
 import io.lettuce.core.cluster.RedisClusterClient;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
 import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -35,6 +36,7 @@ class LettuceClusterAdapterTest {
     @Test
     void testAdapter() {
         final RedisAdvancedClusterCommands<String, String> mockCommands = mock(RedisAdvancedClusterCommands.class);
+        final RedisAdvancedClusterAsyncCommands<String, String> mockAsyncCommands = mock(RedisAdvancedClusterAsyncCommands.class);
 
         // Setup mocks
         when(mockClusterClient.connect())
@@ -43,6 +45,9 @@ class LettuceClusterAdapterTest {
         when(mockConnection.sync())
             .thenReturn(mockCommands);
 
+        when(mockConnection.async())
+            .thenReturn(mockAsyncCommands);
+
         // Create instance
         final LettuceClusterAdapter adapter = new LettuceClusterAdapter(mockClusterClient);
 
@@ -68,6 +73,14 @@ class LettuceClusterAdapterTest {
         verify(mockConnection, times(1))
             .sync();
 
+        // Call async multiple times
+        assertNotNull(adapter.getAsyncCommands());
+        assertNotNull(adapter.getAsyncCommands());
+
+        // Only interacts with mock once.
+        verify(mockConnection, times(1))
+            .async();
+
         // Call shutdown
         adapter.shutdown();
 
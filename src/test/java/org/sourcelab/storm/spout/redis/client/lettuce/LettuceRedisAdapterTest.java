@@ -2,6 +2,7 @@ package org.sourcelab.storm.spout.redis.client.lettuce;
 
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -36,6 +38,7 @@ class LettuceRedisAdapterTest {
     @Test
     void testAdapter() {
         final RedisCommands<String, String> mockCommands = mock(RedisCommands.class);
+        final RedisAsyncCommands<String, String> mockAsyncCommands = mock(RedisAsyncCommands.class);
 
         // Setup mocks
         when(mockRedisClient.connect())
@@ -44,6 +47,9 @@ class LettuceRedisAdapterTest {
         when(mockConnection.sync())
             .thenReturn(mockCommands);
 
+        when(mockConnection.async())
+            .thenReturn(mockAsyncCommands);
+
         // Create instance
         final LettuceRedisAdapter adapter = new LettuceRedisAdapter(mockRedisClient);
 
@@ -69,10 +75,55 @@ class LettuceRedisAdapterTest {
         verify(mockConnection, times(1))
             .sync();
 
+        // Call async multiple times
+        assertNotNull(adapter.getAsyncCommands());
+        assertNotNull(adapter.getAsyncCommands());
+
+        // Only interacts with mock once.
+        verify(mockConnection, times(1))
+            .async();
+
         // Call shutdown
         adapter.shutdown();
 
         verify(mockConnection, times(1)).close();
         verify(mockRedisClient, times(1)).shutdown();
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies binary commands use the adapter's only connection, opened with the binary codec.
+     */
+    @Test
+    void testBinarySyncCommands() {
+        final StatefulRedisConnection mockBinaryConnection = mock(StatefulRedisConnection.class);
+        final RedisCommands<String, byte[]> mockBinaryCommands = mock(RedisCommands.class);
+
+        // Setup mocks
+        when(mockRedisClient.connect(LettuceAdapter.BINARY_VALUE_CODEC))
+            .thenReturn(mockBinaryConnection);
+        when(mockBinaryConnection.sync())
+            .thenReturn(mockBinaryCommands);
+
+        final LettuceRedisAdapter adapter = new LettuceRedisAdapter(mockRedisClient, false, true);
+        assertTrue(adapter.hasBinaryValues(), "Should return true");
+        adapter.connect();
+        assertTrue(adapter.isConnected(), "Should return true");
+        verify(mockRedisClient, times(1)).connect(LettuceAdapter.BINARY_VALUE_CODEC);
+
+        // Call multiple times
+        assertNotNull(adapter.getBinarySyncCommands());
+        assertNotNull(adapter.getBinarySyncCommands());
+        verify(mockBinaryConnection, times(1)).sync();
+
+        // String commands would need a second connection.
+        assertThrows(IllegalStateException.class, adapter::getSyncCommands);
+        assertThrows(IllegalStateException.class, adapter::getAsyncCommands);
+
+        // Call shutdown
+        adapter.shutdown();
+
+        verify(mockBinaryConnection, times(1)).close();
+        verify(mockRedisClient, times(1)).shutdown();
+        verifyNoMoreInteractions(mockBinaryConnection);
+    }
+}
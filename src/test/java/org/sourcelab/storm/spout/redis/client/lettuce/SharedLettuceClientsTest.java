@@ -0,0 +1,68 @@
+package org.sourcelab.storm.spout.redis.client.lettuce;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedLettuceClientsTest {
+
+    /**
+     * Verifies tasks connecting to the same server share a client, clients share resources,
+     * and each is only released once every task has released it.
+     */
+    @Test
+    void testAcquireAndRelease() {
+        final RedisStreamSpoutConfig config1 = createConfig("host1");
+        final RedisStreamSpoutConfig config2 = createConfig("host2");
+
+        final AbstractRedisClient client1 = SharedLettuceClients.acquire(config1);
+        final AbstractRedisClient client2 = SharedLettuceClients.acquire(config1);
+        final AbstractRedisClient client3 = SharedLettuceClients.acquire(config2);
+        try {
+            assertTrue(client1 instanceof RedisClient);
+            assertSame(client1, client2, "Same server should share a client");
+            assertNotSame(client1, client3, "Different servers should not share a client");
+            assertSame(
+                ((RedisClient) client1).getResources(),
+                ((RedisClient) client3).getResources(),
+                "Clients should share resources"
+            );
+            assertEquals(2, SharedLettuceClients.getReferenceCount(client1));
+
+            SharedLettuceClients.release(client1);
+            assertEquals(1, SharedLettuceClients.getReferenceCount(client1));
+
+            // Acquiring again re-uses the client still held.
+            assertSame(client1, SharedLettuceClients.acquire(config1));
+            SharedLettuceClients.release(client1);
+        } finally {
+            SharedLettuceClients.release(client2);
+            SharedLettuceClients.release(client3);
+        }
+        assertEquals(0, SharedLettuceClients.getReferenceCount(client1));
+        assertEquals(0, SharedLettuceClients.getReferenceCount(client3));
+
+        // Can't release more than acquired.
+        assertThrows(IllegalStateException.class, () -> SharedLettuceClients.release(client1));
+    }
+
+    private RedisStreamSpoutConfig createConfig(final String host) {
+        return RedisStreamSpoutConfig.newBuilder()
+            .withServer(host, 6379)
+            .withStreamKey("StreamKey")
+            .withGroupName("GroupName")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withSharedClientResources(1, 1)
+            .build();
+    }
+}
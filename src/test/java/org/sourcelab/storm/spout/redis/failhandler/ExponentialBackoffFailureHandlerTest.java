@@ -13,7 +13,6 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.HashMap;
-import java.util.Queue;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -591,13 +590,12 @@ class ExponentialBackoffFailureHandlerTest {
     ) {
         final String messageId = message.getId();
 
-        // Find its queue
-        final Queue<Message> failQueue = handler.getFailedMessages().get(expectedRetryTime);
-        assertNotNull(
-            failQueue,
-            "Queue should exist for our retry time of " + expectedRetryTime + " has [" + handler.getFailedMessages().keySet() + "]"
+        // Should be scheduled for the expected retry time
+        assertEquals(
+            (Long) expectedRetryTime,
+            handler.getFailedMessages().getDeadline(messageId),
+            "Should be scheduled for our retry time of " + expectedRetryTime
         );
-        assertTrue(failQueue.contains(message), "Queue should contain our message");
 
         // This messageId should have the right number of fails associated with it.
         assertEquals(
@@ -608,19 +606,11 @@ class ExponentialBackoffFailureHandlerTest {
     }
 
     private void validateTupleNotInFailedSet(final ExponentialBackoffFailureHandler handler, final Message message) {
-        // Loop through all failed tuples
-        for (final Long key : handler.getFailedMessages().keySet()) {
-            final Queue queue = handler.getFailedMessages().get(key);
-            assertFalse(queue.contains(message), "Should not contain our message");
-        }
+        assertFalse(handler.getFailedMessages().contains(message.getId()), "Should not contain our message");
     }
 
     private void validateTupleIsNotBeingTracked(final ExponentialBackoffFailureHandler handler, final Message message) {
-        // Loop through all failed tuples
-        for (final Long key : handler.getFailedMessages().keySet()) {
-            final Queue queue = handler.getFailedMessages().get(key);
-            assertFalse(queue.contains(message), "Should not contain our message");
-        }
+        assertFalse(handler.getFailedMessages().contains(message.getId()), "Should not contain our message");
         assertFalse(handler.getNumberOfTimesFailed().containsKey(message), "Should not have a fail count");
     }
 
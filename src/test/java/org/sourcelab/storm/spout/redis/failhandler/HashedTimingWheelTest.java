@@ -0,0 +1,88 @@
+package org.sourcelab.storm.spout.redis.failhandler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+    private static final long NOW = 1_000_000L;
+
+    /**
+     * Verifies values only become available once their deadline has passed, earliest first.
+     */
+    @Test
+    void testExpiresInDeadlineOrder() {
+        final HashedTimingWheel<String, String> wheel = new HashedTimingWheel<>(16);
+
+        wheel.schedule("C", "ValueC", NOW + 30, NOW);
+        wheel.schedule("A", "ValueA", NOW + 10, NOW);
+        wheel.schedule("B", "ValueB", NOW + 20, NOW);
+        assertEquals(3, wheel.size());
+
+        assertNull(wheel.poll(NOW));
+        assertNull(wheel.poll(NOW + 9));
+        assertEquals("ValueA", wheel.poll(NOW + 10));
+        assertNull(wheel.poll(NOW + 10));
+
+        // Both remaining have expired
+        assertEquals("ValueB", wheel.poll(NOW + 35));
+        assertEquals("ValueC", wheel.poll(NOW + 35));
+        assertNull(wheel.poll(NOW + 35));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Verifies deadlines further away than a full rotation of the wheel are honored.
+     */
+    @Test
+    void testDeadlinesBeyondOneRotation() {
+        final HashedTimingWheel<String, String> wheel = new HashedTimingWheel<>(16);
+
+        // Lands in the same slot as NOW + 5, but several rotations later.
+        wheel.schedule("Far", "ValueFar", NOW + 5 + (16 * 4), NOW);
+        wheel.schedule("Near", "ValueNear", NOW + 5, NOW);
+
+        assertEquals("ValueNear", wheel.poll(NOW + 5));
+        assertNull(wheel.poll(NOW + 5));
+
+        // Sweep over the slot several more times without it expiring.
+        for (long now = NOW + 6; now < NOW + 5 + (16 * 4); now += 7) {
+            assertNull(wheel.poll(now));
+        }
+        assertEquals("ValueFar", wheel.poll(NOW + 5 + (16 * 4)));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Verifies rescheduling and removing entries.
+     */
+    @Test
+    void testRescheduleAndRemove() {
+        final HashedTimingWheel<String, String> wheel = new HashedTimingWheel<>(16);
+
+        wheel.schedule("A", "ValueA", NOW + 10, NOW);
+        wheel.schedule("B", "ValueB", NOW + 10, NOW);
+
+        // Push A back
+        wheel.schedule("A", "ValueA2", NOW + 100, NOW);
+        assertEquals(2, wheel.size());
+        assertEquals((Long) (NOW + 100), wheel.getDeadline("A"));
+
+        assertEquals("ValueB", wheel.poll(NOW + 50));
+        assertNull(wheel.poll(NOW + 50));
+        assertFalse(wheel.contains("B"));
+
+        // Remove A
+        assertTrue(wheel.remove("A"));
+        assertFalse(wheel.remove("A"));
+        assertNull(wheel.poll(NOW + 1000));
+        assertEquals(0, wheel.size());
+
+        // Scheduling an already passed deadline makes it available immediately.
+        wheel.schedule("C", "ValueC", NOW + 900, NOW + 1000);
+        assertEquals("ValueC", wheel.poll(NOW + 1000));
+    }
+}
@@ -0,0 +1,96 @@
+package org.sourcelab.storm.spout.redis.failhandler;
+
+import org.apache.storm.Config;
+import org.apache.storm.task.TopologyContext;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class PendingListFailureHandlerTest {
+
+    /**
+     * Failed messages are left pending, never buffered or replayed by the handler itself.
+     */
+    @Test
+    void testFailLeavesMessagesPending() {
+        final TopologyContext mockTopologyContext = mock(TopologyContext.class);
+        final PendingListFailureHandler handler = new PendingListFailureHandler(PendingListConfig.newBuilder());
+        handler.open(new HashMap<>(), mockTopologyContext);
+
+        final Message message = new Message("1-0", new HashMap<>());
+        for (int counter = 0; counter < 10; counter++) {
+            assertTrue(handler.fail(message));
+            assertNull(handler.getMessage());
+        }
+        handler.ack(message.getId());
+        assertFalse(handler.fail(null));
+
+        verify(mockTopologyContext, times(1)).registerCounter(eq("failureHandler_exceededRetryLimit"));
+        verify(mockTopologyContext, times(1)).registerCounter(eq("failureHandler_retriedMessages"));
+        verifyNoMoreInteractions(mockTopologyContext);
+    }
+
+    /**
+     * When configured to never retry, failed messages are acked.
+     */
+    @Test
+    void testRetryNever() {
+        final PendingListFailureHandler handler = new PendingListFailureHandler(PendingListConfig.newBuilder()
+            .withRetryNever()
+            .withMetricsDisabled()
+        );
+        handler.open(new HashMap<>(), mock(TopologyContext.class));
+
+        assertFalse(handler.fail(new Message("1-0", new HashMap<>())));
+    }
+
+    /**
+     * The initial retry delay must outlast the topology's message timeout plus the max queueing delay, otherwise
+     * messages still in flight would be reclaimed and delivered twice.
+     */
+    @Test
+    void testRetryDelayMustOutlastMessageTimeout() {
+        final Map<String, Object> stormConfig = new HashMap<>();
+        stormConfig.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 30);
+
+        final PendingListFailureHandler handler = new PendingListFailureHandler(PendingListConfig.newBuilder()
+            .withInitialRetryDelayMs(35_000L)
+            .withMaxQueueingDelayMs(5_000L)
+            .withMetricsDisabled()
+        );
+        assertThrows(IllegalStateException.class, () -> handler.open(stormConfig, mock(TopologyContext.class)));
+
+        stormConfig.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 29);
+        handler.open(stormConfig, mock(TopologyContext.class));
+    }
+
+    /**
+     * Retry delay grows exponentially with the delivery count, up to the max.
+     */
+    @Test
+    void testRetryDelay() {
+        final PendingListConfig config = PendingListConfig.newBuilder()
+            .withInitialRetryDelayMs(1000L)
+            .withRetryDelayMultiplier(3.0)
+            .withRetryDelayMaxMs(20_000L)
+            .build();
+
+        assertEquals(1000L, config.getRetryDelayMs(1));
+        assertEquals(3000L, config.getRetryDelayMs(2));
+        assertEquals(9000L, config.getRetryDelayMs(3));
+        assertEquals(20_000L, config.getRetryDelayMs(4));
+    }
+}
@@ -0,0 +1,61 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class BoundedBatchQueueTest {
+
+    /**
+     * Verifies batches are added up to capacity, in order.
+     */
+    @Test
+    void testPutAllUpToCapacity() {
+        final BoundedBatchQueue<Integer> queue = new BoundedBatchQueue<>(3);
+        assertNull(queue.poll(), "Should be empty");
+
+        assertTimeout(ofSeconds(5), () -> {
+            assertEquals(2, queue.putAll(Arrays.asList(1, 2)));
+            assertEquals(1, queue.putAll(Arrays.asList(3, 4, 5)));
+        });
+        assertEquals(3, queue.size());
+
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertNull(queue.poll(), "Should be empty");
+        assertEquals(0, queue.size());
+    }
+
+    /**
+     * Verifies adding to a full queue waits until an entry is removed.
+     */
+    @Test
+    void testPutAllWaitsWhileFull() throws Exception {
+        final BoundedBatchQueue<Integer> queue = new BoundedBatchQueue<>(2);
+        queue.putAll(Arrays.asList(1, 2));
+
+        final CompletableFuture<Integer> added = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.putAll(Arrays.asList(3, 4));
+            } catch (final InterruptedException exception) {
+                throw new RuntimeException(exception);
+            }
+        });
+        Thread.sleep(100L);
+        assertFalse(added.isDone(), "Should wait for room");
+
+        assertEquals(1, queue.poll());
+        assertEquals(1, added.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+    }
+}
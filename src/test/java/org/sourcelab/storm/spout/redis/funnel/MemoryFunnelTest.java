@@ -9,8 +9,11 @@ import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
 import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
 import org.sourcelab.storm.spout.redis.failhandler.RetryFailedTuples;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -155,6 +158,61 @@ class MemoryFunnelTest {
         verifyMetricInteractions();
     }
 
+    /**
+     * Verifies bulk adding messages only accepts as many as there is room for,
+     * and bulk draining acks respects the requested maximum.
+     */
+    @Test
+    void testBulkHandOff() {
+        // Create config with small queues
+        final RedisStreamSpoutConfig config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withGroupName("GroupName")
+            .withStreamKey("Key")
+            .withConsumerIdPrefix("ConsumerId")
+            .withNoRetryFailureHandler()
+            .withTupleConverter(new TestTupleConverter())
+            .withMaxTupleQueueSize(3)
+            .build();
+
+        final List<Message> messages = new ArrayList<>();
+        for (int index = 0; index < 5; index++) {
+            messages.add(new Message("MyMsgId" + index, Collections.singletonMap("Key", "Value" + index)));
+        }
+
+        // Create funnel
+        final MemoryFunnel funnel = new MemoryFunnel(config, new HashMap<>(), mockTopologyContext);
+
+        // Only 3 should fit
+        assertEquals(3, funnel.getRemainingMessageCapacity());
+        assertEquals(3, funnel.addMessages(messages));
+        assertEquals(0, funnel.getRemainingMessageCapacity());
+        assertEquals("MyMsgId0", funnel.nextMessage().getId());
+
+        // Room for one more
+        assertEquals(1, funnel.getRemainingMessageCapacity());
+        assertEquals(1, funnel.addMessages(messages.subList(3, 5)));
+        assertEquals("MyMsgId1", funnel.nextMessage().getId());
+        assertEquals("MyMsgId2", funnel.nextMessage().getId());
+        assertEquals("MyMsgId3", funnel.nextMessage().getId());
+        assertNull(funnel.nextMessage(), "Should have no messages");
+
+        // Ack them
+        funnel.ackMessage("MyMsgId0");
+        funnel.ackMessage("MyMsgId1");
+        funnel.ackMessage("MyMsgId2");
+
+        // Drain at most 2
+        final List<String> drained = new ArrayList<>();
+        assertEquals(2, funnel.drainAcks(drained, 2));
+        assertEquals(1, funnel.drainAcks(drained, 2));
+        assertEquals(0, funnel.drainAcks(drained, 2));
+        assertEquals(Arrays.asList("MyMsgId0", "MyMsgId1", "MyMsgId2"), drained);
+
+        // Verify standard metric interactions
+        verifyMetricInteractions();
+    }
+
     /**
      * Smoke test failure handler.
      */
@@ -274,6 +332,75 @@ class MemoryFunnelTest {
         verifyNoInteractions(mockTopologyContext);
     }
 
+    /**
+     * Verify that when delivering at most once, messages are not tracked in flight.
+     */
+    @Test
+    void test_atMostOnceDoesNotTrackInFlight() {
+        // Create config
+        final RedisStreamSpoutConfig config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withGroupName("GroupName")
+            .withStreamKey("Key")
+            .withConsumerIdPrefix("ConsumerId")
+            .withFailureHandler(new RetryFailedTuples(2))
+            .withTupleConverter(new TestTupleConverter())
+            .withAtMostOnceDelivery()
+            .withMetricsDisabled()
+            .build();
+
+        final String msgId = "MyMsgId1";
+        final Message message = new Message(msgId, Collections.singletonMap("Key1", "Value1"));
+
+        // Create funnel
+        final MemoryFunnel funnel = new MemoryFunnel(config, new HashMap<>(), mockTopologyContext);
+        funnel.addMessage(message);
+        assertEquals(message, funnel.nextMessage());
+
+        // Not tracked, so can't be failed and replayed.
+        assertFalse(funnel.failMessage(msgId));
+        assertNull(funnel.nextMessage());
+    }
+
+    /**
+     * Verify that when tuples are anchored to their message, messages are not tracked in flight,
+     * but can still be failed and replayed using the message itself.
+     */
+    @Test
+    void test_messageReferenceIdsFailUsingMessage() {
+        // Create config
+        final RedisStreamSpoutConfig config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withGroupName("GroupName")
+            .withStreamKey("Key")
+            .withConsumerIdPrefix("ConsumerId")
+            .withFailureHandler(new RetryFailedTuples(1))
+            .withTupleConverter(new TestTupleConverter())
+            .withMessageReferenceIds()
+            .withMetricsDisabled()
+            .build();
+
+        final String msgId = "MyMsgId1";
+        final Message message = new Message(msgId, Collections.singletonMap("Key1", "Value1"));
+
+        // Create funnel
+        final MemoryFunnel funnel = new MemoryFunnel(config, new HashMap<>(), mockTopologyContext);
+        funnel.addMessage(message);
+        assertEquals(message, funnel.nextMessage());
+
+        // Not tracked by id.
+        assertFalse(funnel.failMessage(msgId));
+
+        // Failing the message itself replays it.
+        assertTrue(funnel.failMessage(message));
+        assertEquals(message, funnel.nextMessage());
+
+        // Out of retries, so acked instead.
+        assertFalse(funnel.failMessage(message));
+        assertEquals(msgId, funnel.nextAck());
+        assertNull(funnel.nextMessage());
+    }
+
     private void verifyMetricInteractions() {
         verify(mockTopologyContext, times(1))
             .registerGauge(eq("tupleQueueSize"), any());
@@ -0,0 +1,71 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import org.apache.storm.task.TopologyContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.storm.spout.redis.Message;
+import org.sourcelab.storm.spout.redis.RedisStreamSpoutConfig;
+import org.sourcelab.storm.spout.redis.example.TestTupleConverter;
+import org.sourcelab.storm.spout.redis.failhandler.RetryFailedTuples;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class RingBufferFunnelTest {
+
+    private TopologyContext mockTopologyContext;
+
+    @BeforeEach
+    public void setup() {
+        mockTopologyContext = mock(TopologyContext.class);
+    }
+
+    /**
+     * Smoke test passing messages, fails and acks through the funnel.
+     */
+    @Test
+    void testPassingMessagesAndAcks() {
+        // Create config
+        final RedisStreamSpoutConfig config = RedisStreamSpoutConfig.newBuilder()
+            .withServer("host", 123)
+            .withGroupName("GroupName")
+            .withStreamKey("Key")
+            .withConsumerIdPrefix("ConsumerId")
+            .withFailureHandler(new RetryFailedTuples(2))
+            .withTupleConverter(new TestTupleConverter())
+            .withRingBufferFunnel(WaitStrategy.YIELD)
+            .build();
+
+        // Create funnel via factory
+        final AbstractFunnel funnel = new FunnelFactory().createFunnel(config, new HashMap<>(), mockTopologyContext);
+        assertTrue(funnel instanceof RingBufferFunnel);
+
+        // Ask for message, should be empty
+        assertNull(funnel.nextMessage(), "Should have no messages");
+        assertNull(funnel.nextAck(), "Should have no acks");
+        assertNull(funnel.nextAck(10L), "Should have no acks");
+
+        // Push messages into funnel
+        assertTrue(funnel.addMessage(new Message("MyMsgId1", Collections.singletonMap("Key1", "Value1"))));
+        assertTrue(funnel.addMessage(new Message("MyMsgId2", Collections.singletonMap("Key2", "Value2"))));
+
+        // Take first message and fail it, it should be replayed
+        assertEquals("MyMsgId1", funnel.nextMessage().getId());
+        assertTrue(funnel.failMessage("MyMsgId1"));
+        assertEquals("MyMsgId1", funnel.nextMessage().getId());
+        assertEquals("MyMsgId2", funnel.nextMessage().getId());
+        assertNull(funnel.nextMessage(), "Should have no messages");
+
+        // Ack both
+        funnel.ackMessage("MyMsgId2");
+        funnel.ackMessage("MyMsgId1");
+        assertEquals("MyMsgId2", funnel.nextAck());
+        assertEquals("MyMsgId1", funnel.nextAck(10L));
+        assertNull(funnel.nextAck(), "Should have no acks");
+    }
+}
@@ -0,0 +1,112 @@
+package org.sourcelab.storm.spout.redis.funnel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpscRingBufferTest {
+
+    /**
+     * Verifies the buffer holds exactly its capacity, even when not a power of two,
+     * and hands entries back in order as positions wrap around.
+     */
+    @Test
+    void testCapacityAndOrdering() {
+        final SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(3);
+        assertEquals(3, buffer.capacity());
+        assertNull(buffer.poll(), "Should be empty");
+
+        int nextIn = 0;
+        int nextOut = 0;
+        for (int round = 0; round < 10; round++) {
+            // Fill it up
+            assertTrue(buffer.offer(nextIn++));
+            assertTrue(buffer.offer(nextIn++));
+            assertTrue(buffer.offer(nextIn++));
+            assertEquals(3, buffer.size());
+
+            // Should reject once full
+            assertFalse(buffer.offer(-1), "Should be full");
+
+            // Drain it
+            assertEquals(nextOut++, buffer.poll());
+            assertEquals(nextOut++, buffer.poll());
+            assertEquals(nextOut++, buffer.poll());
+            assertNull(buffer.poll(), "Should be empty");
+            assertEquals(0, buffer.size());
+        }
+    }
+
+    /**
+     * Verifies bulk offers only accept as many entries as there is room for,
+     * and bulk drains respect the requested maximum.
+     */
+    @Test
+    void testBulkOfferAndDrain() {
+        final SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(5);
+
+        assertEquals(3, buffer.offer(Arrays.asList(0, 1, 2)));
+        assertEquals(2, buffer.offer(Arrays.asList(3, 4, 5, 6)));
+        assertEquals(0, buffer.offer(Arrays.asList(5, 6)));
+
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals(Arrays.asList(0, 1), drained);
+
+        // Wraps around
+        assertEquals(2, buffer.offer(Arrays.asList(5, 6)));
+        assertEquals(5, buffer.drainTo(drained, 10));
+        assertEquals(0, buffer.drainTo(drained, 10));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), drained);
+    }
+
+    /**
+     * Verifies entries pass between a producer and consumer thread intact and in order.
+     */
+    @Test
+    void testConcurrentProducerAndConsumer() throws InterruptedException {
+        final int numberOfEntries = 100_000;
+        final SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(64);
+
+        final Thread producer = new Thread(() -> {
+            for (int value = 0; value < numberOfEntries; value++) {
+                while (!buffer.offer(value)) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        final List<Integer> received = new ArrayList<>(numberOfEntries);
+        try {
+            producer.start();
+            assertTimeout(ofSeconds(30), () -> {
+                while (received.size() < numberOfEntries) {
+                    final Integer value = buffer.poll();
+                    if (value != null) {
+                        received.add(value);
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }, "Timed out waiting to receive entries");
+            assertTimeout(ofSeconds(10), (Executable) producer::join, "Producer never stopped!");
+        } finally {
+            producer.interrupt();
+        }
+
+        for (int index = 0; index < numberOfEntries; index++) {
+            assertEquals(index, received.get(index));
+        }
+        assertNull(buffer.poll(), "Should be empty");
+    }
+}